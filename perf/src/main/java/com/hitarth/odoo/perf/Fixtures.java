@@ -0,0 +1,102 @@
+package com.hitarth.odoo.perf;
+
+import com.hitarth.odoo.model.CartItem;
+import com.hitarth.odoo.model.Product;
+import com.hitarth.odoo.model.User;
+import com.hitarth.odoo.service.ProductService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic entities for the benchmarks.
+ * The same seed always produces the same products, so runs are comparable.
+ */
+public final class Fixtures {
+
+    public static final long SEED = 42L;
+
+    private static final String[] WORDS = {
+        "vintage", "wooden", "chair", "laptop", "jacket", "lamp", "camera", "guitar",
+        "desk", "bicycle", "phone", "novel", "sofa", "watch", "speaker", "table"
+    };
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private Fixtures() {
+    }
+
+    /**
+     * Sellers with sequential ids
+     */
+    public static List<User> sellers(int count) {
+        List<User> sellers = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            User user = new User("seller" + i, "seller" + i + "@example.com", "$2a$10$hash");
+            user.setId((long) i);
+            user.setCreatedAt(BASE_TIME);
+            user.setUpdatedAt(BASE_TIME);
+            sellers.add(user);
+        }
+        return sellers;
+    }
+
+    /**
+     * Products spread over the given sellers
+     * @param inlineImageBytes size of the base64 data URI stored in imageUrl, 0 for a plain URL
+     */
+    public static List<Product> products(int count, List<User> sellers, int inlineImageBytes) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String inlineImage = inlineImageBytes > 0 ? dataUri(random, inlineImageBytes) : null;
+
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            String category = ProductService.CATEGORIES[random.nextInt(ProductService.CATEGORIES.length)];
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(100, 500_000), 2);
+
+            Product product = new Product(title, "Pre-owned " + title + " in good shape, pickup or delivery.",
+                    category, price, sellers.get(random.nextInt(sellers.size())));
+            product.setId((long) i);
+            product.setQuantity(1 + random.nextInt(5));
+            product.setConditionType(ProductService.CONDITION_TYPES[random.nextInt(ProductService.CONDITION_TYPES.length)]);
+            product.setBrand("Brand" + random.nextInt(50));
+            product.setColor("Black");
+            product.setImageUrl(inlineImage != null ? inlineImage : "https://img.example.com/p/" + i + ".jpg");
+            product.setCreatedAt(BASE_TIME.plusMinutes(i));
+            product.setUpdatedAt(BASE_TIME.plusMinutes(i));
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * Cart lines for one buyer over the first products
+     */
+    public static List<CartItem> cartItems(int count, List<Product> products) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        User buyer = new User("buyer", "buyer@example.com", "$2a$10$hash");
+        buyer.setId(0L);
+
+        List<CartItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CartItem item = new CartItem(buyer, products.get(i % products.size()), 1 + random.nextInt(3));
+            item.setId((long) i + 1);
+            item.setAddedAt(BASE_TIME);
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static String dataUri(SplittableRandom random, int bytes) {
+        byte[] image = new byte[bytes];
+        for (int i = 0; i < bytes; i++) {
+            image[i] = (byte) random.nextInt(256);
+        }
+        return "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(image);
+    }
+}
@@ -0,0 +1,54 @@
+package com.hitarth.odoo.perf;
+
+import com.hitarth.odoo.dto.ProductResponse;
+import com.hitarth.odoo.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Entity to DTO mapping as done by ProductService for single products and write results
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ProductMappingBenchmark {
+
+    @Param({"1", "100", "1000"})
+    int products;
+
+    private List<Product> entities;
+
+    @Setup
+    public void setUp() {
+        entities = Fixtures.products(products, Fixtures.sellers(20), 0);
+    }
+
+    @Benchmark
+    public void singleProduct(Blackhole blackhole) {
+        blackhole.consume(new ProductResponse(entities.get(0)));
+    }
+
+    @Benchmark
+    public List<ProductResponse> streamCollect() {
+        return entities.stream()
+                .map(ProductResponse::new)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ProductResponse> presizedLoop() {
+        List<ProductResponse> responses = new ArrayList<>(entities.size());
+        for (Product product : entities) {
+            responses.add(new ProductResponse(product));
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,52 @@
+package com.hitarth.odoo.perf;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hitarth.odoo.dto.ProductResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * JSON serialization of product listings, with plain image URLs and with inline base64 images
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ProductSerializationBenchmark {
+
+    @Param({"20", "200"})
+    int products;
+
+    // Size of the decoded inline image, 0 means a plain URL
+    @Param({"0", "65536"})
+    int inlineImageBytes;
+
+    private ObjectMapper objectMapper;
+    private List<ProductResponse> responses;
+
+    @Setup
+    public void setUp() {
+        // Same defaults as the mapper Spring Boot configures for the controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        responses = Fixtures.products(products, Fixtures.sellers(20), inlineImageBytes).stream()
+                .map(ProductResponse::new)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] writeBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public String writeString() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(responses);
+    }
+}
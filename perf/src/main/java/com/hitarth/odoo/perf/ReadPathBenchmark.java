@@ -0,0 +1,126 @@
+package com.hitarth.odoo.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hitarth.odoo.OdooApplication;
+import com.hitarth.odoo.dto.ProductResponse;
+import com.hitarth.odoo.model.Product;
+import com.hitarth.odoo.perf.datagen.DataGenerator;
+import com.hitarth.odoo.repository.ProductRepository;
+import com.hitarth.odoo.service.ProductCardStore;
+import com.hitarth.odoo.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The active product listing through the application's JPA stack on in-memory H2 (MySQL mode):
+ * entities in a read-write transaction (snapshots, dirty check at flush), entities in a read-only
+ * transaction and the DTO projection, then the response body itself: the projection serialized by Jackson
+ * against the listing cards GET /api/products streams from the result set or copies from the off-heap card store.
+ * Run with the gc profiler for allocation per listing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ReadPathBenchmark {
+
+    @Param({"1000", "10000"})
+    int products;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private ProductService productService;
+    private ObjectMapper objectMapper;
+    private ProductCardStore productCardStore;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String url = "jdbc:h2:mem:read-path-" + products
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+        Map<String, String> generatorOptions = new HashMap<>();
+        generatorOptions.put("url", url);
+        generatorOptions.put("user", "sa");
+        generatorOptions.put("password", "");
+        generatorOptions.put("users", "500");
+        generatorOptions.put("products", String.valueOf(products));
+        generatorOptions.put("cart-items", "0");
+        generatorOptions.put("purchases", "0");
+        DataGenerator.generate(generatorOptions);
+
+        context = new SpringApplicationBuilder(OdooApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                // Measure JPA alone, without the SQL profiler's datasource proxy
+                "--app.profiler.enabled=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=false");
+        productRepository = context.getBean(ProductRepository.class);
+        productService = context.getBean(ProductService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        productCardStore = context.getBean(ProductCardStore.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductResponse> entitiesReadWrite() {
+        return readWrite.execute(status -> map(productRepository.findByIsActiveTrueAndIsSoldFalseOrderByCreatedAtDesc()));
+    }
+
+    @Benchmark
+    public List<ProductResponse> entitiesReadOnly() {
+        return readOnly.execute(status -> map(productRepository.findByIsActiveTrueAndIsSoldFalseOrderByCreatedAtDesc()));
+    }
+
+    @Benchmark
+    public List<ProductResponse> projectionReadOnly() {
+        return readOnly.execute(status -> productRepository.findActiveListings());
+    }
+
+    @Benchmark
+    public void projectionSerialized() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), productService.getAllProducts());
+    }
+
+    @Benchmark
+    public void cardsStreamed() throws IOException {
+        productService.writeAllProductCards(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public boolean cardsFromStore() throws IOException {
+        return productCardStore.writeActiveCards(OutputStream.nullOutputStream());
+    }
+
+    private static List<ProductResponse> map(List<Product> entities) {
+        List<ProductResponse> responses = new ArrayList<>(entities.size());
+        for (Product product : entities) {
+            responses.add(new ProductResponse(product));
+        }
+        return responses;
+    }
+}
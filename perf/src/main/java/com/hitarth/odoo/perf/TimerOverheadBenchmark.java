@@ -0,0 +1,71 @@
+package com.hitarth.odoo.perf;
+
+import com.hitarth.odoo.monitoring.ProductSearchEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the instrumentation wrapped around service calls:
+ * Micrometer timers (with and without histogram buckets), counters and a disabled JFR event
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class TimerOverheadBenchmark {
+
+    private Timer plainTimer;
+    private Timer histogramTimer;
+    private Counter counter;
+
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        plainTimer = Timer.builder("bench.plain").register(registry);
+        // Matches @Timed(value = "app.service", histogram = true) on the services
+        histogramTimer = Timer.builder("bench.histogram").publishPercentileHistogram().register(registry);
+        counter = Counter.builder("bench.counter").register(registry);
+    }
+
+    @Benchmark
+    public void baseline() {
+        Blackhole.consumeCPU(64);
+    }
+
+    @Benchmark
+    public void plainTimer() {
+        Timer.Sample sample = Timer.start();
+        Blackhole.consumeCPU(64);
+        sample.stop(plainTimer);
+    }
+
+    @Benchmark
+    public void histogramTimer() {
+        Timer.Sample sample = Timer.start();
+        Blackhole.consumeCPU(64);
+        sample.stop(histogramTimer);
+    }
+
+    @Benchmark
+    public void counterIncrement() {
+        Blackhole.consumeCPU(64);
+        counter.increment();
+    }
+
+    // No recording is running, so this is the cost paid in production between recordings
+    @Benchmark
+    public void disabledJfrEvent() {
+        ProductSearchEvent event = new ProductSearchEvent();
+        event.begin();
+        Blackhole.consumeCPU(64);
+        event.commit();
+    }
+}
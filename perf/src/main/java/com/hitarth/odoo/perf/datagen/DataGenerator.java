@@ -0,0 +1,298 @@
+package com.hitarth.odoo.perf.datagen;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads a synthetic marketplace (users, products, cart items, purchases) for scale testing.
+ *
+ * Tables are split into fixed-size chunks of explicit ids. Chunks are loaded in parallel with JDBC
+ * batches, each in its own transaction together with a row in datagen_progress, so an interrupted
+ * run continues where it stopped when started again with the same arguments.
+ *
+ * Usage (all arguments optional):
+ *   --url=jdbc:mysql://localhost:3306/ecofinds --user=root --password=
+ *   --seed=42 --users=200000 --products=2000000 --cart-items=500000 --purchases=500000
+ *   --threads=8 --chunk-size=10000
+ */
+public class DataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(DataGenerator.class);
+
+    static final String DEFAULT_URL =
+            "jdbc:h2:file:./target/datagen/ecofinds;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String CREATE_PROGRESS_TABLE = "CREATE TABLE IF NOT EXISTS datagen_progress ("
+            + "table_name VARCHAR(40) NOT NULL, chunk_no BIGINT NOT NULL, seed BIGINT NOT NULL, "
+            + "chunk_size INT NOT NULL, row_count INT NOT NULL, PRIMARY KEY (table_name, chunk_no))";
+    private static final String INSERT_PROGRESS =
+            "INSERT INTO datagen_progress (table_name, chunk_no, seed, chunk_size, row_count) VALUES (?, ?, ?, ?, ?)";
+
+    private final HikariDataSource dataSource;
+    private final MarketplaceRows rows;
+    private final long seed;
+    private final int threads;
+    private final int chunkSize;
+
+    DataGenerator(HikariDataSource dataSource, MarketplaceRows rows, long seed, int threads, int chunkSize) {
+        this.dataSource = dataSource;
+        this.rows = rows;
+        this.seed = seed;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    public static void main(String[] args) throws Exception {
+        generate(parseArguments(args));
+    }
+
+    /**
+     * Generate (or resume) a data set described by command line style options
+     */
+    public static void generate(Map<String, String> options) throws SQLException, InterruptedException {
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        long users = Long.parseLong(options.getOrDefault("users", "200000"));
+        long products = Long.parseLong(options.getOrDefault("products", "2000000"));
+        long cartItems = Long.parseLong(options.getOrDefault("cart-items", "500000"));
+        long purchases = Long.parseLong(options.getOrDefault("purchases", "500000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int chunkSize = Integer.parseInt(options.getOrDefault("chunk-size", "10000"));
+
+        try (HikariDataSource dataSource = dataSource(options, threads)) {
+            DataGenerator generator = new DataGenerator(dataSource,
+                    new MarketplaceRows(seed, users, products, cartItems), seed, threads, chunkSize);
+            generator.run(users, products, cartItems, purchases);
+        }
+    }
+
+    /**
+     * Migrate the schema, then load every table in foreign key order
+     */
+    void run(long users, long products, long cartItems, long purchases) throws SQLException, InterruptedException {
+        prepare();
+
+        long started = System.nanoTime();
+        load("users", users, this::loadUsers);
+        load("products", products, this::loadProducts);
+        load("cart_items", cartItems, this::loadCartItems);
+        load("purchases", purchases, this::loadPurchases);
+        log.info("Data generation finished in {} s", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+    }
+
+    private void prepare() throws SQLException {
+        // Same migrations the application runs on startup, taken from its jar
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_PROGRESS_TABLE);
+
+            // Resuming with another seed or chunk size would mix two unrelated data sets
+            try (ResultSet resultSet = statement.executeQuery("SELECT DISTINCT seed, chunk_size FROM datagen_progress")) {
+                while (resultSet.next()) {
+                    if (resultSet.getLong(1) != seed || resultSet.getInt(2) != chunkSize) {
+                        throw new IllegalStateException("Database was generated with seed " + resultSet.getLong(1)
+                                + " and chunk size " + resultSet.getInt(2)
+                                + "; use an empty database or the original settings");
+                    }
+                }
+            }
+        }
+    }
+
+    private void load(String table, long rowCount, ChunkLoader loader) throws SQLException, InterruptedException {
+        long chunks = (rowCount + chunkSize - 1) / chunkSize;
+        Set<Long> done = completedChunks(table);
+        if (done.size() >= chunks) {
+            log.info("{}: all {} chunks already loaded", table, chunks);
+            return;
+        }
+        log.info("{}: loading {} rows in {} chunks ({} already done) on {} threads",
+                table, rowCount, chunks, done.size(), threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicLong loaded = new AtomicLong();
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                if (done.contains(chunk)) {
+                    continue;
+                }
+                long firstId = chunk * chunkSize + 1;
+                long lastId = Math.min(rowCount, firstId + chunkSize - 1);
+                long chunkNo = chunk;
+                futures.add(executor.submit(() -> {
+                    loadChunk(table, chunkNo, firstId, lastId, loader);
+                    long total = loaded.addAndGet(lastId - firstId + 1);
+                    log.debug("{}: chunk {} done, {} rows so far", table, chunkNo, total);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Loading " + table + " failed, rerun to resume", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        double seconds = Math.max(1e-3, (System.nanoTime() - started) / 1e9);
+        log.info("{}: {} rows in {} s ({} rows/s)", table, loaded.get(),
+                String.format("%.1f", seconds), Math.round(loaded.get() / seconds));
+    }
+
+    // One transaction per chunk: the data and its progress row commit together
+    private void loadChunk(String table, long chunkNo, long firstId, long lastId, ChunkLoader loader) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                loader.load(connection, firstId, lastId);
+                try (PreparedStatement progress = connection.prepareStatement(INSERT_PROGRESS)) {
+                    progress.setString(1, table);
+                    progress.setLong(2, chunkNo);
+                    progress.setLong(3, seed);
+                    progress.setInt(4, chunkSize);
+                    progress.setInt(5, (int) (lastId - firstId + 1));
+                    progress.executeUpdate();
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void loadUsers(Connection connection, long firstId, long lastId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(MarketplaceRows.INSERT_USER)) {
+            for (long id = firstId; id <= lastId; id++) {
+                rows.bindUser(statement, id);
+                addBatch(statement, id - firstId);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void loadProducts(Connection connection, long firstId, long lastId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(MarketplaceRows.INSERT_PRODUCT)) {
+            for (long id = firstId; id <= lastId; id++) {
+                rows.bindProduct(statement, id);
+                addBatch(statement, id - firstId);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void loadCartItems(Connection connection, long firstId, long lastId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(MarketplaceRows.INSERT_CART_ITEM)) {
+            for (long id = firstId; id <= lastId; id++) {
+                rows.bindCartItem(statement, id);
+                addBatch(statement, id - firstId);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    // Purchase items are written with their purchase, in the same chunk
+    private void loadPurchases(Connection connection, long firstId, long lastId) throws SQLException {
+        try (PreparedStatement purchases = connection.prepareStatement(MarketplaceRows.INSERT_PURCHASE);
+             PreparedStatement items = connection.prepareStatement(MarketplaceRows.INSERT_PURCHASE_ITEM)) {
+            for (long id = firstId; id <= lastId; id++) {
+                rows.bindPurchase(purchases, items, id);
+                purchases.addBatch();
+                if ((id - firstId + 1) % BATCH_SIZE == 0) {
+                    purchases.executeBatch();
+                    items.executeBatch();
+                }
+            }
+            purchases.executeBatch();
+            items.executeBatch();
+        }
+    }
+
+    private static void addBatch(PreparedStatement statement, long index) throws SQLException {
+        statement.addBatch();
+        if ((index + 1) % BATCH_SIZE == 0) {
+            statement.executeBatch();
+        }
+    }
+
+    private Set<Long> completedChunks(String table) throws SQLException {
+        Set<Long> done = new HashSet<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT chunk_no FROM datagen_progress WHERE table_name = ?")) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    done.add(resultSet.getLong(1));
+                }
+            }
+        }
+        return done;
+    }
+
+    private static HikariDataSource dataSource(Map<String, String> options, int threads) {
+        String url = options.getOrDefault("url", DEFAULT_URL);
+        // Without this the MySQL driver sends a batch as one round trip per row
+        if (url.startsWith("jdbc:mysql:") && !url.contains("rewriteBatchedStatements")) {
+            url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername(options.getOrDefault("user", url.startsWith("jdbc:h2:") ? "sa" : "root"));
+        config.setPassword(options.getOrDefault("password", ""));
+        config.setMaximumPoolSize(threads + 1);
+        config.setPoolName("datagen");
+        return new HikariDataSource(config);
+    }
+
+    public static Map<String, String> parseArguments(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    @FunctionalInterface
+    private interface ChunkLoader {
+        void load(Connection connection, long firstId, long lastId) throws SQLException;
+    }
+}
@@ -0,0 +1,292 @@
+package com.hitarth.odoo.perf.datagen;
+
+import com.hitarth.odoo.service.ProductService;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic row content for the generated marketplace.
+ * Every value is a pure function of (seed, table, id), so any chunk can be produced
+ * on any thread, in any order, and regenerated identically after a restart.
+ */
+public class MarketplaceRows {
+
+    static final String INSERT_USER = "INSERT INTO users "
+            + "(id, display_name, email, password_hash, created_at, updated_at, is_active) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    static final String INSERT_PRODUCT = "INSERT INTO products "
+            + "(id, title, description, category, price, quantity, condition_type, brand, model, year_manufactured, "
+            + "color, material, original_packaging, manual_included, working_condition, image_url, is_active, is_sold, "
+            + "created_at, updated_at, seller_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String INSERT_CART_ITEM = "INSERT INTO cart_items "
+            + "(id, user_id, product_id, quantity, added_at) VALUES (?, ?, ?, ?, ?)";
+    static final String INSERT_PURCHASE = "INSERT INTO purchases "
+            + "(id, user_id, total_amount, purchase_date, status) VALUES (?, ?, ?, ?, ?)";
+    static final String INSERT_PURCHASE_ITEM = "INSERT INTO purchase_items "
+            + "(id, purchase_id, product_id, quantity, price_at_purchase) VALUES (?, ?, ?, ?, ?)";
+
+    // Every generated account logs in with this password
+    public static final String PASSWORD = "Password@123";
+    static final String PASSWORD_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOsz4Il2CXHQJQYzDr/em5hifG3MhytPy";
+
+    // Purchase item ids are purchaseId * MAX_ITEMS_PER_PURCHASE + n, so they never need a lookup
+    static final int MAX_ITEMS_PER_PURCHASE = 4;
+
+    private static final LocalDateTime END_OF_HISTORY = LocalDateTime.of(2025, 9, 1, 0, 0);
+    private static final long HISTORY_MINUTES = 2L * 365 * 24 * 60;
+
+    // Relative popularity, same order as ProductService.CATEGORIES
+    private static final int[] CATEGORY_WEIGHTS = {24, 20, 9, 12, 8, 9, 6, 4, 5, 3};
+    // Median price in cents per category, same order as ProductService.CATEGORIES
+    private static final double[] CATEGORY_MEDIAN_CENTS = {
+        25_000, 2_500, 12_000, 800, 4_000, 3_500, 1_500, 9_000, 1_800, 2_000
+    };
+    // Same order as ProductService.CONDITION_TYPES
+    private static final int[] CONDITION_WEIGHTS = {10, 25, 35, 20, 10};
+    // Chance of a purchase having 1, 2, 3 or 4 items
+    private static final int[] ITEM_COUNT_WEIGHTS = {60, 25, 10, 5};
+
+    private static final String[] FIRST_NAMES = {
+        "Aarav", "Diya", "Vivaan", "Ananya", "Ishaan", "Meera", "Kabir", "Saanvi", "Arjun", "Priya",
+        "Liam", "Emma", "Noah", "Olivia", "Mateo", "Sofia", "Yuki", "Hana", "Omar", "Leila"
+    };
+    private static final String[] LAST_NAMES = {
+        "Shah", "Patel", "Mehta", "Iyer", "Rao", "Singh", "Kumar", "Garcia", "Smith", "Tanaka",
+        "Kim", "Haddad", "Rossi", "Novak", "Silva", "Muller", "Dubois", "Khan", "Ali", "Brown"
+    };
+    private static final String[] ADJECTIVES = {
+        "Vintage", "Compact", "Classic", "Portable", "Handmade", "Refurbished", "Eco", "Solid", "Modern", "Retro"
+    };
+    private static final String[][] NOUNS = {
+        {"Laptop", "Phone", "Headphones", "Camera", "Monitor", "Speaker", "Tablet"},
+        {"Jacket", "Sweater", "Jeans", "Sneakers", "Dress", "Scarf", "Handbag"},
+        {"Chair", "Table", "Bookshelf", "Desk", "Sofa", "Cabinet", "Lamp"},
+        {"Novel", "Textbook", "Cookbook", "Comic Set", "Atlas", "Biography"},
+        {"Yoga Mat", "Bicycle", "Racket", "Dumbbells", "Tent", "Skateboard"},
+        {"Planter", "Rug", "Kettle", "Blender", "Garden Hose", "Toolset"},
+        {"Lego Set", "Puzzle", "Doll House", "Board Game", "RC Car"},
+        {"Car Seat", "Roof Rack", "Dash Cam", "Tyre Pump", "Seat Covers"},
+        {"Hair Dryer", "Perfume", "Vanity Mirror", "Makeup Kit"},
+        {"Gift Box", "Collectible", "Frame", "Misc Bundle"}
+    };
+    private static final String[] BRANDS = {
+        "Apple", "Samsung", "Sony", "IKEA", "Nike", "Adidas", "Philips", "Bosch", "Lego", "Decathlon", "Generic"
+    };
+    private static final String[] COLORS = {"Black", "White", "Grey", "Blue", "Red", "Green", "Brown", "Beige"};
+    private static final String[] MATERIALS = {"Wood", "Metal", "Plastic", "Cotton", "Leather", "Glass", "Mixed"};
+    private static final String[] SENTENCES = {
+        "Lightly used and well cared for.",
+        "Selling because I am moving out.",
+        "Comes from a smoke-free and pet-free home.",
+        "Minor signs of wear, fully functional.",
+        "Pickup preferred, can deliver within the city.",
+        "Original receipt available on request.",
+        "Price is slightly negotiable.",
+        "Bought last year, barely used since.",
+        "All parts and accessories included.",
+        "Cleaned and tested before listing."
+    };
+
+    // Field groups drawn from independent streams so one value can be recomputed on its own
+    private static final long USER_STREAM = 0x5EED_0001L;
+    private static final long PRODUCT_STREAM = 0x5EED_0002L;
+    private static final long PRICE_STREAM = 0x5EED_0003L;
+    private static final long CART_STREAM = 0x5EED_0004L;
+    private static final long PURCHASE_STREAM = 0x5EED_0005L;
+    private static final long USER_STATUS_STREAM = 0x5EED_0006L;
+
+    private final long seed;
+    private final long users;
+    private final long products;
+    private final int cartItemsPerUser;
+
+    public MarketplaceRows(long seed, long users, long products, long cartItems) {
+        this.seed = seed;
+        this.users = users;
+        this.products = products;
+        this.cartItemsPerUser = (int) Math.max(1, (cartItems + users - 1) / users);
+        if (cartItemsPerUser >= products) {
+            throw new IllegalArgumentException("Not enough products for " + cartItems + " cart items");
+        }
+    }
+
+    void bindUser(PreparedStatement statement, long id) throws SQLException {
+        SplittableRandom random = random(USER_STREAM, id);
+        String first = pick(random, FIRST_NAMES);
+        String last = pick(random, LAST_NAMES);
+        LocalDateTime createdAt = timestamp(random, 1.0);
+
+        statement.setLong(1, id);
+        // The id suffix keeps both unique constraints satisfied
+        statement.setString(2, first + " " + last + " " + id);
+        statement.setString(3, email(id));
+        statement.setString(4, PASSWORD_HASH);
+        statement.setTimestamp(5, Timestamp.valueOf(createdAt));
+        statement.setTimestamp(6, Timestamp.valueOf(createdAt));
+        statement.setBoolean(7, isActiveUser(id));
+    }
+
+    /**
+     * Login email of a generated user
+     */
+    public String email(long userId) {
+        SplittableRandom random = random(USER_STREAM, userId);
+        String first = pick(random, FIRST_NAMES);
+        String last = pick(random, LAST_NAMES);
+        return first.toLowerCase(Locale.ROOT) + "." + last.toLowerCase(Locale.ROOT) + "." + userId + "@example.com";
+    }
+
+    /**
+     * Whether a generated user account is active (about 98% are)
+     */
+    public boolean isActiveUser(long userId) {
+        return random(USER_STATUS_STREAM, userId).nextInt(100) < 98;
+    }
+
+    void bindProduct(PreparedStatement statement, long id) throws SQLException {
+        SplittableRandom random = random(PRODUCT_STREAM, id);
+        int category = weighted(random, CATEGORY_WEIGHTS);
+        String brand = pick(random, BRANDS);
+        String title = pick(random, ADJECTIVES) + " " + brand + " " + pick(random, NOUNS[category]);
+        LocalDateTime createdAt = timestamp(random, 2.0);
+
+        statement.setLong(1, id);
+        statement.setString(2, title.length() > 100 ? title.substring(0, 100) : title);
+        statement.setString(3, description(random));
+        statement.setString(4, ProductService.CATEGORIES[category]);
+        statement.setBigDecimal(5, productPrice(id));
+        statement.setInt(6, random.nextInt(100) < 85 ? 1 : 2 + random.nextInt(4));
+        statement.setString(7, ProductService.CONDITION_TYPES[weighted(random, CONDITION_WEIGHTS)]);
+        statement.setString(8, brand);
+        statement.setString(9, "M" + random.nextInt(1000));
+        statement.setInt(10, 2000 + random.nextInt(25));
+        statement.setString(11, pick(random, COLORS));
+        statement.setString(12, pick(random, MATERIALS));
+        statement.setBoolean(13, random.nextBoolean());
+        statement.setBoolean(14, random.nextBoolean());
+        statement.setString(15, random.nextInt(4) == 0 ? "Works perfectly" : null);
+        statement.setString(16, "https://img.example.com/p/" + id + ".jpg");
+        statement.setBoolean(17, random.nextInt(100) < 95);
+        statement.setBoolean(18, random.nextInt(100) < 8);
+        statement.setTimestamp(19, Timestamp.valueOf(createdAt));
+        statement.setTimestamp(20, Timestamp.valueOf(createdAt));
+        statement.setLong(21, skewedId(random, users));
+    }
+
+    /**
+     * Cart line id maps to (user, n-th line of that user); lines of one user hit consecutive products
+     * so (user_id, product_id) stays unique
+     */
+    void bindCartItem(PreparedStatement statement, long id) throws SQLException {
+        long userId = (id - 1) / cartItemsPerUser + 1;
+        long line = (id - 1) % cartItemsPerUser;
+        SplittableRandom userRandom = random(CART_STREAM, userId);
+        long firstProduct = userRandom.nextLong(products);
+        SplittableRandom random = random(CART_STREAM, -id);
+
+        statement.setLong(1, id);
+        statement.setLong(2, userId);
+        statement.setLong(3, (firstProduct + line) % products + 1);
+        statement.setInt(4, 1 + (random.nextInt(10) == 0 ? 1 : 0));
+        statement.setTimestamp(5, Timestamp.valueOf(timestamp(random, 4.0)));
+    }
+
+    /**
+     * Bind one purchase and add its 1-4 items to the item batch
+     */
+    void bindPurchase(PreparedStatement purchase, PreparedStatement items, long id) throws SQLException {
+        SplittableRandom random = random(PURCHASE_STREAM, id);
+        int itemCount = 1 + weighted(random, ITEM_COUNT_WEIGHTS);
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (int n = 0; n < itemCount; n++) {
+            long productId = skewedId(random, products);
+            int quantity = random.nextInt(10) == 0 ? 2 : 1;
+            BigDecimal price = productPrice(productId);
+            total = total.add(price.multiply(BigDecimal.valueOf(quantity)));
+
+            items.setLong(1, id * MAX_ITEMS_PER_PURCHASE + n);
+            items.setLong(2, id);
+            items.setLong(3, productId);
+            items.setInt(4, quantity);
+            items.setBigDecimal(5, price);
+            items.addBatch();
+        }
+
+        purchase.setLong(1, id);
+        purchase.setLong(2, skewedId(random, users));
+        purchase.setBigDecimal(3, total.min(new BigDecimal("99999999.99")));
+        purchase.setTimestamp(4, Timestamp.valueOf(timestamp(random, 1.5)));
+        purchase.setString(5, random.nextInt(50) == 0 ? "cancelled" : "completed");
+    }
+
+    /**
+     * Log-normal price around the category median, recomputable from the id alone
+     */
+    BigDecimal productPrice(long productId) {
+        int category = weighted(random(PRODUCT_STREAM, productId), CATEGORY_WEIGHTS);
+        SplittableRandom random = random(PRICE_STREAM, productId);
+        double cents = CATEGORY_MEDIAN_CENTS[category] * Math.exp(0.9 * random.nextGaussian());
+        long rounded = Math.max(100, Math.min(99_999_999L, Math.round(cents / 50.0) * 50 - 1));
+        return BigDecimal.valueOf(rounded, 2);
+    }
+
+    private SplittableRandom random(long stream, long id) {
+        return new SplittableRandom(mix(seed ^ mix(stream) ^ mix(id * 0x9E3779B97F4A7C15L)));
+    }
+
+    // Stafford variant 13 of the 64-bit finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Power-law pick in [1, max]: a few sellers, buyers and products get most of the activity
+    private static long skewedId(SplittableRandom random, long max) {
+        double u = random.nextDouble();
+        return Math.min(max, 1 + (long) (max * u * u * u));
+    }
+
+    // Skewed towards the end of the history window; higher bias means more recent
+    private static LocalDateTime timestamp(SplittableRandom random, double recencyBias) {
+        double ageFraction = Math.pow(random.nextDouble(), recencyBias);
+        return END_OF_HISTORY.minusMinutes((long) (ageFraction * HISTORY_MINUTES));
+    }
+
+    private static String description(SplittableRandom random) {
+        int sentences = 1 + random.nextInt(4);
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < sentences; i++) {
+            if (i > 0) {
+                description.append(' ');
+            }
+            description.append(pick(random, SENTENCES));
+        }
+        return description.toString();
+    }
+
+    private static int weighted(SplittableRandom random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
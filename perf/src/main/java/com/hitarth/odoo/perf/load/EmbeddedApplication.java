@@ -0,0 +1,131 @@
+package com.hitarth.odoo.perf.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application running in a child JVM against an H2 file database in MySQL mode.
+ * A separate process keeps the load generator's threads and garbage out of the measured JVM.
+ */
+class EmbeddedApplication implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedApplication.class);
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final Process process;
+    private final String baseUrl;
+
+    private EmbeddedApplication(Process process, String baseUrl) {
+        this.process = process;
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Start the application and wait until /actuator/health answers
+     * @param jvmOptions extra JVM options for the application, e.g. heap size
+     */
+    static EmbeddedApplication start(String jdbcUrl, int port, List<String> jvmOptions, Path logFile)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(classpath());
+        command.add("com.hitarth.odoo.OdooApplication");
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.url=" + jdbcUrl);
+        command.add("--spring.datasource.driver-class-name=org.h2.Driver");
+        command.add("--spring.datasource.username=sa");
+        command.add("--spring.datasource.password=");
+        // This module ships a console logback.xml that would otherwise replace the application's config
+        command.add("--logging.config=classpath:logback-spring.xml");
+        command.add("--logging.level.com.hitarth.odoo=INFO");
+        command.add("--logging.level.org.springframework.security=INFO");
+
+        Files.createDirectories(logFile.getParent());
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+
+        String baseUrl = "http://localhost:" + port;
+        EmbeddedApplication application = new EmbeddedApplication(process, baseUrl);
+        try {
+            application.awaitHealthy();
+        } catch (IOException | RuntimeException e) {
+            application.close();
+            throw e;
+        }
+        log.info("Application started on {} (log: {})", baseUrl, logFile);
+        return application;
+    }
+
+    // Under exec:java the project classpath lives in the context class loader, not java.class.path
+    private static String classpath() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader instanceof URLClassLoader urlLoader && urlLoader.getURLs().length > 0) {
+            List<String> entries = new ArrayList<>();
+            for (URL url : urlLoader.getURLs()) {
+                try {
+                    entries.add(Paths.get(url.toURI()).toString());
+                } catch (URISyntaxException e) {
+                    throw new IllegalStateException("Unexpected classpath entry " + url, e);
+                }
+            }
+            return String.join(File.pathSeparator, entries);
+        }
+        return System.getProperty("java.class.path");
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    private void awaitHealthy() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + process.exitValue());
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IOException("Application did not become healthy within " + STARTUP_TIMEOUT);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.hitarth.odoo.perf.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms, status codes and errors per endpoint.
+ * Recording is lock-free; {@link #startMeasurement()} discards everything recorded during warmup.
+ */
+class EndpointStats {
+
+    // 1 us to 60 s at 3 significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long latencyNanos, int status) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(1, latencyNanos / 1000)));
+        stats.statuses.computeIfAbsent(status, code -> new LongAdder()).increment();
+        if (status < 200 || status >= 400) {
+            stats.errors.increment();
+        }
+    }
+
+    void startMeasurement() {
+        for (Endpoint stats : endpoints.values()) {
+            stats.recorder.getIntervalHistogram();
+            stats.statuses.clear();
+            stats.errors.reset();
+        }
+    }
+
+    /**
+     * Summaries per endpoint plus an "ALL" row, for the measured interval
+     */
+    Map<String, Object> summarize(double seconds) {
+        Map<String, Object> summary = new TreeMap<>();
+        Histogram all = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long allErrors = 0;
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Histogram histogram = entry.getValue().recorder.getIntervalHistogram();
+            long errors = entry.getValue().errors.sum();
+            all.add(histogram);
+            allErrors += errors;
+
+            Map<String, Object> row = describe(histogram, errors, seconds);
+            Map<String, Long> statuses = new TreeMap<>();
+            entry.getValue().statuses.forEach((status, count) ->
+                    statuses.put(status == 0 ? "io_error" : String.valueOf(status), count.sum()));
+            row.put("statuses", statuses);
+            summary.put(entry.getKey(), row);
+        }
+        summary.put("ALL", describe(all, allErrors, seconds));
+        return summary;
+    }
+
+    private static Map<String, Object> describe(Histogram histogram, long errors, double seconds) {
+        long count = histogram.getTotalCount();
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("requests", count);
+        row.put("errors", errors);
+        row.put("errorRate", count > 0 ? (double) errors / count : 0.0);
+        row.put("throughputPerSecond", count / seconds);
+        row.put("meanMs", histogram.getMean() / 1000.0);
+        row.put("p50Ms", histogram.getValueAtPercentile(50) / 1000.0);
+        row.put("p90Ms", histogram.getValueAtPercentile(90) / 1000.0);
+        row.put("p99Ms", histogram.getValueAtPercentile(99) / 1000.0);
+        row.put("p999Ms", histogram.getValueAtPercentile(99.9) / 1000.0);
+        row.put("maxMs", histogram.getMaxValue() / 1000.0);
+        return row;
+    }
+
+    private static final class Endpoint {
+        final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        final LongAdder errors = new LongAdder();
+    }
+}
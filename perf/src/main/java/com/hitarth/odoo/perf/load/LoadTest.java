@@ -0,0 +1,316 @@
+package com.hitarth.odoo.perf.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hitarth.odoo.perf.datagen.DataGenerator;
+import com.hitarth.odoo.perf.datagen.MarketplaceRows;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * End-to-end load test: seeds an H2 database, boots the application in a child JVM and drives
+ * the marketplace scenarios, then writes throughput and latency percentiles per endpoint as JSON.
+ *
+ * Workload models:
+ *   closed  --model=closed --concurrency=50 --think-ms=0      fixed users, each starts a new run when done
+ *   open    --model=open --rate=100 --max-in-flight=500       Poisson arrivals at a fixed rate of runs per second
+ *
+ * Other options: --warmup-seconds=30 --duration-seconds=120 --mix=browse:50,search:30,buy:20
+ *   --seed=42 --users=2000 --products=5000 --cart-items=1000 --purchases=2000 --port=18080
+ *   --app-jvm-options="-Xmx1g -XX:+UseG1GC" --label=baseline --out=target/loadtest/result.json
+ *   --target=http://host:8080 to load an already running application seeded with the same options
+ */
+public class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final Path WORK_DIR = Paths.get("target", "loadtest");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(DataGenerator.parseArguments(args));
+        options.putIfAbsent("seed", "42");
+        options.putIfAbsent("users", "2000");
+        options.putIfAbsent("products", "5000");
+        options.putIfAbsent("cart-items", "1000");
+        options.putIfAbsent("purchases", "2000");
+
+        MarketplaceRows rows = new MarketplaceRows(Long.parseLong(options.get("seed")),
+                Long.parseLong(options.get("users")), Long.parseLong(options.get("products")),
+                Long.parseLong(options.get("cart-items")));
+
+        String target = options.get("target");
+        if (target != null) {
+            run(target, rows, options);
+            return;
+        }
+
+        String jdbcUrl = "jdbc:h2:file:" + WORK_DIR.toAbsolutePath().resolve("ecofinds")
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+        Map<String, String> generatorOptions = new HashMap<>(options);
+        generatorOptions.put("url", jdbcUrl);
+        generatorOptions.put("user", "sa");
+        generatorOptions.put("password", "");
+        DataGenerator.generate(generatorOptions);
+
+        List<String> jvmOptions = Arrays.asList(options.getOrDefault("app-jvm-options", "-Xmx1g").trim().split("\\s+"));
+        int port = Integer.parseInt(options.getOrDefault("port", "18080"));
+        try (EmbeddedApplication application = EmbeddedApplication.start(
+                jdbcUrl, port, jvmOptions, WORK_DIR.resolve("application.log"))) {
+            run(application.baseUrl(), rows, options);
+        }
+    }
+
+    private static void run(String baseUrl, MarketplaceRows rows, Map<String, String> options)
+            throws IOException, InterruptedException {
+        String model = options.getOrDefault("model", "closed");
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup-seconds", "30"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration-seconds", "120"));
+        long seed = Long.parseLong(options.get("seed"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        MarketplaceScenarios scenarios = new MarketplaceScenarios(
+                activeProductIds(client, baseUrl), activeUserIds(rows, Long.parseLong(options.get("users"))),
+                rows, parseMix(options.getOrDefault("mix", "browse:50,search:30,buy:20")));
+
+        EndpointStats stats = new EndpointStats();
+        Workload workload = switch (model) {
+            case "closed" -> new ClosedWorkload(
+                    Integer.parseInt(options.getOrDefault("concurrency", "50")),
+                    Long.parseLong(options.getOrDefault("think-ms", "0")));
+            case "open" -> new OpenWorkload(
+                    Double.parseDouble(options.getOrDefault("rate", "100")),
+                    Integer.parseInt(options.getOrDefault("max-in-flight", "500")));
+            default -> throw new IllegalArgumentException("Unknown model " + model + ", use closed or open");
+        };
+
+        log.info("Running {} workload against {}: {} s warmup, {} s measured", model, baseUrl, warmupSeconds, durationSeconds);
+        workload.start(() -> new Session(client, baseUrl, stats), scenarios, seed);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+        stats.startMeasurement();
+        workload.resetCounters();
+        long measureStart = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        double measuredSeconds = (System.nanoTime() - measureStart) / 1e9;
+        Map<String, Object> endpoints = stats.summarize(measuredSeconds);
+        Map<String, Object> workloadResult = workload.stop();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("label", options.getOrDefault("label", ""));
+        result.put("timestamp", Instant.now().toString());
+        result.put("target", baseUrl);
+        result.put("options", new TreeMap<>(options));
+        result.put("measuredSeconds", measuredSeconds);
+        result.put("workload", workloadResult);
+        result.put("endpoints", endpoints);
+
+        Path out = Paths.get(options.getOrDefault("out", WORK_DIR.resolve("result.json").toString()));
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), result);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> all = (Map<String, Object>) endpoints.get("ALL");
+        log.info("{} requests, {} errors, {} req/s, p50 {} ms, p99 {} ms, p99.9 {} ms -> {}",
+                all.get("requests"), all.get("errors"), String.format("%.1f", (Double) all.get("throughputPerSecond")),
+                all.get("p50Ms"), all.get("p99Ms"), all.get("p999Ms"), out);
+    }
+
+    // Ids listed by the application itself are active and unsold
+    private static List<Long> activeProductIds(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/products")).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode product : new ObjectMapper().readTree(response.body())) {
+            ids.add(product.path("id").asLong());
+        }
+        return ids;
+    }
+
+    private static List<Long> activeUserIds(MarketplaceRows rows, long users) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= users; id++) {
+            if (rows.isActiveUser(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] nameAndWeight = part.split(":");
+            weights.put(nameAndWeight[0].trim(), Integer.parseInt(nameAndWeight[1].trim()));
+        }
+        return weights;
+    }
+
+    private interface Workload {
+        void start(Supplier<Session> sessions, MarketplaceScenarios scenarios, long seed);
+
+        void resetCounters();
+
+        Map<String, Object> stop() throws InterruptedException;
+    }
+
+    /**
+     * Fixed number of users looping over scenarios; throughput follows response time
+     */
+    private static final class ClosedWorkload implements Workload {
+
+        private final int concurrency;
+        private final long thinkMillis;
+        private final AtomicBoolean running = new AtomicBoolean(true);
+        private final LongAdder runs = new LongAdder();
+        private ExecutorService executor;
+
+        ClosedWorkload(int concurrency, long thinkMillis) {
+            this.concurrency = concurrency;
+            this.thinkMillis = thinkMillis;
+        }
+
+        @Override
+        public void start(Supplier<Session> sessions, MarketplaceScenarios scenarios, long seed) {
+            executor = Executors.newFixedThreadPool(concurrency);
+            for (int slot = 0; slot < concurrency; slot++) {
+                int userSlot = slot;
+                executor.execute(() -> {
+                    SplittableRandom random = new SplittableRandom(seed + userSlot);
+                    Session session = sessions.get();
+                    while (running.get()) {
+                        scenarios.runOne(session, random, userSlot);
+                        runs.increment();
+                        if (thinkMillis > 0) {
+                            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(thinkMillis));
+                        }
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void resetCounters() {
+            runs.reset();
+        }
+
+        @Override
+        public Map<String, Object> stop() throws InterruptedException {
+            long completed = runs.sum();
+            running.set(false);
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("model", "closed");
+            result.put("concurrency", concurrency);
+            result.put("thinkMillis", thinkMillis);
+            result.put("scenarioRuns", completed);
+            return result;
+        }
+    }
+
+    /**
+     * Scenario runs arrive at a fixed average rate regardless of how fast the system answers.
+     * Runs that find max-in-flight already busy are dropped and counted.
+     */
+    private static final class OpenWorkload implements Workload {
+
+        private final double ratePerSecond;
+        private final int maxInFlight;
+        private final AtomicBoolean running = new AtomicBoolean(true);
+        private final LongAdder started = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private ThreadPoolExecutor executor;
+        private Thread dispatcher;
+
+        OpenWorkload(double ratePerSecond, int maxInFlight) {
+            this.ratePerSecond = ratePerSecond;
+            this.maxInFlight = maxInFlight;
+        }
+
+        @Override
+        public void start(Supplier<Session> sessions, MarketplaceScenarios scenarios, long seed) {
+            executor = new ThreadPoolExecutor(maxInFlight, maxInFlight, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>());
+            dispatcher = new Thread(() -> {
+                SplittableRandom arrivals = new SplittableRandom(seed);
+                long next = System.nanoTime();
+                long run = 0;
+                while (running.get()) {
+                    // Exponential inter-arrival times give a Poisson process
+                    next += (long) (-Math.log(1 - arrivals.nextDouble()) / ratePerSecond * 1e9);
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    if (executor.getActiveCount() + executor.getQueue().size() >= maxInFlight) {
+                        dropped.increment();
+                        continue;
+                    }
+                    long scheduled = next;
+                    long runSeed = seed + run++;
+                    started.increment();
+                    executor.execute(() -> {
+                        Session session = sessions.get();
+                        session.scheduledAt(scheduled);
+                        scenarios.runOne(session, new SplittableRandom(runSeed), -1);
+                    });
+                }
+            }, "load-dispatcher");
+            dispatcher.start();
+        }
+
+        @Override
+        public void resetCounters() {
+            started.reset();
+            dropped.reset();
+        }
+
+        @Override
+        public Map<String, Object> stop() throws InterruptedException {
+            long startedRuns = started.sum();
+            long droppedRuns = dropped.sum();
+            running.set(false);
+            dispatcher.join();
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("model", "open");
+            result.put("targetRatePerSecond", ratePerSecond);
+            result.put("maxInFlight", maxInFlight);
+            result.put("scenarioRuns", startedRuns);
+            result.put("droppedRuns", droppedRuns);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.hitarth.odoo.perf.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.hitarth.odoo.perf.datagen.MarketplaceRows;
+import com.hitarth.odoo.service.ProductService;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Scripted user journeys against the marketplace API, picked by weight for every run:
+ * browse (listing, category, detail), search (keyword, keyword + category, detail) and
+ * buy (login, add to cart, update cart, view cart, checkout, purchase history).
+ */
+class MarketplaceScenarios {
+
+    private static final String[] KEYWORDS = {
+        "chair", "laptop", "vintage", "phone", "jacket", "lamp", "bicycle", "novel", "sofa", "camera", "eco", "desk"
+    };
+
+    private final List<Long> productIds;
+    private final List<Long> userIds;
+    private final MarketplaceRows rows;
+    private final Map<String, Integer> mix;
+    private final int totalWeight;
+
+    MarketplaceScenarios(List<Long> productIds, List<Long> userIds, MarketplaceRows rows, Map<String, Integer> mix) {
+        if (productIds.isEmpty() || userIds.isEmpty()) {
+            throw new IllegalStateException("Scenarios need at least one active product and user");
+        }
+        this.productIds = productIds;
+        this.userIds = userIds;
+        this.rows = rows;
+        this.mix = new LinkedHashMap<>(mix);
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Run one weighted-random journey
+     * @param userSlot stable per closed-model user so concurrent buyers don't share a cart, -1 for random
+     */
+    void runOne(Session session, SplittableRandom random, int userSlot) {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                run(entry.getKey(), session, random, userSlot);
+                return;
+            }
+        }
+    }
+
+    private void run(String scenario, Session session, SplittableRandom random, int userSlot) {
+        switch (scenario) {
+            case "browse" -> browse(session, random);
+            case "search" -> search(session, random);
+            case "buy" -> buy(session, random, userSlot);
+            default -> throw new IllegalArgumentException("Unknown scenario " + scenario);
+        }
+    }
+
+    private void browse(Session session, SplittableRandom random) {
+        session.get("GET /api/products", "/api/products");
+        session.get("GET /api/products/category/{category}", "/api/products/category/" + encode(category(random)));
+        session.get("GET /api/products/{id}", "/api/products/" + product(random));
+        session.get("GET /api/products/{id}", "/api/products/" + product(random));
+    }
+
+    private void search(Session session, SplittableRandom random) {
+        String keyword = KEYWORDS[random.nextInt(KEYWORDS.length)];
+        session.get("GET /api/products/search?keyword", "/api/products/search?keyword=" + encode(keyword));
+        session.get("GET /api/products/search?keyword&category", "/api/products/search?keyword=" + encode(keyword)
+                + "&category=" + encode(category(random)));
+        session.get("GET /api/products/{id}", "/api/products/" + product(random));
+    }
+
+    private void buy(Session session, SplittableRandom random, int userSlot) {
+        long userId = userSlot >= 0 ? userIds.get(userSlot % userIds.size()) : userIds.get(random.nextInt(userIds.size()));
+
+        Session.Response login = session.post("POST /api/auth/login", "/api/auth/login",
+                Map.of("email", rows.email(userId), "password", MarketplaceRows.PASSWORD));
+        if (!login.ok()) {
+            return;
+        }
+
+        Long cartItemId = null;
+        for (int i = 0; i < 2; i++) {
+            Session.Response added = session.post("POST /api/cart/add", "/api/cart/add?userId=" + userId
+                    + "&productId=" + product(random) + "&quantity=1", Map.of());
+            JsonNode id = added.json().path("cartItem").path("id");
+            if (id.isNumber()) {
+                cartItemId = id.asLong();
+            }
+        }
+        // Most seeded products have a single unit and checkout now takes the stock, so the line stays at one
+        if (cartItemId != null) {
+            session.put("PUT /api/cart/update/{cartItemId}",
+                    "/api/cart/update/" + cartItemId + "?userId=" + userId + "&quantity=1");
+        }
+        session.get("GET /api/cart/items/{userId}", "/api/cart/items/" + userId);
+        session.post("POST /api/purchases/checkout/{userId}", "/api/purchases/checkout/" + userId, Map.of());
+        session.get("GET /api/purchases/history/{userId}", "/api/purchases/history/" + userId);
+    }
+
+    private long product(SplittableRandom random) {
+        return productIds.get(random.nextInt(productIds.size()));
+    }
+
+    private static String category(SplittableRandom random) {
+        return ProductService.CATEGORIES[random.nextInt(ProductService.CATEGORIES.length)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+package com.hitarth.odoo.perf.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * HTTP calls made by one scenario run, each timed under an endpoint label.
+ * In the open model the first call of a run is timed from its scheduled start,
+ * so time spent queued behind a saturated system is counted (no coordinated omission).
+ */
+class Session {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final EndpointStats stats;
+
+    private long scheduledStartNanos;
+
+    Session(HttpClient client, String baseUrl, EndpointStats stats) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+    }
+
+    void scheduledAt(long nanos) {
+        this.scheduledStartNanos = nanos;
+    }
+
+    Response get(String endpoint, String path) {
+        return send(endpoint, HttpRequest.newBuilder(uri(path)).GET());
+    }
+
+    Response post(String endpoint, String path, Object jsonBody) {
+        return send(endpoint, HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(body(jsonBody)));
+    }
+
+    Response put(String endpoint, String path) {
+        return send(endpoint, HttpRequest.newBuilder(uri(path)).PUT(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    private Response send(String endpoint, HttpRequest.Builder builder) {
+        long start = scheduledStartNanos != 0 ? scheduledStartNanos : System.nanoTime();
+        scheduledStartNanos = 0;
+        try {
+            HttpResponse<byte[]> response = client.send(builder.timeout(REQUEST_TIMEOUT).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            stats.record(endpoint, System.nanoTime() - start, response.statusCode());
+            return new Response(response.statusCode(), response.body());
+        } catch (IOException e) {
+            stats.record(endpoint, System.nanoTime() - start, 0);
+            return new Response(0, new byte[0]);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Response(0, new byte[0]);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static HttpRequest.BodyPublisher body(Object jsonBody) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(jsonBody));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot serialize request body", e);
+        }
+    }
+
+    record Response(int status, byte[] body) {
+
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+
+        JsonNode json() {
+            try {
+                return MAPPER.readTree(body);
+            } catch (IOException e) {
+                return MAPPER.missingNode();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.dto.CartItemResponse;
+import com.hitarth.odoo.model.CartItem;
+import com.hitarth.odoo.perf.Fixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cart rendering and checkout total, both run on every cart page and checkout.
+ * Lives in the service package to reach the package-private helpers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class CartConversionBenchmark {
+
+    @Param({"1", "10", "50"})
+    int cartLines;
+
+    private CartService cartService;
+    private List<CartItem> cartItems;
+
+    @Setup
+    public void setUp() {
+        // convertToResponse touches no injected collaborators
+        cartService = new CartService();
+        cartItems = Fixtures.cartItems(cartLines, Fixtures.products(100, Fixtures.sellers(10), 0));
+    }
+
+    @Benchmark
+    public List<CartItemResponse> convertToResponse() {
+        return cartItems.stream()
+                .map(cartService::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public BigDecimal checkoutTotal() {
+        return PurchaseService.calculateTotal(cartItems);
+    }
+}
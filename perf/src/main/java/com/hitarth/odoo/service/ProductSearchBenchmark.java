@@ -0,0 +1,89 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.dto.ProductResponse;
+import com.hitarth.odoo.model.Product;
+import com.hitarth.odoo.monitoring.MarketplaceMetrics;
+import com.hitarth.odoo.perf.Fixtures;
+import com.hitarth.odoo.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * ProductService search paths on top of an in-memory repository.
+ * Measures the service side (metrics, JFR event) plus the DTO mapping the projection
+ * query does; the SQL itself is covered by the query profiler and the load tests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    @Param({"1000", "10000"})
+    int catalogSize;
+
+    @Param({"chair", "vintage wooden"})
+    String keyword;
+
+    private ProductService productService;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        List<Product> catalog = Fixtures.products(catalogSize, Fixtures.sellers(50), 0);
+        catalog.sort(Comparator.comparing(Product::getCreatedAt).reversed());
+
+        productService = new ProductService();
+        inject(productService, "productRepository", inMemoryRepository(catalog));
+        inject(productService, "marketplaceMetrics", new MarketplaceMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public List<ProductResponse> keywordSearch() {
+        return productService.searchProducts(keyword);
+    }
+
+    @Benchmark
+    public List<ProductResponse> keywordAndCategorySearch() {
+        return productService.searchProducts(keyword, "Furniture");
+    }
+
+    // Answers the two search queries the way MySQL's LIKE %keyword% does under a case-insensitive collation
+    private static ProductRepository inMemoryRepository(List<Product> catalog) {
+        return (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "searchActiveListings" -> search(catalog, (String) args[0], product -> true);
+                    case "searchActiveListingsByCategory" ->
+                            search(catalog, (String) args[0], product -> args[1].equals(product.getCategory()));
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static List<ProductResponse> search(List<Product> catalog, String keyword, Predicate<Product> filter) {
+        String needle = keyword.toLowerCase(Locale.ROOT);
+        return catalog.stream()
+                .filter(product -> product.getIsActive() && !product.getIsSold())
+                .filter(product -> product.getTitle().toLowerCase(Locale.ROOT).contains(needle))
+                .filter(filter)
+                .map(ProductResponse::new)
+                .collect(Collectors.toList());
+    }
+
+    private static void inject(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
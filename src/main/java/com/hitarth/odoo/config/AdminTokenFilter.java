@@ -0,0 +1,64 @@
+package com.hitarth.odoo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Guards /api/admin/** with a shared token sent in the X-Admin-Token header.
+ * Admin endpoints are disabled when app.admin.token is not configured.
+ * The path is matched decoded and normalized, as Spring MVC resolves it, so /api/%61dmin/... is guarded too.
+ */
+public class AdminTokenFilter extends OncePerRequestFilter {
+
+    public static final String ADMIN_PATH_PREFIX = "/api/admin/";
+    public static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+
+    private final byte[] adminToken;
+
+    public AdminTokenFilter(String adminToken) {
+        this.adminToken = adminToken != null ? adminToken.getBytes(StandardCharsets.UTF_8) : new byte[0];
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Percent-decoded, ;params removed and // collapsed
+        String path = PATH_HELPER.getLookupPathForRequest(request);
+        return !path.startsWith(ADMIN_PATH_PREFIX) && !path.equals("/api/admin");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String presented = request.getHeader(TOKEN_HEADER);
+        
+        if (adminToken.length == 0) {
+            reject(response, HttpStatus.FORBIDDEN, "Admin endpoints are disabled");
+            return;
+        }
+        // Constant-time comparison
+        if (presented == null || !MessageDigest.isEqual(adminToken, presented.getBytes(StandardCharsets.UTF_8))) {
+            reject(response, HttpStatus.UNAUTHORIZED, "Invalid admin token");
+            return;
+        }
+        
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"success\":false,\"message\":\"" + message + "\"}");
+    }
+}
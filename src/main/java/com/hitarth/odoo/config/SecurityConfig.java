@@ -1,5 +1,6 @@
 package com.hitarth.odoo.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -7,11 +8,15 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
     
+    @Value("${app.admin.token:}")
+    private String adminToken;
+    
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -27,7 +32,8 @@ public class SecurityConfig {
                 .anyRequest().permitAll() // Allow all requests for now
             )
             .formLogin(form -> form.disable()) // Disable default login form
-            .httpBasic(httpBasic -> httpBasic.disable()); // Disable basic auth
+            .httpBasic(httpBasic -> httpBasic.disable()) // Disable basic auth
+            .addFilterBefore(new AdminTokenFilter(adminToken), UsernamePasswordAuthenticationFilter.class);
         
         return http.build();
     }
@@ -4,21 +4,32 @@ import com.hitarth.odoo.dto.AuthResponse;
 import com.hitarth.odoo.dto.LoginRequest;
 import com.hitarth.odoo.dto.RegisterRequest;
 import com.hitarth.odoo.service.AuthService;
+import com.hitarth.odoo.service.UserAvailabilityService;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*") // Allow CORS for frontend integration
 public class AuthController {
     
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+    
     @Autowired
     private AuthService authService;
     
+    @Autowired
+    private UserAvailabilityService userAvailabilityService;
+    
     /**
      * User registration endpoint
      * POST /api/auth/register
@@ -45,8 +56,7 @@ public class AuthController {
             }
             
         } catch (Exception e) {
-            System.err.println("Registration error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Registration error", e);
             AuthResponse errorResponse = AuthResponse.error("Registration failed due to server error: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
@@ -78,13 +88,40 @@ public class AuthController {
             }
             
         } catch (Exception e) {
-            System.err.println("Login error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Login error", e);
             AuthResponse errorResponse = AuthResponse.error("Login failed due to server error: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
     
+    /**
+     * Live availability check for registration and profile forms
+     * GET /api/auth/availability?email={email}&displayName={displayName}
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<Map<String, Object>> checkAvailability(
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String displayName) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            if (email != null && !email.trim().isEmpty()) {
+                response.put("emailAvailable", userAvailabilityService.isEmailAvailable(email));
+            }
+            if (displayName != null && !displayName.trim().isEmpty()) {
+                response.put("displayNameAvailable", userAvailabilityService.isDisplayNameAvailable(displayName));
+            }
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("Availability check error", e);
+            response.put("success", false);
+            response.put("message", "Failed to check availability");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
     /**
      * Health check endpoint
      * GET /api/auth/health
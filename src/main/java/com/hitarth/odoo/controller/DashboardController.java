@@ -3,6 +3,8 @@ package com.hitarth.odoo.controller;
 import com.hitarth.odoo.dto.AuthResponse;
 import com.hitarth.odoo.model.User;
 import com.hitarth.odoo.service.DashboardService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +17,8 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class DashboardController {
     
+    private static final Logger log = LoggerFactory.getLogger(DashboardController.class);
+    
     @Autowired
     private DashboardService dashboardService;
     
@@ -34,8 +38,7 @@ public class DashboardController {
             }
             
         } catch (Exception e) {
-            System.err.println("Get profile error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Get profile error", e);
             AuthResponse errorResponse = AuthResponse.error("Failed to fetch profile: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
@@ -48,19 +51,17 @@ public class DashboardController {
     @PutMapping("/profile")
     public ResponseEntity<AuthResponse> updateProfile(@RequestBody Map<String, Object> profileData) {
         try {
-            System.out.println("Received profile update request: " + profileData);
-            
             Long userId = Long.parseLong(profileData.get("userId").toString());
             String displayName = (String) profileData.get("displayName");
             String email = (String) profileData.get("email");
             String profileImageUrl = (String) profileData.get("profileImageUrl");
             
-            System.out.println("Parsed data - userId: " + userId + ", displayName: " + displayName + ", email: " + email);
-            System.out.println("ProfileImageUrl length: " + (profileImageUrl != null ? profileImageUrl.length() : "null"));
+            log.debug("Profile update request for user {}, image length {}", userId,
+                    profileImageUrl != null ? profileImageUrl.length() : 0);
             
             // Check if profileImageUrl is too long
             if (profileImageUrl != null && profileImageUrl.length() > 10000) {
-                System.out.println("Profile image URL too long: " + profileImageUrl.length() + " characters");
+                log.debug("Profile image too large: {} characters", profileImageUrl.length());
                 AuthResponse errorResponse = AuthResponse.error("Profile image is too large. Please use a smaller image.");
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
             }
@@ -70,13 +71,12 @@ public class DashboardController {
             if (response.isSuccess()) {
                 return ResponseEntity.ok(response);
             } else {
-                System.out.println("Dashboard service returned error: " + response.getMessage());
+                log.debug("Profile update rejected: {}", response.getMessage());
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
             
         } catch (Exception e) {
-            System.err.println("Update profile error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Update profile error", e);
             AuthResponse errorResponse = AuthResponse.error("Failed to update profile: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
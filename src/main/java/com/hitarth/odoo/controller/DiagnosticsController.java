@@ -0,0 +1,94 @@
+package com.hitarth.odoo.controller;
+
+import com.hitarth.odoo.monitoring.JfrRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/jfr")
+public class DiagnosticsController {
+
+    private static final Logger log = LoggerFactory.getLogger(DiagnosticsController.class);
+
+    @Autowired
+    private JfrRecorder jfrRecorder;
+
+    /**
+     * Get the state of the on-demand JFR recording
+     * GET /api/admin/jfr
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        Map<String, Object> response = new HashMap<>(jfrRecorder.status());
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Start a bounded JFR recording
+     * POST /api/admin/jfr/start?seconds={seconds}
+     */
+    @PostMapping("/start")
+    public ResponseEntity<Map<String, Object>> start(@RequestParam(required = false) Long seconds) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            Duration duration = seconds != null && seconds > 0 ? Duration.ofSeconds(seconds) : null;
+            response.putAll(jfrRecorder.start(duration));
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (Exception e) {
+            log.error("Error starting JFR recording", e);
+            response.put("success", false);
+            response.put("message", "Failed to start recording: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Stop the recording and download it as a .jfr file
+     * POST /api/admin/jfr/stop
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<StreamingResponseBody> stop() {
+        Path file;
+        try {
+            file = jfrRecorder.stop();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IOException e) {
+            log.error("Error stopping JFR recording", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try {
+                Files.copy(file, outputStream);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+}
@@ -0,0 +1,40 @@
+package com.hitarth.odoo.controller;
+
+import com.hitarth.odoo.service.ExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response setup shared by the export endpoints: download headers, and gzip when the client accepts it.
+ */
+final class ExportResponses {
+
+    private ExportResponses() {
+    }
+
+    /**
+     * Set the export headers and open the body stream, the caller closes it to finish the gzip trailer
+     */
+    static OutputStream open(HttpServletRequest request, HttpServletResponse response,
+                             ExportService.Format format, String fileName) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName + "." + format.getExtension()).build().toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null || !acceptEncoding.contains("gzip")) {
+            return response.getOutputStream();
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        // Sync flush so every exported page reaches the client compressed, not only at the end
+        return new GZIPOutputStream(response.getOutputStream(), 8192, true);
+    }
+}
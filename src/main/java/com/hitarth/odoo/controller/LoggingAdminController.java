@@ -0,0 +1,71 @@
+package com.hitarth.odoo.controller;
+
+import com.hitarth.odoo.logging.DebugSamplingTurboFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggerConfiguration;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/logging")
+public class LoggingAdminController {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingAdminController.class);
+
+    private static final String APP_LOGGER = "com.hitarth.odoo";
+
+    @Autowired
+    private LoggingSystem loggingSystem;
+
+    /**
+     * Get the application log level and DEBUG sample rate
+     * GET /api/admin/logging
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getLogging() {
+        return ResponseEntity.ok(currentSettings());
+    }
+
+    /**
+     * Change the application log level and/or DEBUG sample rate at runtime
+     * PUT /api/admin/logging?level={level}&debugSampleRate={rate}
+     */
+    @PutMapping
+    public ResponseEntity<Map<String, Object>> updateLogging(
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) Double debugSampleRate) {
+        try {
+            if (level != null && !level.trim().isEmpty()) {
+                loggingSystem.setLogLevel(APP_LOGGER, LogLevel.valueOf(level.trim().toUpperCase(Locale.ROOT)));
+            }
+            if (debugSampleRate != null) {
+                DebugSamplingTurboFilter.updateSampleRate(debugSampleRate);
+            }
+            log.info("Logging updated: level={}, debugSampleRate={}", level, debugSampleRate);
+            return ResponseEntity.ok(currentSettings());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Unknown log level: " + level);
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    private Map<String, Object> currentSettings() {
+        LoggerConfiguration configuration = loggingSystem.getLoggerConfiguration(APP_LOGGER);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("logger", APP_LOGGER);
+        response.put("level", configuration != null ? String.valueOf(configuration.getEffectiveLevel()) : null);
+        response.put("debugSampleRate", DebugSamplingTurboFilter.getSampleRate());
+        return response;
+    }
+}
@@ -0,0 +1,55 @@
+package com.hitarth.odoo.controller;
+
+import com.hitarth.odoo.repository.MailQueueRepository;
+import com.hitarth.odoo.service.MailQueueSender;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/mail")
+public class MailAdminController {
+
+    @Autowired
+    private MailQueueSender mailQueueSender;
+
+    /**
+     * List mails given up on after the last attempt, with their last error
+     * GET /api/admin/mail/dead?limit={limit}
+     */
+    @GetMapping("/dead")
+    public ResponseEntity<Map<String, Object>> getDeadLetters(@RequestParam(defaultValue = "100") int limit) {
+        List<MailQueueRepository.QueuedMail> mails = mailQueueSender.getDeadLetters(Math.max(1, Math.min(limit, 1000)));
+        List<Map<String, Object>> dead = new ArrayList<>(mails.size());
+        for (MailQueueRepository.QueuedMail mail : mails) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("id", mail.id());
+            entry.put("recipient", mail.recipient());
+            entry.put("subject", mail.subject());
+            entry.put("attempts", mail.attempts());
+            entry.put("lastError", mail.lastError());
+            dead.add(entry);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("mails", dead);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Queue every dead mail again
+     * POST /api/admin/mail/dead/requeue
+     */
+    @PostMapping("/dead/requeue")
+    public ResponseEntity<Map<String, Object>> requeueDeadLetters() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("requeued", mailQueueSender.requeueDeadLetters());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,56 +1,211 @@
 package com.hitarth.odoo.controller;
 
+import com.hitarth.odoo.dto.ProductChangeFeed;
+import com.hitarth.odoo.dto.ProductImage;
+import com.hitarth.odoo.dto.ProductImportResult;
+import com.hitarth.odoo.dto.ProductPatchRequest;
 import com.hitarth.odoo.dto.ProductRequest;
 import com.hitarth.odoo.dto.ProductResponse;
+import com.hitarth.odoo.service.ExportService;
+import com.hitarth.odoo.service.ProductCardStore;
+import com.hitarth.odoo.service.ProductChangeService;
+import com.hitarth.odoo.service.ProductEventBroadcaster;
+import com.hitarth.odoo.service.ProductImportService;
 import com.hitarth.odoo.service.ProductService;
+import com.hitarth.odoo.service.RecommendationService;
+import com.hitarth.odoo.service.RelatedProductService;
+import com.hitarth.odoo.service.TrendingService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
 @CrossOrigin(origins = "*")
 public class ProductController {
     
+    private static final Logger log = LoggerFactory.getLogger(ProductController.class);
+    
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private ProductCardStore productCardStore;
+    
+    @Autowired
+    private ProductImportService productImportService;
+    
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private ProductEventBroadcaster productEventBroadcaster;
+    
+    @Autowired
+    private ProductChangeService productChangeService;
+    
+    @Autowired
+    private RecommendationService recommendationService;
+    
+    @Autowired
+    private RelatedProductService relatedProductService;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
     /**
-     * Get all active products
+     * Get all active products as listing cards, copied from the card store or streamed from the database
      * GET /api/products
      */
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
+    public void getAllProducts(HttpServletResponse response) throws IOException {
         try {
-            List<ProductResponse> products = productService.getAllProducts();
-            return ResponseEntity.ok(products);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            if (!productCardStore.writeActiveCards(response.getOutputStream())) {
+                productService.writeAllProductCards(response.getOutputStream());
+            }
         } catch (Exception e) {
-            System.err.println("Error fetching products: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            log.error("Error fetching products", e);
+            streamFailed(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
     
     /**
-     * Get products by category
+     * Get products by category as listing cards
      * GET /api/products/category/{category}
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<ProductResponse>> getProductsByCategory(@PathVariable String category) {
+    public void getProductsByCategory(@PathVariable String category, HttpServletResponse response) throws IOException {
         try {
-            List<ProductResponse> products = productService.getProductsByCategory(category);
-            return ResponseEntity.ok(products);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            if (!productCardStore.writeActiveCardsByCategory(category, response.getOutputStream())) {
+                productService.writeProductCardsByCategory(category, response.getOutputStream());
+            }
         } catch (Exception e) {
-            System.err.println("Error fetching products by category: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            log.error("Error fetching products by category", e);
+            streamFailed(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * Get listing cards recommended for a user from their purchases and cart, best match first
+     * GET /api/products/recommended/{userId}?limit={limit}
+     */
+    @GetMapping("/recommended/{userId}")
+    public void getRecommendedProducts(@PathVariable Long userId, @RequestParam(required = false) Integer limit,
+                                       HttpServletResponse response) throws IOException {
+        try {
+            List<Long> productIds = recommendationService.recommend(userId, limit);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            if (!productCardStore.writeCardsByIds(productIds, response.getOutputStream())) {
+                productService.writeProductCardsByIds(productIds, response.getOutputStream());
+            }
+        } catch (Exception e) {
+            log.error("Error fetching recommended products", e);
+            streamFailed(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * Get listing cards of the products most viewed and added to carts lately, trending first
+     * GET /api/products/trending?limit={limit}
+     */
+    @GetMapping("/trending")
+    public void getTrendingProducts(@RequestParam(required = false) Integer limit,
+                                    HttpServletResponse response) throws IOException {
+        try {
+            List<Long> productIds = trendingService.trending();
+            int max = limit != null ? Math.max(1, limit) : 20;
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            if (!productCardStore.writeCardsByIds(productIds, max, response.getOutputStream())) {
+                productService.writeProductCardsByIds(productIds, max, response.getOutputStream());
+            }
+        } catch (Exception e) {
+            log.error("Error fetching trending products", e);
+            streamFailed(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * Get listing cards of products frequently bought together with a product, most often first
+     * GET /api/products/{id}/related?limit={limit}
+     */
+    @GetMapping("/{id}/related")
+    public void getRelatedProducts(@PathVariable Long id, @RequestParam(required = false) Integer limit,
+                                   HttpServletResponse response) throws IOException {
+        try {
+            List<Long> productIds = relatedProductService.related(id);
+            int max = limit != null ? Math.max(1, limit) : 10;
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            if (!productCardStore.writeCardsByIds(productIds, max, response.getOutputStream())) {
+                productService.writeProductCardsByIds(productIds, max, response.getOutputStream());
+            }
+        } catch (Exception e) {
+            log.error("Error fetching related products", e);
+            streamFailed(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * Stream listing changes as Server-Sent Events: created and updated (with the listing card), sold and deactivated
+     * GET /api/products/stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductChanges() {
+        return productEventBroadcaster.subscribe();
+    }
+    
+    /**
+     * Get products created, updated, sold or deactivated after a change token, with the token to continue from.
+     * Without a token only the current token is returned, to be kept before downloading the full listing
+     * GET /api/products/changes?since={token}&limit={limit}
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<Map<String, Object>> getProductChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            ProductChangeFeed feed = since != null
+                    ? productChangeService.getChangesSince(since, limit)
+                    : new ProductChangeFeed(List.of(), productChangeService.getCurrentToken(), false);
+            
+            response.put("success", true);
+            response.put("changes", feed.getChanges());
+            response.put("nextToken", feed.getNextToken());
+            response.put("hasMore", feed.isHasMore());
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            log.error("Error fetching product changes", e);
+            response.put("success", false);
+            response.put("message", "Failed to fetch product changes");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
     
@@ -77,8 +232,7 @@ public class ProductController {
             
             return ResponseEntity.ok(products);
         } catch (Exception e) {
-            System.err.println("Error searching products: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error searching products", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -91,6 +245,7 @@ public class ProductController {
     public ResponseEntity<Map<String, Object>> getProductById(@PathVariable Long id) {
         try {
             ProductResponse product = productService.getProductById(id);
+            trendingService.viewed(id);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("product", product);
@@ -101,8 +256,7 @@ public class ProductController {
             response.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         } catch (Exception e) {
-            System.err.println("Error fetching product: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error fetching product", e);
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
             response.put("message", "Failed to fetch product");
@@ -111,20 +265,67 @@ public class ProductController {
     }
     
     /**
-     * Get user's products
+     * Get user's products as listing cards
      * GET /api/products/user/{sellerId}
      */
     @GetMapping("/user/{sellerId}")
-    public ResponseEntity<List<ProductResponse>> getUserProducts(@PathVariable Long sellerId) {
+    public void getUserProducts(@PathVariable Long sellerId, HttpServletResponse response) throws IOException {
         try {
-            List<ProductResponse> products = productService.getUserProducts(sellerId);
-            return ResponseEntity.ok(products);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            productService.writeUserProductCards(sellerId, response.getOutputStream());
+        } catch (IOException e) {
+            log.error("Error fetching user products", e);
+            streamFailed(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (RuntimeException e) {
+            streamFailed(response, HttpStatus.NOT_FOUND);
+        }
+    }
+    
+    /**
+     * Export all of a seller's products as CSV or NDJSON, streamed page by page (gzip when accepted)
+     * GET /api/products/user/{sellerId}/export?format=csv|ndjson
+     */
+    @GetMapping("/user/{sellerId}/export")
+    public void exportUserProducts(@PathVariable Long sellerId,
+                                   @RequestParam(defaultValue = "csv") String format,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        try {
+            ExportService.Format exportFormat = ExportService.Format.of(format);
+            exportService.checkUser(sellerId);
+            try (OutputStream out = ExportResponses.open(request, response, exportFormat, "listings-" + sellerId)) {
+                exportService.exportSellerListings(sellerId, exportFormat, out);
+            }
+        } catch (IOException e) {
+            log.error("Error exporting user products", e);
+            streamFailed(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (IllegalArgumentException e) {
+            streamFailed(response, HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            streamFailed(response, HttpStatus.NOT_FOUND);
+        }
+    }
+    
+    /**
+     * Get product image (the imageUrl of listing cards)
+     * GET /api/products/{id}/image
+     */
+    @GetMapping("/{id}/image")
+    public ResponseEntity<byte[]> getProductImage(@PathVariable Long id) {
+        try {
+            ProductImage image = productService.getProductImage(id);
+            if (image.isExternal()) {
+                return ResponseEntity.status(HttpStatus.FOUND).location(URI.create(image.getExternalUrl())).build();
+            }
+            
+            // A matching If-None-Match is answered with 304 by Spring
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(image.getContentType()))
+                    .cacheControl(CacheControl.maxAge(Duration.ofHours(1)).cachePublic())
+                    .eTag(DigestUtils.md5DigestAsHex(image.getData()))
+                    .body(image.getData());
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        } catch (Exception e) {
-            System.err.println("Error fetching user products: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
@@ -161,14 +362,31 @@ public class ProductController {
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
             
         } catch (Exception e) {
-            System.err.println("Error creating product: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating product", e);
             response.put("success", false);
             response.put("message", "Failed to create product: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
     
+    /**
+     * Bulk import listings from CSV (header row of ProductRequest field names)
+     * POST /api/products/import?sellerId={sellerId}, Content-Type: text/csv
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<Map<String, Object>> importProductsCsv(@RequestParam Long sellerId, HttpServletRequest request) {
+        return importProducts(() -> productImportService.importCsv(sellerId, request.getInputStream()));
+    }
+    
+    /**
+     * Bulk import listings from newline-delimited JSON (one ProductRequest per line)
+     * POST /api/products/import?sellerId={sellerId}, Content-Type: application/x-ndjson
+     */
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<Map<String, Object>> importProductsNdjson(@RequestParam Long sellerId, HttpServletRequest request) {
+        return importProducts(() -> productImportService.importNdjson(sellerId, request.getInputStream()));
+    }
+    
     /**
      * Update product
      * PUT /api/products/{id}
@@ -207,14 +425,57 @@ public class ProductController {
             response.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         } catch (Exception e) {
-            System.err.println("Error updating product: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error updating product", e);
             response.put("success", false);
             response.put("message", "Failed to update product: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
     
+    /**
+     * Partially update product, only the fields in the body change
+     * PATCH /api/products/{id}
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> patchProduct(
+            @PathVariable Long id,
+            @Valid @RequestBody ProductPatchRequest request,
+            BindingResult bindingResult,
+            @RequestParam Long sellerId) {
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            // Check for validation errors
+            if (bindingResult.hasErrors()) {
+                StringBuilder errorMessage = new StringBuilder("Validation failed: ");
+                bindingResult.getFieldErrors().forEach(error -> {
+                    errorMessage.append(error.getField()).append(" - ").append(error.getDefaultMessage()).append("; ");
+                });
+                response.put("success", false);
+                response.put("message", errorMessage.toString());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            }
+            
+            Set<String> updatedFields = productService.patchProduct(id, request, sellerId);
+            
+            response.put("success", true);
+            response.put("message", "Product updated successfully");
+            response.put("updatedFields", updatedFields);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+    
     /**
      * Delete product
      * DELETE /api/products/{id}
@@ -244,8 +505,7 @@ public class ProductController {
             response.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         } catch (Exception e) {
-            System.err.println("Error deleting product: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error deleting product", e);
             response.put("success", false);
             response.put("message", "Failed to delete product: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -262,8 +522,7 @@ public class ProductController {
             String[] categories = productService.getCategories();
             return ResponseEntity.ok(categories);
         } catch (Exception e) {
-            System.err.println("Error fetching categories: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error fetching categories", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -278,8 +537,7 @@ public class ProductController {
             String[] conditionTypes = productService.getConditionTypes();
             return ResponseEntity.ok(conditionTypes);
         } catch (Exception e) {
-            System.err.println("Error fetching condition types: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error fetching condition types", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -292,4 +550,42 @@ public class ProductController {
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Product service is running");
     }
+    
+    // Rows may already be on the wire, then the client sees a truncated body instead of an error status
+    private void streamFailed(HttpServletResponse response, HttpStatus status) throws IOException {
+        if (!response.isCommitted()) {
+            response.reset();
+            response.sendError(status.value());
+        }
+    }
+    
+    private ResponseEntity<Map<String, Object>> importProducts(ImportCall call) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            ProductImportResult result = call.run();
+            
+            response.put("success", result.getFailed() == 0);
+            response.put("message", result.getImported() + " products imported, " + result.getFailed() + " rows rejected");
+            response.put("imported", result.getImported());
+            response.put("failed", result.getFailed());
+            response.put("errors", result.getErrors());
+            response.put("errorsTruncated", result.isErrorsTruncated());
+            return ResponseEntity.ok(response);
+            
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (IOException e) {
+            log.error("Error reading product import", e);
+            response.put("success", false);
+            response.put("message", "Failed to read upload: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+    
+    private interface ImportCall {
+        ProductImportResult run() throws IOException;
+    }
 }
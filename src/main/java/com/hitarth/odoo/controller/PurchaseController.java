@@ -1,11 +1,19 @@
 package com.hitarth.odoo.controller;
 
 import com.hitarth.odoo.dto.PurchaseResponse;
+import com.hitarth.odoo.service.ExportService;
 import com.hitarth.odoo.service.PurchaseService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,9 +23,14 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class PurchaseController {
 
+    private static final Logger log = LoggerFactory.getLogger(PurchaseController.class);
+
     @Autowired
     private PurchaseService purchaseService;
 
+    @Autowired
+    private ExportService exportService;
+
     // Create purchase from cart
     @PostMapping("/checkout/{userId}")
     public ResponseEntity<Map<String, Object>> checkout(@PathVariable Long userId) {
@@ -54,6 +67,28 @@ public class PurchaseController {
         }
     }
 
+    // Export user's purchase history as CSV or NDJSON, one row per purchased item, streamed page by page
+    @GetMapping("/history/{userId}/export")
+    public void exportPurchaseHistory(@PathVariable Long userId,
+                                      @RequestParam(defaultValue = "csv") String format,
+                                      HttpServletRequest request,
+                                      HttpServletResponse response) throws IOException {
+        try {
+            ExportService.Format exportFormat = ExportService.Format.of(format);
+            exportService.checkUser(userId);
+            try (OutputStream out = ExportResponses.open(request, response, exportFormat, "purchases-" + userId)) {
+                exportService.exportPurchaseHistory(userId, exportFormat, out);
+            }
+        } catch (IOException e) {
+            log.error("Error exporting purchase history", e);
+            exportFailed(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (IllegalArgumentException e) {
+            exportFailed(response, HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            exportFailed(response, HttpStatus.NOT_FOUND);
+        }
+    }
+
     // Get purchase by ID
     @GetMapping("/{purchaseId}")
     public ResponseEntity<Map<String, Object>> getPurchaseById(
@@ -73,5 +108,12 @@ public class PurchaseController {
             return ResponseEntity.badRequest().body(response);
         }
     }
-}
 
+    // Once rows were sent the status cannot change, the client sees a truncated download
+    private void exportFailed(HttpServletResponse response, HttpStatus status) throws IOException {
+        if (!response.isCommitted()) {
+            response.reset();
+            response.sendError(status.value());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.hitarth.odoo.controller;
+
+import com.hitarth.odoo.monitoring.QueryShapeProfiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/queries")
+public class QueryProfilerController {
+
+    @Autowired
+    private QueryShapeProfiler queryShapeProfiler;
+
+    /**
+     * Get the slowest SQL shapes
+     * GET /api/admin/queries?limit={limit}&orderBy={total|max|mean|p99}
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getTopShapes(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "total") String orderBy) {
+        List<Map<String, Object>> shapes = queryShapeProfiler.topShapes(Math.max(1, limit), orderBy);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("orderBy", orderBy);
+        response.put("shapes", shapes);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Reset all recorded shapes
+     * DELETE /api/admin/queries
+     */
+    @DeleteMapping
+    public ResponseEntity<Map<String, Object>> reset() {
+        queryShapeProfiler.reset();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Query statistics reset");
+        return ResponseEntity.ok(response);
+    }
+}
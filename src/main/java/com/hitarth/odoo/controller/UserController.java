@@ -3,6 +3,8 @@ package com.hitarth.odoo.controller;
 import com.hitarth.odoo.dto.AuthResponse;
 import com.hitarth.odoo.model.User;
 import com.hitarth.odoo.service.AuthService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +15,8 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "*")
 public class UserController {
     
+    private static final Logger log = LoggerFactory.getLogger(UserController.class);
+    
     @Autowired
     private AuthService authService;
     
@@ -32,8 +36,7 @@ public class UserController {
             }
             
         } catch (Exception e) {
-            System.err.println("Get user error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Get user error", e);
             AuthResponse errorResponse = AuthResponse.error("Failed to fetch user: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
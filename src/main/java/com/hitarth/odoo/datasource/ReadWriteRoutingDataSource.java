@@ -0,0 +1,99 @@
+package com.hitarth.odoo.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy so the target is chosen at the first
+ * statement, after the transaction manager has published the read-only flag.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWrites readYourWrites;
+
+    private final Counter writes;
+    private final Counter untransacted;
+    private final Counter replicaReads;
+    private final Counter pinnedReads;
+    private final Counter requiredReads;
+    private final Counter laggingReads;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                      ReadYourWrites readYourWrites, MeterRegistry registry) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        this.writes = route(registry, "primary", "write");
+        this.untransacted = route(registry, "primary", "no_transaction");
+        this.pinnedReads = route(registry, "primary", "pinned");
+        this.requiredReads = route(registry, "primary", "required");
+        this.laggingReads = route(registry, "primary", "replica_lagging");
+        this.replicaReads = route(registry, "replica", "read_only");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            untransacted.increment();
+            return Target.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            readYourWrites.pinAfterCommit();
+            return Target.PRIMARY;
+        }
+        if (PRIMARY_REQUIRED.get() != null) {
+            requiredReads.increment();
+            return Target.PRIMARY;
+        }
+        if (readYourWrites.isPinned()) {
+            pinnedReads.increment();
+            return Target.PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            laggingReads.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+
+    /**
+     * Run reads on the primary even in a read-only transaction, for readers that must not trail the writes.
+     * Applies to the connections opened during the call, so the transaction's first statement must run inside it
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        if (PRIMARY_REQUIRED.get() != null) {
+            return reads.get();
+        }
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    private static Counter route(MeterRegistry registry, String target, String reason) {
+        return Counter.builder("app.datasource.routes")
+                .tag("target", target)
+                .tag("reason", reason)
+                .description("Connections routed by the read/write splitting DataSource")
+                .register(registry);
+    }
+}
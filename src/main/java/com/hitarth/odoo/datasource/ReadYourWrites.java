@@ -0,0 +1,103 @@
+package com.hitarth.odoo.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+/**
+ * Pins a client to the primary for a short window after one of its transactions wrote,
+ * so it reads its own writes even while the replica lags. The pin is a cookie holding the
+ * end of the window, plus a request attribute for reads later in the same request.
+ */
+public class ReadYourWrites {
+
+    public static final String COOKIE_NAME = "ecofinds_primary_until";
+
+    private static final String PINNED_ATTRIBUTE = ReadYourWrites.class.getName() + ".PINNED";
+
+    private final long windowMillis;
+
+    public ReadYourWrites(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * True when the current request wrote earlier or carries an unexpired pin cookie
+     */
+    public boolean isPinned() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        if (request.getAttribute(PINNED_ATTRIBUTE) != null) {
+            return true;
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    long until = Long.parseLong(cookie.getValue());
+                    // A client can only extend its pin up to one window
+                    return until > now && until - now <= windowMillis;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pin the current client once the current read-write transaction commits
+     */
+    public void pinAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PinOnCommit) {
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new PinOnCommit(attributes));
+    }
+
+    private final class PinOnCommit implements TransactionSynchronization {
+
+        private final ServletRequestAttributes attributes;
+
+        PinOnCommit(ServletRequestAttributes attributes) {
+            this.attributes = attributes;
+        }
+
+        @Override
+        public void afterCommit() {
+            attributes.setAttribute(PINNED_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+            HttpServletResponse response = attributes.getResponse();
+            if (response == null || response.isCommitted()) {
+                return;
+            }
+            ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, String.valueOf(System.currentTimeMillis() + windowMillis))
+                    .path("/")
+                    .maxAge(Duration.ofMillis(windowMillis))
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+    }
+}
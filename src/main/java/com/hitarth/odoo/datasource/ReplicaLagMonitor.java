@@ -0,0 +1,88 @@
+package com.hitarth.odoo.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Measures replication lag with a heartbeat row: the current time is written to the primary
+ * and read back from the replica, the difference is the lag (up to one heartbeat interval coarse).
+ * The replica is only used while the lag stays under app.datasource.routing.max-replica-lag-ms.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String WRITE_HEARTBEAT = "UPDATE replication_heartbeat SET beat_millis = ? WHERE id = 1";
+    private static final String READ_HEARTBEAT = "SELECT beat_millis FROM replication_heartbeat WHERE id = 1";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+
+    // -1 while the replica cannot be read
+    private volatile long lagMillis = -1;
+    private volatile boolean usable = false;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMillis, MeterRegistry registry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+
+        Gauge.builder("app.datasource.replica.lag", this,
+                        monitor -> monitor.lagMillis < 0 ? Double.NaN : monitor.lagMillis / 1000.0)
+                .description("Replication lag measured by the heartbeat, NaN while the replica cannot be read")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("app.datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(registry);
+    }
+
+    /**
+     * Read the replica's last heartbeat, then write a new one to the primary
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.routing.heartbeat-interval-ms:1000}")
+    public synchronized void refresh() {
+        long now = System.currentTimeMillis();
+        try {
+            Long beat = replica.queryForObject(READ_HEARTBEAT, Long.class);
+            // Another instance's clock may be slightly ahead
+            lagMillis = beat != null && beat > 0 ? Math.max(0, now - beat) : -1;
+        } catch (DataAccessException e) {
+            log.debug("Replica heartbeat read failed", e);
+            lagMillis = -1;
+        }
+
+        try {
+            primary.update(WRITE_HEARTBEAT, now);
+        } catch (DataAccessException e) {
+            log.warn("Replica heartbeat write failed: {}", e.getMessage());
+        }
+
+        boolean nowUsable = lagMillis >= 0 && lagMillis <= maxLagMillis;
+        if (nowUsable != usable) {
+            if (nowUsable) {
+                log.info("Read replica in use (lag {} ms)", lagMillis);
+            } else {
+                log.warn("Read replica unusable (lag {} ms, limit {} ms), reads fall back to the primary",
+                        lagMillis, maxLagMillis);
+            }
+        }
+        usable = nowUsable;
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+}
@@ -0,0 +1,35 @@
+package com.hitarth.odoo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * A product's latest change as returned by GET /api/products/changes.
+ * Listed products carry their current listing card; sold and deactivated ones only their ID.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductChange {
+    private final Long id;
+    private final String type;
+    private final String card;
+
+    public ProductChange(Long id, String type, String card) {
+        this.id = id;
+        this.type = type;
+        this.card = card;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    @JsonRawValue
+    public String getCard() {
+        return card;
+    }
+}
@@ -0,0 +1,31 @@
+package com.hitarth.odoo.dto;
+
+import java.util.List;
+
+/**
+ * One page of GET /api/products/changes: the changed products and the token to resume from
+ */
+public class ProductChangeFeed {
+    private final List<ProductChange> changes;
+    private final String nextToken;
+    private final boolean hasMore;
+
+    public ProductChangeFeed(List<ProductChange> changes, String nextToken, boolean hasMore) {
+        this.changes = changes;
+        this.nextToken = nextToken;
+        this.hasMore = hasMore;
+    }
+
+    // Getters
+    public List<ProductChange> getChanges() {
+        return changes;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,42 @@
+package com.hitarth.odoo.dto;
+
+/**
+ * A product image as served by GET /api/products/{id}/image: either bytes decoded from a
+ * data: URL stored with the product, or an external URL the client is redirected to.
+ */
+public class ProductImage {
+    private final String contentType;
+    private final byte[] data;
+    private final String externalUrl;
+
+    private ProductImage(String contentType, byte[] data, String externalUrl) {
+        this.contentType = contentType;
+        this.data = data;
+        this.externalUrl = externalUrl;
+    }
+
+    public static ProductImage inline(String contentType, byte[] data) {
+        return new ProductImage(contentType, data, null);
+    }
+
+    public static ProductImage external(String url) {
+        return new ProductImage(null, null, url);
+    }
+
+    public boolean isExternal() {
+        return externalUrl != null;
+    }
+
+    // Getters
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public String getExternalUrl() {
+        return externalUrl;
+    }
+}
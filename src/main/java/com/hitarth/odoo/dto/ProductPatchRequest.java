@@ -0,0 +1,256 @@
+package com.hitarth.odoo.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Partial product update for PATCH /api/products/{id}.
+ * Only the fields present in the request body change; an explicit null clears an optional field.
+ */
+public class ProductPatchRequest {
+
+    public static final String TITLE = "title";
+    public static final String DESCRIPTION = "description";
+    public static final String CATEGORY = "category";
+    public static final String PRICE = "price";
+    public static final String QUANTITY = "quantity";
+    public static final String CONDITION_TYPE = "conditionType";
+    public static final String BRAND = "brand";
+    public static final String MODEL = "model";
+    public static final String YEAR_MANUFACTURED = "yearManufactured";
+    public static final String DIMENSIONS = "dimensions";
+    public static final String WEIGHT = "weight";
+    public static final String MATERIAL = "material";
+    public static final String COLOR = "color";
+    public static final String ORIGINAL_PACKAGING = "originalPackaging";
+    public static final String MANUAL_INCLUDED = "manualIncluded";
+    public static final String WORKING_CONDITION = "workingCondition";
+    public static final String IMAGE_URL = "imageUrl";
+
+    // Fields the request body contained, in request order
+    private final Set<String> presentFields = new LinkedHashSet<>();
+
+    @Size(max = 100, message = "Title must not exceed 100 characters")
+    private String title;
+
+    @Size(max = 500, message = "Description must not exceed 500 characters")
+    private String description;
+
+    private String category;
+
+    @Positive(message = "Price must be a positive number")
+    private BigDecimal price;
+
+    @Positive(message = "Quantity must be a positive number")
+    private Integer quantity;
+
+    private String conditionType;
+    private String brand;
+    private String model;
+    private Integer yearManufactured;
+    private String dimensions;
+    private BigDecimal weight;
+    private String material;
+    private String color;
+    private Boolean originalPackaging;
+    private Boolean manualIncluded;
+    private String workingCondition;
+    private String imageUrl;
+
+    // Required fields may be changed but not cleared
+    @AssertTrue(message = "Product title is required")
+    @JsonIgnore
+    public boolean isTitleKept() {
+        return !has(TITLE) || (title != null && !title.isBlank());
+    }
+
+    @AssertTrue(message = "Category is required")
+    @JsonIgnore
+    public boolean isCategoryKept() {
+        return !has(CATEGORY) || (category != null && !category.isBlank());
+    }
+
+    @AssertTrue(message = "Price is required")
+    @JsonIgnore
+    public boolean isPriceKept() {
+        return !has(PRICE) || price != null;
+    }
+
+    @AssertTrue(message = "Quantity is required")
+    @JsonIgnore
+    public boolean isQuantityKept() {
+        return !has(QUANTITY) || quantity != null;
+    }
+
+    /**
+     * Check whether the request body contained a field
+     */
+    public boolean has(String field) {
+        return presentFields.contains(field);
+    }
+
+    @JsonIgnore
+    public Set<String> getPresentFields() {
+        return Collections.unmodifiableSet(presentFields);
+    }
+
+    // Getters and Setters, each setter records its field as present
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+        presentFields.add(TITLE);
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+        presentFields.add(DESCRIPTION);
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+        presentFields.add(CATEGORY);
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+        presentFields.add(PRICE);
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+        presentFields.add(QUANTITY);
+    }
+
+    public String getConditionType() {
+        return conditionType;
+    }
+
+    public void setConditionType(String conditionType) {
+        this.conditionType = conditionType;
+        presentFields.add(CONDITION_TYPE);
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+        presentFields.add(BRAND);
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+        presentFields.add(MODEL);
+    }
+
+    public Integer getYearManufactured() {
+        return yearManufactured;
+    }
+
+    public void setYearManufactured(Integer yearManufactured) {
+        this.yearManufactured = yearManufactured;
+        presentFields.add(YEAR_MANUFACTURED);
+    }
+
+    public String getDimensions() {
+        return dimensions;
+    }
+
+    public void setDimensions(String dimensions) {
+        this.dimensions = dimensions;
+        presentFields.add(DIMENSIONS);
+    }
+
+    public BigDecimal getWeight() {
+        return weight;
+    }
+
+    public void setWeight(BigDecimal weight) {
+        this.weight = weight;
+        presentFields.add(WEIGHT);
+    }
+
+    public String getMaterial() {
+        return material;
+    }
+
+    public void setMaterial(String material) {
+        this.material = material;
+        presentFields.add(MATERIAL);
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+        presentFields.add(COLOR);
+    }
+
+    public Boolean getOriginalPackaging() {
+        return originalPackaging;
+    }
+
+    public void setOriginalPackaging(Boolean originalPackaging) {
+        this.originalPackaging = originalPackaging;
+        presentFields.add(ORIGINAL_PACKAGING);
+    }
+
+    public Boolean getManualIncluded() {
+        return manualIncluded;
+    }
+
+    public void setManualIncluded(Boolean manualIncluded) {
+        this.manualIncluded = manualIncluded;
+        presentFields.add(MANUAL_INCLUDED);
+    }
+
+    public String getWorkingCondition() {
+        return workingCondition;
+    }
+
+    public void setWorkingCondition(String workingCondition) {
+        this.workingCondition = workingCondition;
+        presentFields.add(WORKING_CONDITION);
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+        presentFields.add(IMAGE_URL);
+    }
+}
@@ -64,6 +64,39 @@ public class ProductResponse {
         }
     }
     
+    // Projection constructor for JPQL "SELECT new" queries (no managed entities, seller joined in the same row)
+    public ProductResponse(Long id, String title, String description, String category, BigDecimal price,
+                           Integer quantity, String conditionType, String brand, String model,
+                           Integer yearManufactured, String dimensions, BigDecimal weight, String material,
+                           String color, Boolean originalPackaging, Boolean manualIncluded,
+                           String workingCondition, String imageUrl, Boolean isActive, Boolean isSold,
+                           LocalDateTime createdAt, LocalDateTime updatedAt,
+                           Long sellerId, String sellerDisplayName, String sellerEmail, String sellerProfileImageUrl) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.category = category;
+        this.price = price;
+        this.quantity = quantity;
+        this.conditionType = conditionType;
+        this.brand = brand;
+        this.model = model;
+        this.yearManufactured = yearManufactured;
+        this.dimensions = dimensions;
+        this.weight = weight;
+        this.material = material;
+        this.color = color;
+        this.originalPackaging = originalPackaging;
+        this.manualIncluded = manualIncluded;
+        this.workingCondition = workingCondition;
+        this.imageUrl = imageUrl;
+        this.isActive = isActive;
+        this.isSold = isSold;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.seller = new SellerInfo(sellerId, sellerDisplayName, sellerEmail, sellerProfileImageUrl);
+    }
+    
     // Inner class for seller information
     public static class SellerInfo {
         private Long id;
@@ -80,6 +113,13 @@ public class ProductResponse {
             this.profileImageUrl = user.getProfileImageUrl();
         }
         
+        public SellerInfo(Long id, String displayName, String email, String profileImageUrl) {
+            this.id = id;
+            this.displayName = displayName;
+            this.email = email;
+            this.profileImageUrl = profileImageUrl;
+        }
+        
         // Getters and Setters
         public Long getId() {
             return id;
@@ -0,0 +1,53 @@
+package com.hitarth.odoo.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logback turbo filter that keeps only a fraction of DEBUG and TRACE events.
+ * The rate starts from app.logging.debug-sample-rate and can be changed at runtime
+ * through /api/admin/logging.
+ */
+public class DebugSamplingTurboFilter extends TurboFilter {
+
+    private static volatile double sampleRate = 1.0;
+
+    /**
+     * Set the sample rate from logback-spring.xml
+     */
+    public void setSampleRate(double rate) {
+        updateSampleRate(rate);
+    }
+
+    /**
+     * Get the fraction of DEBUG and TRACE events that are logged
+     */
+    public static double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Change the fraction of DEBUG and TRACE events that are logged, between 0 and 1
+     */
+    public static void updateSampleRate(double rate) {
+        sampleRate = Math.max(0.0, Math.min(1.0, rate));
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isDebugEnabled() style checks, only sample the actual log call
+        if (level == null || format == null || level.toInt() > Level.DEBUG_INT) {
+            return FilterReply.NEUTRAL;
+        }
+        double rate = sampleRate;
+        if (rate >= 1.0) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextDouble() < rate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
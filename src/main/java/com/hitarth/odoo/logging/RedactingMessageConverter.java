@@ -0,0 +1,44 @@
+package com.hitarth.odoo.logging;
+
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.regex.Pattern;
+
+/**
+ * Logback message converter that masks secrets before a log line is written.
+ * Registered as the %redactedMsg conversion word in logback-spring.xml.
+ */
+public class RedactingMessageConverter extends MessageConverter {
+
+    // password=..., "token": "...", secret: ...
+    private static final Pattern KEY_VALUE_SECRET = Pattern.compile(
+            "(?i)(\"?(?:password|passwd|pwd|secret|token|authorization)\"?\\s*[=:]\\s*)(\"[^\"]*\"|[^\\s,;}&]+)");
+
+    // BCrypt hashes as stored in users.password_hash
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}");
+
+    private static final String REDACTED = "[REDACTED]";
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        return redact(super.convert(event));
+    }
+
+    /**
+     * Mask secrets in a formatted message
+     */
+    public static String redact(String message) {
+        if (message == null || message.isEmpty()) {
+            return message;
+        }
+        String result = message;
+        if (result.indexOf('$') >= 0) {
+            result = BCRYPT_HASH.matcher(result).replaceAll(REDACTED);
+        }
+        if (result.indexOf('=') >= 0 || result.indexOf(':') >= 0) {
+            result = KEY_VALUE_SECRET.matcher(result).replaceAll("$1" + REDACTED);
+        }
+        return result;
+    }
+}
@@ -1,11 +1,14 @@
 package com.hitarth.odoo.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// UPDATEs list only the changed columns, an edit does not rewrite the image TEXT column
 @Entity
 @Table(name = "products")
+@DynamicUpdate
 public class Product {
     
     @Id
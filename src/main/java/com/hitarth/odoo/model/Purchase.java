@@ -3,6 +3,7 @@ package com.hitarth.odoo.model;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Entity
@@ -26,7 +27,7 @@ public class Purchase {
     private String status = "completed";
 
     @OneToMany(mappedBy = "purchase", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private List<PurchaseItem> items;
+    private List<PurchaseItem> items = new ArrayList<>();
 
     // Constructors
     public Purchase() {
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_users_email", columnNames = "email"),
+    @UniqueConstraint(name = "uk_users_display_name", columnNames = "display_name")
+})
 public class User {
     
     @Id
@@ -14,7 +17,7 @@ public class User {
     @Column(name = "display_name", nullable = false, length = 100)
     private String displayName;
     
-    @Column(name = "email", nullable = false, unique = true, length = 255)
+    @Column(name = "email", nullable = false, length = 255)
     private String email;
     
     @Column(name = "password_hash", nullable = false, length = 255)
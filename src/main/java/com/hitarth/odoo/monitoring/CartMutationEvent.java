@@ -0,0 +1,25 @@
+package com.hitarth.odoo.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering CartService writes
+ */
+@Name("com.hitarth.odoo.CartMutation")
+@Label("Cart Mutation")
+@Category({"EcoFinds", "Cart"})
+@Description("Add, update, remove or clear of cart items")
+@StackTrace(false)
+public class CartMutationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Quantity")
+    public int quantity;
+}
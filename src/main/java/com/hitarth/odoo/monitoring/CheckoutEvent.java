@@ -0,0 +1,26 @@
+package com.hitarth.odoo.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering PurchaseService.createPurchaseFromCart up to the end of its transaction, commit included.
+ * Success is the commit status.
+ */
+@Name("com.hitarth.odoo.Checkout")
+@Label("Checkout")
+@Category({"EcoFinds", "Purchases"})
+@Description("Conversion of a cart into a purchase")
+@StackTrace(false)
+public class CheckoutEvent extends Event {
+
+    @Label("Item Count")
+    public int itemCount;
+
+    @Label("Success")
+    public boolean success;
+}
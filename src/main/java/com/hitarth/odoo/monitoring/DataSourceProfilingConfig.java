@@ -0,0 +1,53 @@
+package com.hitarth.odoo.monitoring;
+
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource with datasource-proxy so every statement is fed
+ * to the QueryShapeProfiler. Replaces spring.jpa.show-sql / BasicBinder TRACE logging.
+ * Other QueryExecutionListener beans (e.g. the query plan test's capture) are registered too.
+ * Only connection pools are wrapped; routing and lazy proxies delegate to pools that already are.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.profiler.enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceProfilingConfig {
+
+    @Bean
+    public static BeanPostProcessor profilingDataSourcePostProcessor(
+            ObjectProvider<QueryShapeProfiler> profiler,
+            ObjectProvider<QueryExecutionListener> listeners,
+            @Value("${app.profiler.count-rows:true}") boolean countRows) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource
+                        || bean instanceof DelegatingDataSource || bean instanceof AbstractRoutingDataSource) {
+                    return bean;
+                }
+                QueryShapeProfiler listener = profiler.getObject();
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(listener);
+                listeners.orderedStream()
+                        .filter(other -> other != listener)
+                        .forEach(builder::listener);
+                if (countRows) {
+                    builder.proxyResultSet(RowCountingResultSetProxyLogic.factory());
+                }
+                return builder.build();
+            }
+        };
+    }
+}
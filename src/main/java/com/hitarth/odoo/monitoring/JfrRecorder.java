@@ -0,0 +1,115 @@
+package com.hitarth.odoo.monitoring;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts and stops a single bounded JFR recording on the running JVM.
+ * Recordings use the JDK "profile" settings plus the application events in this package.
+ */
+@Component
+public class JfrRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrRecorder.class);
+
+    private static final List<Class<? extends jdk.jfr.Event>> APPLICATION_EVENTS = List.of(
+            CheckoutEvent.class, ProductSearchEvent.class, LoginVerifyEvent.class, CartMutationEvent.class);
+
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+
+    private Recording recording;
+
+    public JfrRecorder(
+            @Value("${app.jfr.max-duration:5m}") Duration maxDuration,
+            @Value("${app.jfr.max-size-mb:100}") long maxSizeMb) {
+        this.maxDuration = maxDuration;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    /**
+     * Start a recording, bounded by the configured maximum duration and size
+     * @param duration requested duration, capped at app.jfr.max-duration
+     * @return status of the new recording
+     */
+    public synchronized Map<String, Object> start(Duration duration) throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        closeCurrent();
+
+        Duration bounded = duration == null || duration.compareTo(maxDuration) > 0 ? maxDuration : duration;
+
+        Recording newRecording = new Recording(Configuration.getConfiguration("profile"));
+        newRecording.setName("ecofinds-on-demand");
+        newRecording.setDuration(bounded);
+        newRecording.setMaxSize(maxSizeBytes);
+        newRecording.setToDisk(true);
+        for (Class<? extends jdk.jfr.Event> eventClass : APPLICATION_EVENTS) {
+            newRecording.enable(eventClass).withoutStackTrace();
+        }
+        newRecording.start();
+        recording = newRecording;
+
+        log.info("JFR recording {} started for {}", newRecording.getId(), bounded);
+        return status();
+    }
+
+    /**
+     * Stop the current recording (if still running) and dump it to a temporary file
+     * @return path of the .jfr file, to be deleted by the caller once streamed
+     */
+    public synchronized Path stop() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("No recording has been started");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+
+        Path file = Files.createTempFile("ecofinds-", ".jfr");
+        recording.dump(file);
+        log.info("JFR recording {} stopped, {} bytes", recording.getId(), Files.size(file));
+        closeCurrent();
+        return file;
+    }
+
+    /**
+     * Describe the current recording
+     */
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("maxDurationSeconds", maxDuration.toSeconds());
+        status.put("maxSizeMb", maxSizeBytes / (1024 * 1024));
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("id", recording.getId());
+        status.put("state", recording.getState().name());
+        status.put("startTime", recording.getStartTime() != null ? recording.getStartTime().toString() : null);
+        status.put("durationSeconds", recording.getDuration() != null ? recording.getDuration().toSeconds() : null);
+        return status;
+    }
+
+    private void closeCurrent() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.hitarth.odoo.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering the BCrypt password check in AuthService.login
+ */
+@Name("com.hitarth.odoo.LoginVerify")
+@Label("Login Password Verify")
+@Category({"EcoFinds", "Auth"})
+@Description("Time spent verifying a password against its BCrypt hash")
+@StackTrace(false)
+public class LoginVerifyEvent extends Event {
+
+    @Label("Matched")
+    public boolean matched;
+}
@@ -0,0 +1,52 @@
+package com.hitarth.odoo.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Business counters exposed through /actuator/prometheus.
+ * Counters are resolved once here so the hot paths only do an increment.
+ */
+@Component
+public class MarketplaceMetrics {
+
+    private final Counter checkouts;
+    private final Counter checkoutItems;
+    private final Counter cartAdds;
+    private final Counter keywordSearches;
+    private final Counter categorySearches;
+
+    public MarketplaceMetrics(MeterRegistry registry) {
+        this.checkouts = Counter.builder("marketplace.checkouts")
+                .description("Completed checkouts")
+                .register(registry);
+        this.checkoutItems = Counter.builder("marketplace.checkout.items")
+                .description("Cart lines converted into purchase items")
+                .register(registry);
+        this.cartAdds = Counter.builder("marketplace.cart.adds")
+                .description("Add-to-cart operations")
+                .register(registry);
+        this.keywordSearches = Counter.builder("marketplace.searches")
+                .tag("filter", "keyword")
+                .description("Product searches")
+                .register(registry);
+        this.categorySearches = Counter.builder("marketplace.searches")
+                .tag("filter", "keyword_category")
+                .description("Product searches")
+                .register(registry);
+    }
+
+    public void checkoutCompleted(int itemCount) {
+        checkouts.increment();
+        checkoutItems.increment(itemCount);
+    }
+
+    public void cartItemAdded() {
+        cartAdds.increment();
+    }
+
+    public void searched(boolean withCategory) {
+        (withCategory ? categorySearches : keywordSearches).increment();
+    }
+}
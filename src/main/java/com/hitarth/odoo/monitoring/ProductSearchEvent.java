@@ -0,0 +1,28 @@
+package com.hitarth.odoo.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering ProductService.searchProducts
+ */
+@Name("com.hitarth.odoo.ProductSearch")
+@Label("Product Search")
+@Category({"EcoFinds", "Products"})
+@Description("Keyword search over active listings")
+@StackTrace(false)
+public class ProductSearchEvent extends Event {
+
+    @Label("Keyword Length")
+    public int keywordLength;
+
+    @Label("Category Filter")
+    public boolean categoryFilter;
+
+    @Label("Result Size")
+    public int resultSize;
+}
@@ -0,0 +1,222 @@
+package com.hitarth.odoo.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Records latency histograms and row counts per SQL shape.
+ * A shape is the statement with literals, parameters and IN lists collapsed, so every
+ * execution of the same repository query lands in one bucket.
+ * Fed by datasource-proxy, see DataSourceProfilingConfig.
+ */
+@Component
+public class QueryShapeProfiler implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryShapeProfiler.class);
+
+    private static final String START_NANOS = "profiler.startNanos";
+    private static final String OVERFLOW_SHAPE = "<other shapes>";
+    private static final int MAX_SHAPE_LENGTH = 2000;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern VALUES_LIST = Pattern.compile(
+            "(\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\))(?:\\s*,\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\))+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final ShapeStats overflow = new ShapeStats(OVERFLOW_SHAPE);
+
+    private final int maxShapes;
+    private final long slowThresholdNanos;
+    private final double slowLogSampleRate;
+
+    public QueryShapeProfiler(
+            @Value("${app.profiler.max-shapes:500}") int maxShapes,
+            @Value("${app.profiler.slow-query-threshold-ms:200}") long slowThresholdMs,
+            @Value("${app.profiler.slow-query-log-sample-rate:0.1}") double slowLogSampleRate) {
+        this.maxShapes = maxShapes;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.slowLogSampleRate = slowLogSampleRate;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        long elapsedNanos = start != null ? System.nanoTime() - start : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+        if (queryInfoList.isEmpty()) {
+            return;
+        }
+
+        String sql = queryInfoList.get(0).getQuery();
+        ShapeStats stats = statsFor(normalize(sql));
+        stats.record(elapsedNanos, execInfo.isSuccess());
+
+        // Update counts are known now, select row counts arrive through the result set
+        Object result = execInfo.getResult();
+        if (result instanceof Integer updated) {
+            stats.rows.add(updated);
+        } else if (result instanceof int[] batch) {
+            for (int updated : batch) {
+                stats.rows.add(Math.max(updated, 0));
+            }
+        } else if (result instanceof ResultSet resultSet) {
+            RowCountingResultSetProxyLogic.countRowsFor(resultSet, stats);
+        }
+
+        if (elapsedNanos >= slowThresholdNanos && ThreadLocalRandom.current().nextDouble() < slowLogSampleRate) {
+            log.warn("Slow query {} ms: {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), stats.shape);
+        }
+    }
+
+    /**
+     * Get the N slowest shapes
+     * @param limit how many shapes to return
+     * @param orderBy "total", "max", "mean" or "p99"
+     */
+    public List<Map<String, Object>> topShapes(int limit, String orderBy) {
+        Comparator<Map<String, Object>> comparator = Comparator.comparingDouble(
+                snapshot -> ((Number) snapshot.getOrDefault(orderBy + "Ms", snapshot.get("totalMs"))).doubleValue());
+
+        List<Map<String, Object>> snapshots = new ArrayList<>();
+        for (ShapeStats stats : shapes.values()) {
+            snapshots.add(stats.snapshot());
+        }
+        if (overflow.count.sum() > 0) {
+            snapshots.add(overflow.snapshot());
+        }
+        snapshots.sort(comparator.reversed());
+        return snapshots.subList(0, Math.min(limit, snapshots.size()));
+    }
+
+    /**
+     * Forget all recorded shapes
+     */
+    public void reset() {
+        shapes.clear();
+        overflow.reset();
+    }
+
+    /**
+     * Collapse literals, bind parameters, IN lists and multi-row VALUES so equivalent statements share a shape
+     */
+    public static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (...)");
+        shape = VALUES_LIST.matcher(shape).replaceAll("$1");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return shape.length() > MAX_SHAPE_LENGTH ? shape.substring(0, MAX_SHAPE_LENGTH) : shape;
+    }
+
+    private ShapeStats statsFor(String shape) {
+        ShapeStats stats = shapes.get(shape);
+        if (stats != null) {
+            return stats;
+        }
+        if (shapes.size() >= maxShapes) {
+            return overflow;
+        }
+        return shapes.computeIfAbsent(shape, ShapeStats::new);
+    }
+
+    /**
+     * Counters and a log2 latency histogram (microsecond buckets) for one shape
+     */
+    static final class ShapeStats {
+
+        private static final int BUCKETS = 32;
+
+        final String shape;
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        ShapeStats(String shape) {
+            this.shape = shape;
+        }
+
+        void record(long nanos, boolean success) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (!success) {
+                errors.increment();
+            }
+            long micros = Math.max(1, nanos / 1000);
+            int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+            histogram.incrementAndGet(bucket);
+        }
+
+        void reset() {
+            count.reset();
+            errors.reset();
+            totalNanos.reset();
+            rows.reset();
+            maxNanos.reset();
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram.set(i, 0);
+            }
+        }
+
+        Map<String, Object> snapshot() {
+            long executions = count.sum();
+            long total = totalNanos.sum();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("shape", shape);
+            snapshot.put("count", executions);
+            snapshot.put("errors", errors.sum());
+            snapshot.put("rows", rows.sum());
+            snapshot.put("totalMs", total / 1_000_000.0);
+            snapshot.put("meanMs", executions > 0 ? total / 1_000_000.0 / executions : 0.0);
+            snapshot.put("maxMs", maxNanos.get() / 1_000_000.0);
+            snapshot.put("p50Ms", percentileMillis(executions, 0.50));
+            snapshot.put("p99Ms", percentileMillis(executions, 0.99));
+            return snapshot;
+        }
+
+        // Upper bound of the bucket holding the requested rank
+        private double percentileMillis(long executions, double percentile) {
+            if (executions == 0) {
+                return 0.0;
+            }
+            long rank = (long) Math.ceil(executions * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram.get(i);
+                if (seen >= rank) {
+                    return (1L << (i + 1)) / 1000.0;
+                }
+            }
+            return maxNanos.get() / 1_000_000.0;
+        }
+    }
+}
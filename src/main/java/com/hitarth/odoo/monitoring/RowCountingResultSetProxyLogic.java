@@ -0,0 +1,80 @@
+package com.hitarth.odoo.monitoring;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
+import net.ttddyy.dsproxy.proxy.SimpleResultSetProxyLogic;
+
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Result set proxy that counts rows read and adds them to the shape of the query that produced it
+ * once the result set is exhausted or closed. The QueryShapeProfiler hands over the shape after the query ran,
+ * so result sets read interleaved on one thread each count against their own query.
+ */
+class RowCountingResultSetProxyLogic extends SimpleResultSetProxyLogic {
+
+    private QueryShapeProfiler.ShapeStats stats;
+    private long rows;
+    private boolean reported;
+
+    RowCountingResultSetProxyLogic(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        super(resultSet, connectionInfo, proxyConfig);
+    }
+
+    /**
+     * Factory to register with ProxyDataSourceBuilder.proxyResultSet
+     */
+    static ResultSetProxyLogicFactory factory() {
+        return RowCountingResultSetProxyLogic::new;
+    }
+
+    /**
+     * Count the rows of a result set against a shape, if the result set is counted.
+     * Result sets reached through Statement.getResultSet are proxied after the query and stay unattributed
+     */
+    static void countRowsFor(ResultSet resultSet, QueryShapeProfiler.ShapeStats stats) {
+        try {
+            if (resultSet.isWrapperFor(RowCountingResultSetProxyLogic.class)) {
+                resultSet.unwrap(RowCountingResultSetProxyLogic.class).stats = stats;
+            }
+        } catch (SQLException e) {
+            // Not counted
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (args != null && args.length == 1 && args[0] == RowCountingResultSetProxyLogic.class) {
+            if ("unwrap".equals(name)) {
+                return this;
+            }
+            if ("isWrapperFor".equals(name)) {
+                return true;
+            }
+        }
+        Object result = super.invoke(proxy, method, args);
+        if ("next".equals(name)) {
+            if (Boolean.TRUE.equals(result)) {
+                rows++;
+            } else {
+                report();
+            }
+        } else if ("close".equals(name)) {
+            report();
+        }
+        return result;
+    }
+
+    private void report() {
+        if (!reported) {
+            reported = true;
+            if (stats != null) {
+                stats.rows.add(rows);
+            }
+        }
+    }
+}
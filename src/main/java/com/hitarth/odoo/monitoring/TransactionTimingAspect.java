@@ -0,0 +1,86 @@
+package com.hitarth.odoo.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every @Transactional service method, including commit, as app.transaction.
+ * Runs outside the transaction interceptor so the measured span is the whole transaction.
+ * Only calls that start a transaction are timed; calls joining one already active are part of its time.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TransactionTimingAspect {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionTimingAspect.class);
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    // Commit and rollback timers per method, registered on the first call
+    private final Map<Method, Timers> timers = new ConcurrentHashMap<>();
+
+    public TransactionTimingAspect(
+            MeterRegistry meterRegistry,
+            @Value("${app.profiler.slow-transaction-threshold-ms:500}") long slowThresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+    }
+
+    @Around("execution(public * com.hitarth.odoo.service..*(..)) && "
+            + "(@within(org.springframework.transaction.annotation.Transactional) "
+            + "|| @annotation(org.springframework.transaction.annotation.Transactional))")
+    public Object timeTransaction(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        boolean committed = false;
+        try {
+            Object result = joinPoint.proceed();
+            committed = true;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            Timers methodTimers = timers.computeIfAbsent(method, this::register);
+            (committed ? methodTimers.commit() : methodTimers.rollback()).record(elapsed, TimeUnit.NANOSECONDS);
+            if (elapsed >= slowThresholdNanos) {
+                log.warn("Slow transaction {}.{} took {} ms ({})", method.getDeclaringClass().getSimpleName(),
+                        method.getName(), TimeUnit.NANOSECONDS.toMillis(elapsed), committed ? "commit" : "rollback");
+            }
+        }
+    }
+
+    private Timers register(Method method) {
+        return new Timers(timer(method, "commit"), timer(method, "rollback"));
+    }
+
+    private Timer timer(Method method, String outcome) {
+        return Timer.builder("app.transaction")
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private record Timers(Timer commit, Timer rollback) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.hitarth.odoo.outbox;
+
+import com.hitarth.odoo.repository.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers outbox events to the {@link OutboxSubscriber} beans on one background thread.
+ * Woken after each commit that recorded events, and polled in case a wake-up was missed (or events were left
+ * by a previous run). Batches are read oldest first and delivered one at a time, so every subscriber sees the
+ * events of an aggregate in the order they were recorded; a batch is only deleted once all subscribers handled it.
+ * A slow subscriber holds back the next batch instead of queueing events in memory: the backlog stays in the
+ * table. Failed batches are retried with exponential backoff.
+ * Events are delivered by whichever instance reads them, so like the card store this assumes one instance.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    private final List<OutboxSubscriber> subscribers;
+    private final ScheduledExecutorService executor;
+    private final TransactionTemplate deliveredTransaction;
+    private final int batchSize;
+    private final long retryMinMs;
+    private final long retryMaxMs;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Timer lag;
+
+    // A drain is running or waiting to retry; further wake-ups only set pending
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean pending = new AtomicBoolean();
+    // Only touched on the dispatcher thread
+    private int failures;
+
+    public OutboxDispatcher(
+            List<OutboxSubscriber> subscribers,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry registry,
+            @Value("${app.outbox.batch-size:200}") int batchSize,
+            @Value("${app.outbox.retry-min-ms:500}") long retryMinMs,
+            @Value("${app.outbox.retry-max-ms:60000}") long retryMaxMs) {
+        this.subscribers = List.copyOf(subscribers);
+        this.executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("outbox-"));
+        this.deliveredTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retryMinMs = retryMinMs;
+        this.retryMaxMs = retryMaxMs;
+        this.delivered = Counter.builder("app.outbox.delivered")
+                .description("Outbox events delivered to every subscriber")
+                .register(registry);
+        this.failed = Counter.builder("app.outbox.failed")
+                .description("Outbox batch deliveries that failed and will be retried")
+                .register(registry);
+        this.lag = Timer.builder("app.outbox.lag")
+                .description("Time from recording the oldest event of a batch to its delivery")
+                .register(registry);
+    }
+
+    /**
+     * Deliver pending events soon, called after a transaction that recorded events committed
+     */
+    public void wake() {
+        pending.set(true);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Fallback for missed wake-ups and for events recorded before a restart
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        wake();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // An interrupted batch was not deleted and is delivered again on the next start
+        executor.shutdownNow();
+    }
+
+    private void drain() {
+        while (true) {
+            pending.set(false);
+            List<OutboxEvent> batch;
+            try {
+                batch = outboxRepository.findPending(batchSize);
+                if (!batch.isEmpty()) {
+                    deliver(batch);
+                }
+            } catch (RuntimeException e) {
+                retryLater(e);
+                return;
+            }
+            failures = 0;
+            if (batch.size() < batchSize) {
+                scheduled.set(false);
+                // A commit woke us after the read, or the wake-up came in between
+                if (!pending.get() || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void deliver(List<OutboxEvent> batch) {
+        for (OutboxSubscriber subscriber : subscribers) {
+            subscriber.onEvents(batch);
+        }
+        List<Long> ids = batch.stream().map(OutboxEvent::id).toList();
+        deliveredTransaction.executeWithoutResult(status -> outboxRepository.deleteByIds(ids));
+        delivered.increment(batch.size());
+        lag.record(Duration.between(batch.get(0).createdAt(), LocalDateTime.now()));
+    }
+
+    // The drain stays scheduled while it waits, wake-ups in the meantime do not cut the backoff short
+    private void retryLater(RuntimeException e) {
+        failed.increment();
+        long delayMs = Math.min(retryMaxMs, retryMinMs << Math.min(failures, 20));
+        failures++;
+        log.warn("Outbox delivery failed ({} in a row), retrying in {} ms", failures, delayMs, e);
+        executor.schedule(this::drain, delayMs, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,19 @@
+package com.hitarth.odoo.outbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * A recorded side effect of a committed write, e.g. product 42 was updated.
+ * The payload is JSON, or null when the aggregate ID says it all.
+ */
+public record OutboxEvent(long id, String aggregateType, long aggregateId, String eventType, String payload,
+                          LocalDateTime createdAt) {
+
+    public static final String PRODUCT = "product";
+    public static final String PURCHASE = "purchase";
+    public static final String USER = "user";
+
+    public boolean is(String aggregateType) {
+        return this.aggregateType.equals(aggregateType);
+    }
+}
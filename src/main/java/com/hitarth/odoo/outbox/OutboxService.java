@@ -0,0 +1,62 @@
+package com.hitarth.odoo.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hitarth.odoo.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+import static com.hitarth.odoo.util.TransactionCallbacks.afterCommit;
+
+/**
+ * Records outbox events in the caller's transaction: they are delivered if and only if the write commits,
+ * even when the application stops right after the commit.
+ */
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Record an event of one aggregate, the payload is serialized to JSON (null for none)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String aggregateType, Long aggregateId, String eventType, Object payload) {
+        String json;
+        try {
+            json = payload != null ? objectMapper.writeValueAsString(payload) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload cannot be serialized", e);
+        }
+        outboxRepository.insertAll(aggregateType, List.of(aggregateId), eventType, json);
+        wakeAfterCommit();
+    }
+
+    /**
+     * Record the same payload-less event for several aggregates, e.g. an import chunk
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(String aggregateType, Collection<Long> aggregateIds, String eventType) {
+        if (aggregateIds.isEmpty()) {
+            return;
+        }
+        outboxRepository.insertAll(aggregateType, aggregateIds, eventType, null);
+        wakeAfterCommit();
+    }
+
+    private void wakeAfterCommit() {
+        afterCommit(outboxDispatcher::wake);
+    }
+}
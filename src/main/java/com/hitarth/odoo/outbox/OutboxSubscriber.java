@@ -0,0 +1,14 @@
+package com.hitarth.odoo.outbox;
+
+import java.util.List;
+
+/**
+ * Reacts to committed writes off the request thread. Every subscriber bean receives every event.
+ * Events arrive in batches in the order they were recorded, and at least once: a batch is delivered again
+ * when any subscriber throws, or when the application stops before the batch was marked delivered,
+ * so handlers must be idempotent. Events a handler cannot process should be logged, not thrown.
+ */
+public interface OutboxSubscriber {
+
+    void onEvents(List<OutboxEvent> events);
+}
@@ -0,0 +1,52 @@
+package com.hitarth.odoo.outbox;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Drops the events a subscriber already applied from the batches delivered to it, so a batch delivered again
+ * after another subscriber failed is not applied twice. Events may arrive out of ID order (a lower ID can commit
+ * after a higher one), so this keeps IDs rather than a high-water mark. Batches hold the oldest pending events:
+ * an applied event at or below the last ID of a batch that is missing from it was deleted as delivered and is
+ * forgotten, which keeps about a batch of IDs. Not thread safe, subscribers call it under their own lock.
+ */
+public final class RedeliveryFilter {
+
+    private final Set<Long> applied = new HashSet<>();
+
+    public RedeliveryFilter() {
+    }
+
+    /**
+     * Start with events that count as applied already, e.g. the pending ones a history read at startup contains
+     */
+    public RedeliveryFilter(Collection<Long> appliedIds) {
+        applied.addAll(appliedIds);
+    }
+
+    /**
+     * The events of a batch that were not applied before, in batch order. They count as applied from now on
+     */
+    public List<OutboxEvent> firstDeliveries(List<OutboxEvent> batch) {
+        if (batch.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> batchIds = new HashSet<>(batch.size() * 2);
+        for (OutboxEvent event : batch) {
+            batchIds.add(event.id());
+        }
+        long lastId = batch.get(batch.size() - 1).id();
+        applied.removeIf(id -> id <= lastId && !batchIds.contains(id));
+
+        List<OutboxEvent> first = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            if (applied.add(event.id())) {
+                first.add(event);
+            }
+        }
+        return first;
+    }
+}
@@ -1,5 +1,6 @@
 package com.hitarth.odoo.repository;
 
+import com.hitarth.odoo.dto.CartItemResponse;
 import com.hitarth.odoo.model.CartItem;
 import com.hitarth.odoo.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -28,5 +29,11 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     // Find cart items with product details
     @Query("SELECT ci FROM CartItem ci JOIN FETCH ci.product WHERE ci.user = :user ORDER BY ci.addedAt DESC")
     List<CartItem> findByUserWithProduct(@Param("user") User user);
+    
+    // Cart lines projected straight into the response DTO
+    @Query("SELECT new com.hitarth.odoo.dto.CartItemResponse(ci.id, p.id, p.title, p.description, p.category, "
+            + "p.price, p.imageUrl, ci.quantity, ci.addedAt) "
+            + "FROM CartItem ci JOIN ci.product p WHERE ci.user.id = :userId ORDER BY ci.addedAt DESC")
+    List<CartItemResponse> findResponsesByUserId(@Param("userId") Long userId);
 }
 
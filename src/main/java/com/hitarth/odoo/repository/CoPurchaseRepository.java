@@ -0,0 +1,48 @@
+package com.hitarth.odoo.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Reads purchase baskets for the co-purchase index, in ranges of purchase IDs so every basket is read whole.
+ */
+@Repository
+public class CoPurchaseRepository {
+
+    private static final String FIND_LAST_PURCHASE_ID = "SELECT pu.id FROM purchases pu ORDER BY pu.id DESC LIMIT 1";
+
+    private static final String FIND_BASKET_ITEMS = "SELECT pi.purchase_id, pi.product_id FROM purchase_items pi "
+            + "WHERE pi.purchase_id > ? AND pi.purchase_id <= ? ORDER BY pi.purchase_id, pi.product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CoPurchaseRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // Find the newest purchase ID, 0 if there are no purchases
+    public long findLastPurchaseId() {
+        List<Long> ids = jdbcTemplate.queryForList(FIND_LAST_PURCHASE_ID, Long.class);
+        return ids.isEmpty() ? 0L : ids.get(0);
+    }
+
+    // Find the items of the purchases in an ID range, grouped by purchase and ordered by product
+    public void findBasketItems(long afterPurchaseId, long throughPurchaseId, BasketItemSink sink) {
+        jdbcTemplate.query(FIND_BASKET_ITEMS, rs -> {
+            sink.accept(rs.getLong(1), rs.getLong(2));
+        }, afterPurchaseId, throughPurchaseId);
+    }
+
+    /**
+     * Receives purchase items as they are read, without a row object per item
+     */
+    @FunctionalInterface
+    public interface BasketItemSink {
+        void accept(long purchaseId, long productId);
+    }
+}
@@ -0,0 +1,73 @@
+package com.hitarth.odoo.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Keyset-paged reads for the seller listing and purchase history exports.
+ * Each page starts after the last row of the previous one, so no page depends on an open cursor or transaction.
+ * Rows are returned as column values in the order of the matching *_COLUMNS list.
+ */
+@Repository
+public class ExportRepository {
+
+    public static final List<String> LISTING_COLUMNS = List.of("id", "title", "description", "category", "price",
+            "quantity", "conditionType", "brand", "model", "yearManufactured", "isActive", "isSold",
+            "createdAt", "updatedAt");
+
+    public static final List<String> PURCHASE_COLUMNS = List.of("purchaseId", "purchaseDate", "status",
+            "totalAmount", "itemId", "productId", "productTitle", "productCategory", "quantity", "priceAtPurchase");
+
+    private static final String LISTING_PAGE = "SELECT p.id, p.title, p.description, p.category, p.price, "
+            + "p.quantity, p.condition_type, p.brand, p.model, p.year_manufactured, p.is_active, p.is_sold, "
+            + "p.created_at, p.updated_at "
+            + "FROM products p WHERE p.seller_id = ? AND p.id > ? ORDER BY p.id LIMIT ?";
+
+    private static final String PURCHASE_PAGE = "SELECT pu.id, pu.purchase_date, pu.status, pu.total_amount, "
+            + "pi.id, p.id, p.title, p.category, pi.quantity, pi.price_at_purchase "
+            + "FROM purchases pu JOIN purchase_items pi ON pi.purchase_id = pu.id "
+            + "JOIN products p ON p.id = pi.product_id "
+            + "WHERE pu.user_id = ? AND (pu.id > ? OR (pu.id = ? AND pi.id > ?)) ORDER BY pu.id, pi.id LIMIT ?";
+
+    private static final int LISTING_ID = 0;
+    private static final int PURCHASE_ID = 0;
+    private static final int PURCHASE_ITEM_ID = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ExportRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // Find the next page of a seller's products (including inactive and sold), after the last row of the previous page
+    public List<Object[]> findListingPage(Long sellerId, Object[] after, int limit) {
+        long afterId = after != null ? (Long) after[LISTING_ID] : 0L;
+        return jdbcTemplate.query(LISTING_PAGE, rowMapper(LISTING_COLUMNS.size()), sellerId, afterId, limit);
+    }
+
+    // Find the next page of a user's purchase items with their purchase, after the last row of the previous page
+    public List<Object[]> findPurchasePage(Long userId, Object[] after, int limit) {
+        long afterPurchase = after != null ? (Long) after[PURCHASE_ID] : 0L;
+        long afterItem = after != null ? (Long) after[PURCHASE_ITEM_ID] : 0L;
+        return jdbcTemplate.query(PURCHASE_PAGE, rowMapper(PURCHASE_COLUMNS.size()),
+                userId, afterPurchase, afterPurchase, afterItem, limit);
+    }
+
+    private static RowMapper<Object[]> rowMapper(int columns) {
+        return (rs, rowNum) -> {
+            Object[] row = new Object[columns];
+            for (int i = 0; i < columns; i++) {
+                Object value = rs.getObject(i + 1);
+                row[i] = value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : value;
+            }
+            return row;
+        };
+    }
+}
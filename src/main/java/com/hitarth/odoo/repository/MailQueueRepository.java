@@ -0,0 +1,132 @@
+package com.hitarth.odoo.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The mail_queue table: rendered mails waiting to be sent (PENDING), sent (SENT) or given up on (DEAD).
+ */
+@Repository
+public class MailQueueRepository {
+
+    public static final String PENDING = "PENDING";
+    public static final String SENT = "SENT";
+    public static final String DEAD = "DEAD";
+
+    private static final String INSERT = "INSERT INTO mail_queue (dedupe_key, recipient, subject, body, status, "
+            + "attempts, next_attempt_at, created_at, updated_at) VALUES (?, ?, ?, ?, 'PENDING', 0, ?, ?, ?)";
+
+    private static final String EXISTS = "SELECT COUNT(*) FROM mail_queue WHERE dedupe_key = ?";
+
+    private static final String QUEUED_COLUMNS = "SELECT m.id, m.dedupe_key, m.recipient, m.subject, m.body, "
+            + "m.attempts, m.last_error FROM mail_queue m ";
+
+    private static final String DUE = QUEUED_COLUMNS
+            + "WHERE m.status = 'PENDING' AND m.next_attempt_at <= ? ORDER BY m.next_attempt_at, m.id LIMIT ?";
+
+    private static final String DEAD_LETTERS = QUEUED_COLUMNS
+            + "WHERE m.status = 'DEAD' ORDER BY m.next_attempt_at, m.id LIMIT ?";
+
+    private static final String MARK_SENT = "UPDATE mail_queue SET status = 'SENT', attempts = attempts + 1, "
+            + "last_error = NULL, updated_at = :now WHERE id IN (:ids)";
+
+    private static final String MARK_FAILED = "UPDATE mail_queue SET status = ?, attempts = ?, next_attempt_at = ?, "
+            + "last_error = ?, updated_at = ? WHERE id = ?";
+
+    private static final String REQUEUE_DEAD = "UPDATE mail_queue SET status = 'PENDING', attempts = 0, "
+            + "next_attempt_at = ?, updated_at = ? WHERE status = 'DEAD'";
+
+    private static final String DELETE_SENT = "DELETE FROM mail_queue WHERE status = 'SENT' AND updated_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    public MailQueueRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(this.jdbcTemplate);
+    }
+
+    // Queue rendered mails, due now, joining the caller's transaction
+    public void insertAll(Collection<NewMail> mails) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(mails.size());
+        for (NewMail mail : mails) {
+            rows.add(new Object[] {mail.dedupeKey(), mail.recipient(), mail.subject(), mail.body(), now, now, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    // Check whether a mail with this key was ever queued
+    public boolean existsByDedupeKey(String dedupeKey) {
+        Integer count = jdbcTemplate.queryForObject(EXISTS, Integer.class, dedupeKey);
+        return count != null && count > 0;
+    }
+
+    // Find pending mails whose next attempt is due, oldest first
+    public List<QueuedMail> findDue(LocalDateTime now, int limit) {
+        return jdbcTemplate.query(DUE, (rs, rowNum) -> toQueuedMail(rs), Timestamp.valueOf(now), limit);
+    }
+
+    // Find mails given up on, oldest first
+    public List<QueuedMail> findDead(int limit) {
+        return jdbcTemplate.query(DEAD_LETTERS, (rs, rowNum) -> toQueuedMail(rs), limit);
+    }
+
+    // Mark mails as sent
+    public int markSent(Collection<Long> ids, LocalDateTime now) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return namedJdbcTemplate.update(MARK_SENT, new MapSqlParameterSource("ids", ids)
+                .addValue("now", Timestamp.valueOf(now)));
+    }
+
+    // Record a failed attempt: PENDING with the next attempt time, or DEAD after the last one
+    public int markFailed(long id, String status, int attempts, LocalDateTime nextAttemptAt, String error) {
+        String lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        return jdbcTemplate.update(MARK_FAILED, status, attempts, Timestamp.valueOf(nextAttemptAt), lastError,
+                Timestamp.valueOf(LocalDateTime.now()), id);
+    }
+
+    // Queue every dead mail again with fresh attempts
+    public int requeueDead(LocalDateTime now) {
+        Timestamp at = Timestamp.valueOf(now);
+        return jdbcTemplate.update(REQUEUE_DEAD, at, at);
+    }
+
+    // Delete sent mails last touched before the cutoff
+    public int deleteSentBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update(DELETE_SENT, Timestamp.valueOf(cutoff));
+    }
+
+    private static QueuedMail toQueuedMail(ResultSet rs) throws SQLException {
+        return new QueuedMail(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+                rs.getInt(6), rs.getString(7));
+    }
+
+    /**
+     * A rendered mail to queue, identified by its dedupe key (unique)
+     */
+    public record NewMail(String dedupeKey, String recipient, String subject, String body) {
+    }
+
+    /**
+     * A queued mail as the sender reads it
+     */
+    public record QueuedMail(long id, String dedupeKey, String recipient, String subject, String body, int attempts,
+                             String lastError) {
+    }
+}
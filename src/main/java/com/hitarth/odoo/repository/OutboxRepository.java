@@ -0,0 +1,69 @@
+package com.hitarth.odoo.repository;
+
+import com.hitarth.odoo.outbox.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outbox_events table: appended in the writing transaction, drained by the outbox dispatcher.
+ */
+@Repository
+public class OutboxRepository {
+
+    private static final String INSERT = "INSERT INTO outbox_events "
+            + "(aggregate_type, aggregate_id, event_type, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String PENDING = "SELECT o.id, o.aggregate_type, o.aggregate_id, o.event_type, o.payload, "
+            + "o.created_at FROM outbox_events o ORDER BY o.id LIMIT ?";
+
+    private static final String PENDING_IDS = "SELECT o.id FROM outbox_events o ORDER BY o.id";
+
+    private static final String DELETE_BY_IDS = "DELETE FROM outbox_events WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    public OutboxRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(this.jdbcTemplate);
+    }
+
+    // Append one event per aggregate, joining the caller's transaction
+    public void insertAll(String aggregateType, Collection<Long> aggregateIds, String eventType, String payload) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(aggregateIds.size());
+        for (Long aggregateId : aggregateIds) {
+            rows.add(new Object[] {aggregateType, aggregateId, eventType, payload, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    // Find the oldest undelivered events, in recording order
+    public List<OutboxEvent> findPending(int limit) {
+        return jdbcTemplate.query(PENDING,
+                (rs, rowNum) -> new OutboxEvent(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4),
+                        rs.getString(5), rs.getTimestamp(6).toLocalDateTime()),
+                limit);
+    }
+
+    // Find the IDs of all undelivered events, in recording order
+    public List<Long> findPendingIds() {
+        return jdbcTemplate.queryForList(PENDING_IDS, Long.class);
+    }
+
+    // Delete delivered events by ID
+    public int deleteByIds(Collection<Long> ids) {
+        return ids.isEmpty() ? 0 : namedJdbcTemplate.update(DELETE_BY_IDS, Map.of("ids", ids));
+    }
+}
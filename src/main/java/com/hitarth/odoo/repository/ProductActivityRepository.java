@@ -0,0 +1,66 @@
+package com.hitarth.odoo.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The product_activity table: listing views and cart additions per product and time bucket.
+ */
+@Repository
+public class ProductActivityRepository {
+
+    private static final String ADD = "INSERT INTO product_activity (product_id, bucket_start, views, cart_adds) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE views = views + VALUES(views), "
+            + "cart_adds = cart_adds + VALUES(cart_adds)";
+
+    private static final String FIND_SINCE = "SELECT a.product_id, a.bucket_start, a.views, a.cart_adds "
+            + "FROM product_activity a WHERE a.bucket_start >= ?";
+
+    private static final String DELETE_BEFORE = "DELETE FROM product_activity WHERE bucket_start < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ProductActivityRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Add counts to their buckets as one JDBC batch, creating the buckets that do not exist yet
+     */
+    public void addAll(Collection<Activity> activities) {
+        if (activities.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(activities.size());
+        for (Activity activity : activities) {
+            rows.add(new Object[] {activity.productId(), new Timestamp(activity.bucketStartMillis()),
+                    activity.views(), activity.cartAdds()});
+        }
+        jdbcTemplate.batchUpdate(ADD, rows);
+    }
+
+    // Find the buckets starting at or after a time, of all products
+    public List<Activity> findSince(long bucketStartMillis) {
+        return jdbcTemplate.query(FIND_SINCE, (rs, rowNum) -> new Activity(rs.getLong(1), rs.getTimestamp(2).getTime(),
+                rs.getLong(3), rs.getLong(4)), new Timestamp(bucketStartMillis));
+    }
+
+    // Delete the buckets that started before a time
+    public int deleteBefore(long bucketStartMillis) {
+        return jdbcTemplate.update(DELETE_BEFORE, new Timestamp(bucketStartMillis));
+    }
+
+    /**
+     * Views and cart additions of a product in the bucket starting at bucketStartMillis
+     */
+    public record Activity(long productId, long bucketStartMillis, long views, long cartAdds) {
+    }
+}
@@ -0,0 +1,209 @@
+package com.hitarth.odoo.repository;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Listing cards written from the JDBC result set straight into a JSON array, without entities or DTOs.
+ * Only the card columns are selected; the image column is reduced to a flag and served by /api/products/{id}/image.
+ * Runs on the caller's transaction, so read-only callers are routed like any other read.
+ */
+@Repository
+public class ProductCardRepository {
+
+    private static final String CARD_SELECT = "SELECT p.id, p.title, p.price, p.category, p.condition_type, "
+            + "CASE WHEN p.image_url IS NULL OR p.image_url = '' THEN 0 ELSE 1 END AS has_image, "
+            + "p.is_active, p.is_sold, u.display_name, p.created_at, p.seller_id, p.brand "
+            + "FROM products p JOIN users u ON u.id = p.seller_id ";
+
+    // The card columns plus the description, the seller's page searches descriptions too
+    private static final String SELLER_CARD_SELECT = "SELECT p.id, p.title, p.price, p.category, p.condition_type, "
+            + "CASE WHEN p.image_url IS NULL OR p.image_url = '' THEN 0 ELSE 1 END AS has_image, "
+            + "p.is_active, p.is_sold, u.display_name, p.created_at, p.seller_id, p.brand, p.description "
+            + "FROM products p JOIN users u ON u.id = p.seller_id ";
+
+    private static final String ACTIVE_CARDS = CARD_SELECT
+            + "WHERE p.is_active = TRUE AND p.is_sold = FALSE ORDER BY p.created_at DESC";
+
+    private static final String ACTIVE_CARDS_BY_CATEGORY = CARD_SELECT
+            + "WHERE p.category = ? AND p.is_active = TRUE AND p.is_sold = FALSE ORDER BY p.created_at DESC";
+
+    private static final String SELLER_CARDS = SELLER_CARD_SELECT
+            + "WHERE p.seller_id = ? ORDER BY p.created_at DESC";
+
+    private static final String ACTIVE_SELLER_CARDS = CARD_SELECT
+            + "WHERE p.seller_id = ? AND p.is_active = TRUE AND p.is_sold = FALSE";
+
+    private static final String ACTIVE_CARD = CARD_SELECT
+            + "WHERE p.id = ? AND p.is_active = TRUE AND p.is_sold = FALSE";
+
+    private static final String ACTIVE_CARDS_BY_IDS = CARD_SELECT
+            + "WHERE p.id IN (:ids) AND p.is_active = TRUE AND p.is_sold = FALSE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    public ProductCardRepository(DataSource dataSource,
+                                 @Value("${app.products.cards.fetch-size:500}") int fetchSize) {
+        // MySQL only honours the fetch size with useCursorFetch=true, otherwise the driver buffers the result
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(this.jdbcTemplate);
+    }
+
+    // Write active, unsold cards, newest first
+    public void writeActiveCards(JsonGenerator json) throws IOException {
+        writeCards(json, false, ACTIVE_CARDS);
+    }
+
+    // Write active, unsold cards in a category, newest first
+    public void writeActiveCardsByCategory(String category, JsonGenerator json) throws IOException {
+        writeCards(json, false, ACTIVE_CARDS_BY_CATEGORY, category);
+    }
+
+    // Write all cards of a seller (including inactive and sold) with their descriptions, newest first
+    public void writeSellerCards(Long sellerId, JsonGenerator json) throws IOException {
+        writeCards(json, true, SELLER_CARDS, sellerId);
+    }
+
+    // Encode every active, unsold card on its own, for stores that keep cards pre-serialized
+    public void encodeActiveCards(JsonFactory factory, CardSink sink) {
+        jdbcTemplate.query(ACTIVE_CARDS, new CardEncoder(factory, sink));
+    }
+
+    // Encode the active, unsold cards of a seller on their own
+    public void encodeActiveSellerCards(Long sellerId, JsonFactory factory, CardSink sink) {
+        jdbcTemplate.query(ACTIVE_SELLER_CARDS, new CardEncoder(factory, sink), sellerId);
+    }
+
+    // Encode one product's card, false if the product is not listed (inactive, sold or gone)
+    public boolean encodeActiveCard(Long productId, JsonFactory factory, CardSink sink) {
+        CardEncoder encoder = new CardEncoder(factory, sink);
+        jdbcTemplate.query(ACTIVE_CARD, encoder, productId);
+        return encoder.rows > 0;
+    }
+
+    // Encode the cards of several products at once, products that are not listed are skipped
+    public void encodeActiveCardsByIds(Collection<Long> productIds, JsonFactory factory, CardSink sink) {
+        if (!productIds.isEmpty()) {
+            namedJdbcTemplate.query(ACTIVE_CARDS_BY_IDS, Map.of("ids", productIds), new CardEncoder(factory, sink));
+        }
+    }
+
+    private void writeCards(JsonGenerator json, boolean withDescription, String sql, Object... args) throws IOException {
+        json.writeStartArray();
+        try {
+            jdbcTemplate.query(sql, new CardWriter(json, withDescription), args);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        json.writeEndArray();
+        json.flush();
+    }
+
+    /**
+     * Receives encoded cards with the keys a store needs to order and refresh them
+     */
+    public interface CardSink {
+        void accept(long id, long sellerId, long createdAtMillis, String category, byte[] card);
+    }
+
+    /**
+     * Writes one card object per row. Columns are read by index and the price is copied as its
+     * decimal text, so the only per-row allocations are the column strings the driver hands out.
+     */
+    private static final class CardWriter implements RowCallbackHandler {
+
+        private final JsonGenerator json;
+        private final boolean withDescription;
+
+        CardWriter(JsonGenerator json, boolean withDescription) {
+            this.json = json;
+            this.withDescription = withDescription;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                writeCard(json, rs, withDescription);
+            } catch (IOException e) {
+                // The client went away, stop reading rows
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Encodes each row into its own byte array, in the same format {@link CardWriter} streams.
+     */
+    private static final class CardEncoder implements RowCallbackHandler {
+
+        private final JsonFactory factory;
+        private final CardSink sink;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        private int rows;
+
+        CardEncoder(JsonFactory factory, CardSink sink) {
+            this.factory = factory;
+            this.sink = sink;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            buffer.reset();
+            try (JsonGenerator json = factory.createGenerator(buffer)) {
+                writeCard(json, rs, false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Timestamp createdAt = rs.getTimestamp(10);
+            sink.accept(rs.getLong(1), rs.getLong(11), createdAt != null ? createdAt.getTime() : 0L,
+                    rs.getString(4), buffer.toByteArray());
+            rows++;
+        }
+    }
+
+    private static void writeCard(JsonGenerator json, ResultSet rs, boolean withDescription) throws SQLException, IOException {
+        long id = rs.getLong(1);
+        json.writeStartObject();
+        json.writeNumberField("id", id);
+        json.writeStringField("title", rs.getString(2));
+        json.writeFieldName("price");
+        json.writeNumber(rs.getString(3));
+        json.writeStringField("category", rs.getString(4));
+        json.writeStringField("conditionType", rs.getString(5));
+        json.writeStringField("brand", rs.getString(12));
+        if (withDescription) {
+            json.writeStringField("description", rs.getString("description"));
+        }
+        json.writeFieldName("imageUrl");
+        if (rs.getInt(6) == 1) {
+            json.writeString("/api/products/" + id + "/image");
+        } else {
+            json.writeNull();
+        }
+        json.writeBooleanField("isActive", rs.getBoolean(7));
+        json.writeBooleanField("isSold", rs.getBoolean(8));
+        json.writeObjectFieldStart("seller");
+        json.writeStringField("displayName", rs.getString(9));
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,87 @@
+package com.hitarth.odoo.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The product change log: appended by every product write, read by the delta sync, compacted in the background.
+ */
+@Repository
+public class ProductChangeRepository {
+
+    private static final String INSERT = "INSERT INTO product_changes (product_id, change_type, changed_at) "
+            + "VALUES (?, ?, CURRENT_TIMESTAMP(3))";
+
+    // Changes settle out of id order, a read stops before the first unsettled change so none is skipped.
+    // Settled is judged by the database clock that stamped the changes
+    private static final String FIRST_UNSETTLED_AFTER = "COALESCE((SELECT MIN(u.id) FROM product_changes u "
+            + "WHERE u.id > ? AND u.changed_at > TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3))), "
+            + "9223372036854775807)";
+
+    private static final String CHANGES_AFTER = "SELECT c.id, c.product_id, c.change_type FROM product_changes c "
+            + "WHERE c.id > ? AND c.id < " + FIRST_UNSETTLED_AFTER + " ORDER BY c.id LIMIT ?";
+
+    private static final String SUPERSEDED = "SELECT c.id FROM product_changes c WHERE c.id <= ? "
+            + "AND EXISTS (SELECT 1 FROM product_changes n WHERE n.product_id = c.product_id AND n.id > c.id) "
+            + "ORDER BY c.id LIMIT ?";
+
+    private static final String LAST_SETTLED = "SELECT c.id FROM product_changes c "
+            + "WHERE c.id < " + FIRST_UNSETTLED_AFTER + " ORDER BY c.id DESC LIMIT 1";
+
+    private static final String DELETE_BY_IDS = "DELETE FROM product_changes WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    public ProductChangeRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(this.jdbcTemplate);
+    }
+
+    // Append one change per product, joining the caller's transaction
+    public void insertAll(String changeType, Collection<Long> productIds) {
+        List<Object[]> rows = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            rows.add(new Object[] {productId, changeType});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    // Find the changes after a token up to the first one younger than the settle time, oldest first
+    public List<Change> findChangesAfter(long token, long settleMs, int limit) {
+        return jdbcTemplate.query(CHANGES_AFTER,
+                (rs, rowNum) -> new Change(rs.getLong(1), rs.getLong(2), rs.getString(3)),
+                token, token, -settleMs * 1000, limit);
+    }
+
+    // Find the last change before the first one younger than the settle time, 0 when there is none
+    public long findLastSettledToken(long settleMs) {
+        List<Long> token = jdbcTemplate.queryForList(LAST_SETTLED, Long.class, 0L, -settleMs * 1000);
+        return token.isEmpty() ? 0L : token.get(0);
+    }
+
+    // Find changes up to a token that a newer change of the same product supersedes
+    public List<Long> findSupersededIds(long upToToken, int limit) {
+        return jdbcTemplate.queryForList(SUPERSEDED, Long.class, upToToken, limit);
+    }
+
+    // Delete changes by ID
+    public int deleteByIds(Collection<Long> ids) {
+        return ids.isEmpty() ? 0 : namedJdbcTemplate.update(DELETE_BY_IDS, Map.of("ids", ids));
+    }
+
+    /**
+     * One change log row
+     */
+    public record Change(long token, long productId, String changeType) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.hitarth.odoo.repository;
+
+import com.hitarth.odoo.dto.ProductRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts validated product rows as one JDBC batch, for bulk imports.
+ * With MySQL the batch becomes multi-row INSERTs when the URL sets rewriteBatchedStatements=true.
+ */
+@Repository
+public class ProductImportRepository {
+
+    private static final String INSERT = "INSERT INTO products (title, description, category, price, quantity, "
+            + "condition_type, brand, model, year_manufactured, dimensions, weight, material, color, "
+            + "original_packaging, manual_included, working_condition, image_url, is_active, is_sold, "
+            + "created_at, updated_at, seller_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE, FALSE, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ProductImportRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Insert active listings for a seller, joining the caller's transaction
+     * @return the generated product IDs, in row order
+     */
+    public List<Long> insertAll(Long sellerId, List<ProductRequest> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ProductRequest row = rows.get(i);
+                        ps.setString(1, row.getTitle().trim());
+                        ps.setString(2, row.getDescription() != null ? row.getDescription().trim() : null);
+                        ps.setString(3, row.getCategory());
+                        ps.setBigDecimal(4, row.getPrice());
+                        ps.setInt(5, row.getQuantity());
+                        ps.setString(6, row.getConditionType());
+                        ps.setString(7, row.getBrand());
+                        ps.setString(8, row.getModel());
+                        ps.setObject(9, row.getYearManufactured(), Types.INTEGER);
+                        ps.setString(10, row.getDimensions());
+                        ps.setBigDecimal(11, row.getWeight());
+                        ps.setString(12, row.getMaterial());
+                        ps.setString(13, row.getColor());
+                        ps.setObject(14, row.getOriginalPackaging(), Types.BOOLEAN);
+                        ps.setObject(15, row.getManualIncluded(), Types.BOOLEAN);
+                        ps.setString(16, row.getWorkingCondition());
+                        ps.setString(17, row.getImageUrl());
+                        ps.setTimestamp(18, now);
+                        ps.setTimestamp(19, now);
+                        ps.setLong(20, sellerId);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keyHolder);
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            // Key column label differs by driver (ID, GENERATED_KEY, ...)
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+}
@@ -1,20 +1,33 @@
 package com.hitarth.odoo.repository;
 
+import com.hitarth.odoo.dto.ProductResponse;
 import com.hitarth.odoo.model.Product;
 import com.hitarth.odoo.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     
+    // Listing rows projected straight into the response DTO, with the seller joined instead of loaded per product
+    String LISTING_SELECT = "SELECT new com.hitarth.odoo.dto.ProductResponse("
+            + "p.id, p.title, p.description, p.category, p.price, p.quantity, p.conditionType, p.brand, p.model, "
+            + "p.yearManufactured, p.dimensions, p.weight, p.material, p.color, p.originalPackaging, p.manualIncluded, "
+            + "p.workingCondition, p.imageUrl, p.isActive, p.isSold, p.createdAt, p.updatedAt, "
+            + "s.id, s.displayName, s.email, s.profileImageUrl) "
+            + "FROM Product p JOIN p.seller s ";
+    
     // Find all active products
     List<Product> findByIsActiveTrueAndIsSoldFalseOrderByCreatedAtDesc();
     
@@ -47,6 +60,51 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Count active products by seller
     long countBySellerAndIsActiveTrue(User seller);
     
+    // Active listings as DTOs
+    @Query(LISTING_SELECT + "WHERE p.isActive = true AND p.isSold = false ORDER BY p.createdAt DESC")
+    List<ProductResponse> findActiveListings();
+    
+    // Active listings in a category as DTOs
+    @Query(LISTING_SELECT + "WHERE p.category = :category AND p.isActive = true AND p.isSold = false ORDER BY p.createdAt DESC")
+    List<ProductResponse> findActiveListingsByCategory(@Param("category") String category);
+    
+    // Keyword search (title or brand) over active listings as DTOs
+    @Query(LISTING_SELECT + "WHERE (p.title LIKE %:keyword% OR p.brand LIKE %:keyword%) "
+            + "AND p.isActive = true AND p.isSold = false ORDER BY p.createdAt DESC")
+    List<ProductResponse> searchActiveListings(@Param("keyword") String keyword);
+    
+    // Keyword search (title or brand) over active listings in a category as DTOs
+    @Query(LISTING_SELECT + "WHERE (p.title LIKE %:keyword% OR p.brand LIKE %:keyword%) "
+            + "AND p.category = :category AND p.isActive = true AND p.isSold = false ORDER BY p.createdAt DESC")
+    List<ProductResponse> searchActiveListingsByCategory(@Param("keyword") String keyword, @Param("category") String category);
+    
+    // All listings of a seller (including inactive) as DTOs
+    @Query(LISTING_SELECT + "WHERE s.id = :sellerId ORDER BY p.createdAt DESC")
+    List<ProductResponse> findListingsBySellerId(@Param("sellerId") Long sellerId);
+    
+    // Image column of a single product, for the image endpoint the listing cards link to
+    @Query("SELECT p.imageUrl FROM Product p WHERE p.id = :id")
+    Optional<String> findImageUrlById(@Param("id") Long id);
+    
+    // Change price and/or quantity of a seller's product without loading it, null keeps the current value
+    @Modifying
+    @Query("UPDATE Product p SET p.price = COALESCE(:price, p.price), p.quantity = COALESCE(:quantity, p.quantity), "
+            + "p.updatedAt = :updatedAt WHERE p.id = :id AND p.seller.id = :sellerId")
+    int updatePriceAndQuantity(@Param("id") Long id, @Param("sellerId") Long sellerId, @Param("price") BigDecimal price,
+                               @Param("quantity") Integer quantity, @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Take purchased units from a listed product's stock, marking it sold when none are left; 0 if not enough is listed.
+    // is_sold is assigned first: MySQL evaluates SET left to right with the already updated values
+    @Modifying
+    @Query("UPDATE Product p SET p.isSold = CASE WHEN p.quantity <= :quantity THEN true ELSE false END, "
+            + "p.quantity = p.quantity - :quantity, p.updatedAt = :updatedAt "
+            + "WHERE p.id = :id AND p.isActive = true AND p.isSold = false AND p.quantity >= :quantity")
+    int takeStock(@Param("id") Long id, @Param("quantity") Integer quantity, @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Find the seller of each product: product ID, seller ID, display name and e-mail, for sale notifications
+    @Query("SELECT p.id, s.id, s.displayName, s.email FROM Product p JOIN p.seller s WHERE p.id IN :ids")
+    List<Object[]> findSellerContactsByIds(@Param("ids") Collection<Long> ids);
+    
     // Find products with pagination
     Page<Product> findByIsActiveTrueAndIsSoldFalseOrderByCreatedAtDesc(Pageable pageable);
     
@@ -2,6 +2,8 @@ package com.hitarth.odoo.repository;
 
 import com.hitarth.odoo.model.PurchaseItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,7 +11,8 @@ import java.util.List;
 @Repository
 public interface PurchaseItemRepository extends JpaRepository<PurchaseItem, Long> {
     
-    // Find all items for a purchase
-    List<PurchaseItem> findByPurchaseId(Long purchaseId);
+    // Find all items for a purchase (filters on the purchase_id column, the derived query joins purchases first)
+    @Query("SELECT pi FROM PurchaseItem pi WHERE pi.purchase.id = :purchaseId")
+    List<PurchaseItem> findByPurchaseId(@Param("purchaseId") Long purchaseId);
 }
 
@@ -18,5 +18,16 @@ public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
     // Find purchases with items
     @Query("SELECT p FROM Purchase p LEFT JOIN FETCH p.items WHERE p.user = :user ORDER BY p.purchaseDate DESC")
     List<Purchase> findByUserWithItems(@Param("user") User user);
+    
+    /**
+     * Purchase history as flat rows, one per item (null item columns for a purchase without items)
+     * @return rows of [purchaseId, totalAmount, purchaseDate, status, itemId, productId, productTitle,
+     *         productDescription, productCategory, productImageUrl, quantity, priceAtPurchase], newest purchase first
+     */
+    @Query("SELECT p.id, p.totalAmount, p.purchaseDate, p.status, pi.id, pr.id, pr.title, pr.description, "
+            + "pr.category, pr.imageUrl, pi.quantity, pi.priceAtPurchase "
+            + "FROM Purchase p LEFT JOIN p.items pi LEFT JOIN pi.product pr "
+            + "WHERE p.user.id = :userId ORDER BY p.purchaseDate DESC, p.id DESC, pi.id")
+    List<Object[]> findHistoryRowsByUserId(@Param("userId") Long userId);
 }
 
@@ -0,0 +1,98 @@
+package com.hitarth.odoo.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the recommender's inputs: features of listed products and the purchase and cart history of users.
+ * Everything is read in primary key pages, at startup and when products change, never per recommendation.
+ */
+@Repository
+public class RecommendationRepository {
+
+    private static final String FEATURE_COLUMNS = "SELECT p.id, p.seller_id, p.category, p.brand, p.price, "
+            + "p.created_at FROM products p ";
+
+    private static final String LISTED_PAGE = FEATURE_COLUMNS
+            + "WHERE p.id > ? AND p.is_active = TRUE AND p.is_sold = FALSE ORDER BY p.id LIMIT ?";
+
+    private static final String LISTED_BY_IDS = FEATURE_COLUMNS
+            + "WHERE p.id IN (:ids) AND p.is_active = TRUE AND p.is_sold = FALSE";
+
+    private static final String PURCHASE_PAGE = "SELECT pi.id, pu.user_id, pi.product_id, p.category, p.brand, "
+            + "pi.price_at_purchase, pi.quantity FROM purchase_items pi "
+            + "JOIN purchases pu ON pu.id = pi.purchase_id JOIN products p ON p.id = pi.product_id "
+            + "WHERE pi.id > ? ORDER BY pi.id LIMIT ?";
+
+    private static final String CART_PAGE = "SELECT ci.id, ci.user_id, ci.product_id, p.category, p.brand, "
+            + "p.price, ci.quantity FROM cart_items ci JOIN products p ON p.id = ci.product_id "
+            + "WHERE ci.id > ? ORDER BY ci.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    public RecommendationRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(this.jdbcTemplate);
+    }
+
+    // Find a page of listed products' features after a product ID
+    public List<Features> findListedPage(long afterId, int limit) {
+        return jdbcTemplate.query(LISTED_PAGE, (rs, rowNum) -> toFeatures(rs), afterId, limit);
+    }
+
+    // Find the features of those products that are listed
+    public List<Features> findListedByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return namedJdbcTemplate.query(LISTED_BY_IDS, Map.of("ids", ids), (rs, rowNum) -> toFeatures(rs));
+    }
+
+    // Find a page of purchased items after a purchase item ID
+    public List<Interaction> findPurchasePage(long afterId, int limit) {
+        return jdbcTemplate.query(PURCHASE_PAGE, (rs, rowNum) -> toInteraction(rs), afterId, limit);
+    }
+
+    // Find a page of cart lines after a cart item ID
+    public List<Interaction> findCartPage(long afterId, int limit) {
+        return jdbcTemplate.query(CART_PAGE, (rs, rowNum) -> toInteraction(rs), afterId, limit);
+    }
+
+    private static Features toFeatures(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp(6);
+        return new Features(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4), rs.getBigDecimal(5),
+                createdAt != null ? createdAt.getTime() : 0L);
+    }
+
+    private static Interaction toInteraction(ResultSet rs) throws SQLException {
+        return new Interaction(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getString(4), rs.getString(5),
+                rs.getBigDecimal(6), rs.getInt(7));
+    }
+
+    /**
+     * What the recommender knows about a listed product
+     */
+    public record Features(long id, long sellerId, String category, String brand, BigDecimal price,
+                           long createdAtMillis) {
+    }
+
+    /**
+     * A user bought or put in the cart some units of a product; id is the row's key, for paging
+     */
+    public record Interaction(long id, long userId, long productId, String category, String brand, BigDecimal price,
+                              int quantity) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.hitarth.odoo.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Durable copy of the cart reservations held in memory by the reservation service.
+ */
+@Repository
+public class StockReservationRepository {
+
+    private static final String UPSERT = "INSERT INTO stock_reservations (product_id, user_id, quantity, expires_at) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), expires_at = VALUES(expires_at)";
+
+    private static final String DELETE = "DELETE FROM stock_reservations WHERE product_id = ? AND user_id = ?";
+
+    private static final String DELETE_BY_USER = "DELETE FROM stock_reservations WHERE user_id = ?";
+
+    private static final String DELETE_EXPIRED = "DELETE FROM stock_reservations "
+            + "WHERE product_id = ? AND user_id = ? AND expires_at <= ?";
+
+    private static final String DELETE_ALL_EXPIRED = "DELETE FROM stock_reservations WHERE expires_at <= ?";
+
+    private static final String ACTIVE = "SELECT r.product_id, r.user_id, r.quantity, r.expires_at "
+            + "FROM stock_reservations r WHERE r.expires_at > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public StockReservationRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // Create or replace a user's reservation of a product, joining the caller's transaction
+    public void upsert(Long productId, Long userId, int quantity, LocalDateTime expiresAt) {
+        jdbcTemplate.update(UPSERT, productId, userId, quantity, Timestamp.valueOf(expiresAt));
+    }
+
+    // Delete a user's reservation of a product
+    public int delete(Long productId, Long userId) {
+        return jdbcTemplate.update(DELETE, productId, userId);
+    }
+
+    // Delete all reservations of a user
+    public int deleteByUser(Long userId) {
+        return jdbcTemplate.update(DELETE_BY_USER, userId);
+    }
+
+    // Delete reservations that expired, unless they were renewed since: {product ID, user ID} pairs
+    public void deleteExpired(Collection<long[]> keys, LocalDateTime now) {
+        Timestamp at = Timestamp.valueOf(now);
+        List<Object[]> rows = new ArrayList<>(keys.size());
+        for (long[] key : keys) {
+            rows.add(new Object[] {key[0], key[1], at});
+        }
+        jdbcTemplate.batchUpdate(DELETE_EXPIRED, rows);
+    }
+
+    // Delete every expired reservation
+    public int deleteAllExpired(LocalDateTime now) {
+        return jdbcTemplate.update(DELETE_ALL_EXPIRED, Timestamp.valueOf(now));
+    }
+
+    // Find the reservations that have not expired yet
+    public List<Reservation> findActive(LocalDateTime now) {
+        return jdbcTemplate.query(ACTIVE, (rs, rowNum) -> new Reservation(rs.getLong(1), rs.getLong(2), rs.getInt(3),
+                rs.getTimestamp(4).toLocalDateTime()), Timestamp.valueOf(now));
+    }
+
+    /**
+     * One reservation row
+     */
+    public record Reservation(long productId, long userId, int quantity, LocalDateTime expiresAt) {
+    }
+}
@@ -1,11 +1,14 @@
 package com.hitarth.odoo.repository;
 
 import com.hitarth.odoo.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Repository
@@ -19,12 +22,29 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     
     /**
-     * Find user by email or display name (for login flexibility)
-     * @param emailOrUsername the email or username to search for
+     * Find user by display name
+     * @param displayName the display name to search for
      * @return Optional containing the user if found
      */
-    @Query("SELECT u FROM User u WHERE u.email = :emailOrUsername OR u.displayName = :emailOrUsername")
-    Optional<User> findByEmailOrDisplayName(@Param("emailOrUsername") String emailOrUsername);
+    Optional<User> findByDisplayName(String displayName);
+    
+    /**
+     * Find user by login identifier (email or display name)
+     * Picks a single indexed point lookup from the shape of the input instead of an OR query.
+     * Emails are case-folded to match how registration stores them.
+     * @param identifier the email or display name to search for
+     * @return Optional containing the user if found
+     */
+    default Optional<User> findByLoginIdentifier(String identifier) {
+        String trimmed = identifier.trim();
+        if (trimmed.indexOf('@') < 0) {
+            return findByDisplayName(trimmed);
+        }
+        
+        Optional<User> user = findByEmail(trimmed.toLowerCase(Locale.ROOT));
+        // Display names may contain '@' as well
+        return user.isPresent() ? user : findByDisplayName(trimmed);
+    }
     
     /**
      * Check if email already exists
@@ -47,9 +67,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT u FROM User u WHERE u.email = :email AND u.isActive = true")
     Optional<User> findActiveUserByEmail(@Param("email") String email);
+    
+    /**
+     * Find id, email and display name of users after the given id (keyset paging)
+     * @param afterId the last id of the previous page
+     * @param pageable the page size
+     * @return rows of [id, email, displayName] ordered by id
+     */
+    @Query("SELECT u.id, u.email, u.displayName FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Object[]> findIdentitiesAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
-
-
-
-
-
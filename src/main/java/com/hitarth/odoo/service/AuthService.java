@@ -4,20 +4,32 @@ import com.hitarth.odoo.dto.AuthResponse;
 import com.hitarth.odoo.dto.LoginRequest;
 import com.hitarth.odoo.dto.RegisterRequest;
 import com.hitarth.odoo.model.User;
+import com.hitarth.odoo.monitoring.LoginVerifyEvent;
 import com.hitarth.odoo.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 public class AuthService {
     
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+    
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserAvailabilityService userAvailabilityService;
+    
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     
     /**
@@ -27,32 +39,29 @@ public class AuthService {
      */
     public AuthResponse register(RegisterRequest request) {
         try {
-            System.out.println("Registration attempt for: " + request.getEmail());
-            System.out.println("Display name: " + request.getDisplayName());
-            
-            // Check if email already exists
-            if (userRepository.existsByEmail(request.getEmail())) {
-                System.out.println("Email already exists: " + request.getEmail());
-                return AuthResponse.error("Email already exists. Please use a different email.");
-            }
-            
-            // Check if display name already exists
-            if (userRepository.existsByDisplayName(request.getDisplayName())) {
-                System.out.println("Display name already exists: " + request.getDisplayName());
-                return AuthResponse.error("Display name already exists. Please choose a different name.");
-            }
+            log.debug("Registration attempt for {} ({})", request.getEmail(), request.getDisplayName());
             
             // Create new user
             User user = new User();
             user.setDisplayName(request.getDisplayName().trim());
-            user.setEmail(request.getEmail().toLowerCase().trim());
+            user.setEmail(UserAvailabilityService.normalizeEmail(request.getEmail()));
             user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
             user.setProfileImageUrl(request.getProfileImageUrl());
             
-            System.out.println("Saving user to database...");
-            // Save user to database
-            User savedUser = userRepository.save(user);
-            System.out.println("User saved with ID: " + savedUser.getId());
+            // Save user to database, the unique constraints reject duplicate emails and display names
+            User savedUser;
+            try {
+                savedUser = userRepository.saveAndFlush(user);
+            } catch (DataIntegrityViolationException e) {
+                String conflict = userAvailabilityService.conflictMessage(e);
+                if (conflict == null) {
+                    throw e;
+                }
+                log.debug("Registration conflict for {}: {}", request.getEmail(), conflict);
+                return AuthResponse.error(conflict);
+            }
+            log.info("User registered with ID {}", savedUser.getId());
+            userAvailabilityService.recordUser(savedUser);
             
             // Create user info for response
             AuthResponse.UserInfo userInfo = new AuthResponse.UserInfo(
@@ -65,8 +74,7 @@ public class AuthService {
             return AuthResponse.success("Account created successfully!", null, userInfo);
             
         } catch (Exception e) {
-            System.err.println("Registration error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Registration error", e);
             return AuthResponse.error("Registration failed: " + e.getMessage());
         }
     }
@@ -78,35 +86,33 @@ public class AuthService {
      */
     public AuthResponse login(LoginRequest request) {
         try {
-            System.out.println("Login attempt for: " + request.getEmail());
+            log.debug("Login attempt for {}", request.getEmail());
             
             // Find user by email or display name
-            Optional<User> userOptional = userRepository.findByEmailOrDisplayName(request.getEmail());
+            Optional<User> userOptional = userRepository.findByLoginIdentifier(request.getEmail());
             
             if (userOptional.isEmpty()) {
-                System.out.println("User not found: " + request.getEmail());
+                log.debug("Login failed, no user for {}", request.getEmail());
                 return AuthResponse.error("Invalid email/username or password.");
             }
             
             User user = userOptional.get();
-            System.out.println("User found: " + user.getEmail() + ", Active: " + user.getIsActive());
             
             // Check if user is active
             if (!user.getIsActive()) {
-                System.out.println("User account is inactive");
+                log.debug("Login rejected, user {} is inactive", user.getId());
                 return AuthResponse.error("Account is deactivated. Please contact support.");
             }
             
             // Verify password
-            System.out.println("Checking password for user: " + user.getEmail());
-            System.out.println("Stored hash: " + user.getPasswordHash());
-            System.out.println("Input password: " + request.getPassword());
-            
+            LoginVerifyEvent verifyEvent = new LoginVerifyEvent();
+            verifyEvent.begin();
             boolean passwordMatches = passwordEncoder.matches(request.getPassword(), user.getPasswordHash());
-            System.out.println("Password matches: " + passwordMatches);
+            verifyEvent.matched = passwordMatches;
+            verifyEvent.commit();
             
             if (!passwordMatches) {
-                System.out.println("Password verification failed");
+                log.debug("Login failed, wrong password for user {}", user.getId());
                 return AuthResponse.error("Invalid email/username or password.");
             }
             
@@ -124,6 +130,7 @@ public class AuthService {
             return AuthResponse.success("Login successful!", sessionToken, userInfo);
             
         } catch (Exception e) {
+            log.error("Login error", e);
             return AuthResponse.error("Login failed. Please try again.");
         }
     }
@@ -147,6 +154,7 @@ public class AuthService {
      * @param userId the user ID
      * @return AuthResponse with user info
      */
+    @Transactional(readOnly = true)
     public AuthResponse getUserById(Long userId) {
         try {
             Optional<User> userOptional = userRepository.findById(userId);
@@ -168,8 +176,7 @@ public class AuthService {
             return AuthResponse.success("User retrieved successfully", null, userInfo);
             
         } catch (Exception e) {
-            System.err.println("Get user error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Get user error", e);
             return AuthResponse.error("Failed to retrieve user: " + e.getMessage());
         }
     }
@@ -4,18 +4,27 @@ import com.hitarth.odoo.dto.CartItemResponse;
 import com.hitarth.odoo.model.CartItem;
 import com.hitarth.odoo.model.Product;
 import com.hitarth.odoo.model.User;
+import com.hitarth.odoo.monitoring.CartMutationEvent;
+import com.hitarth.odoo.monitoring.MarketplaceMetrics;
+import com.hitarth.odoo.outbox.OutboxEvent;
+import com.hitarth.odoo.outbox.OutboxService;
 import com.hitarth.odoo.repository.CartItemRepository;
 import com.hitarth.odoo.repository.ProductRepository;
 import com.hitarth.odoo.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+
+import static com.hitarth.odoo.util.TransactionCallbacks.afterCommit;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 @Transactional
 public class CartService {
 
@@ -28,88 +37,154 @@ public class CartService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private MarketplaceMetrics marketplaceMetrics;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private TrendingService trendingService;
+
     // Add item to cart
     public CartItemResponse addToCart(Long userId, Long productId, Integer quantity) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        CartMutationEvent event = new CartMutationEvent();
+        event.begin();
+        event.operation = "add";
+        event.quantity = quantity;
+        try {
+            if (quantity == null || quantity <= 0) {
+                throw new RuntimeException("Quantity must be at least 1");
+            }
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
         
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        // Check if item already exists in cart
-        Optional<CartItem> existingItem = cartItemRepository.findByUserAndProduct(user, product);
+            // Check if item already exists in cart
+            Optional<CartItem> existingItem = cartItemRepository.findByUserAndProduct(user, product);
         
-        if (existingItem.isPresent()) {
-            // Update quantity
-            CartItem cartItem = existingItem.get();
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-            cartItemRepository.save(cartItem);
-            return convertToResponse(cartItem);
-        } else {
-            // Create new cart item
-            CartItem cartItem = new CartItem(user, product, quantity);
+            // Hold the units for this cart, fails while other carts hold them
+            int cartQuantity = existingItem.map(CartItem::getQuantity).orElse(0) + quantity;
+            reservationService.reserve(userId, product, cartQuantity);
+            // Feeds the user's recommendation profile
+            Map<String, Object> added = new LinkedHashMap<>();
+            added.put("productId", product.getId());
+            added.put("category", product.getCategory());
+            added.put("brand", product.getBrand());
+            added.put("quantity", quantity);
+            added.put("price", product.getPrice());
+            outboxService.record(OutboxEvent.USER, userId, "cart-added", added);
+        
+            CartItem cartItem;
+            if (existingItem.isPresent()) {
+                // Update quantity
+                cartItem = existingItem.get();
+                cartItem.setQuantity(cartQuantity);
+            } else {
+                // Create new cart item
+                cartItem = new CartItem(user, product, quantity);
+            }
             cartItemRepository.save(cartItem);
+            // Counted once committed, an addition that fails at flush or commit (e.g. a concurrent add of the
+            // same product by the same user) is not
+            afterCommit(() -> {
+                marketplaceMetrics.cartItemAdded();
+                trendingService.addedToCart(productId);
+            });
             return convertToResponse(cartItem);
+        } finally {
+            event.commit();
         }
     }
 
     // Get user's cart items
+    @Transactional(readOnly = true)
     public List<CartItemResponse> getCartItems(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
         
-        List<CartItem> cartItems = cartItemRepository.findByUserWithProduct(user);
-        return cartItems.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return cartItemRepository.findResponsesByUserId(userId);
     }
 
     // Update cart item quantity
     public CartItemResponse updateCartItemQuantity(Long userId, Long cartItemId, Integer quantity) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        CartMutationEvent event = new CartMutationEvent();
+        event.begin();
+        event.operation = "update";
+        event.quantity = quantity;
+        try {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
         
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new RuntimeException("Cart item not found"));
+            CartItem cartItem = cartItemRepository.findById(cartItemId)
+                    .orElseThrow(() -> new RuntimeException("Cart item not found"));
         
-        if (!cartItem.getUser().getId().equals(userId)) {
-            throw new RuntimeException("Unauthorized access to cart item");
-        }
+            if (!cartItem.getUser().getId().equals(userId)) {
+                throw new RuntimeException("Unauthorized access to cart item");
+            }
         
-        if (quantity <= 0) {
-            cartItemRepository.delete(cartItem);
-            return null;
-        }
+            if (quantity <= 0) {
+                cartItemRepository.delete(cartItem);
+                reservationService.release(userId, cartItem.getProduct().getId());
+                return null;
+            }
         
-        cartItem.setQuantity(quantity);
-        cartItemRepository.save(cartItem);
-        return convertToResponse(cartItem);
+            reservationService.reserve(userId, cartItem.getProduct(), quantity);
+            cartItem.setQuantity(quantity);
+            cartItemRepository.save(cartItem);
+            return convertToResponse(cartItem);
+        } finally {
+            event.commit();
+        }
     }
 
     // Remove item from cart
     public void removeFromCart(Long userId, Long cartItemId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        CartMutationEvent event = new CartMutationEvent();
+        event.begin();
+        event.operation = "remove";
+        try {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
         
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new RuntimeException("Cart item not found"));
+            CartItem cartItem = cartItemRepository.findById(cartItemId)
+                    .orElseThrow(() -> new RuntimeException("Cart item not found"));
         
-        if (!cartItem.getUser().getId().equals(userId)) {
-            throw new RuntimeException("Unauthorized access to cart item");
-        }
+            if (!cartItem.getUser().getId().equals(userId)) {
+                throw new RuntimeException("Unauthorized access to cart item");
+            }
         
-        cartItemRepository.delete(cartItem);
+            cartItemRepository.delete(cartItem);
+            reservationService.release(userId, cartItem.getProduct().getId());
+        } finally {
+            event.commit();
+        }
     }
 
     // Clear user's cart
     public void clearCart(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        CartMutationEvent event = new CartMutationEvent();
+        event.begin();
+        event.operation = "clear";
+        try {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
         
-        cartItemRepository.deleteByUser(user);
+            cartItemRepository.deleteByUser(user);
+            reservationService.releaseAll(userId);
+        } finally {
+            event.commit();
+        }
     }
 
     // Get cart item count
+    @Transactional(readOnly = true)
     public long getCartItemCount(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -117,8 +192,8 @@ public class CartService {
         return cartItemRepository.countByUser(user);
     }
 
-    // Convert CartItem to CartItemResponse
-    private CartItemResponse convertToResponse(CartItem cartItem) {
+    // Convert CartItem to CartItemResponse (package-private for the perf benchmarks)
+    CartItemResponse convertToResponse(CartItem cartItem) {
         Product product = cartItem.getProduct();
         return new CartItemResponse(
                 cartItem.getId(),
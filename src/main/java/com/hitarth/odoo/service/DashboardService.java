@@ -3,22 +3,37 @@ package com.hitarth.odoo.service;
 import com.hitarth.odoo.dto.AuthResponse;
 import com.hitarth.odoo.model.User;
 import com.hitarth.odoo.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 public class DashboardService {
     
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+    
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserAvailabilityService userAvailabilityService;
+    
+    @Autowired
+    private ProductCardStore productCardStore;
+    
     /**
      * Get user profile by ID
      * @param userId the user ID
      * @return AuthResponse with user info
      */
+    @Transactional(readOnly = true)
     public AuthResponse getUserProfile(Long userId) {
         try {
             Optional<User> userOptional = userRepository.findById(userId);
@@ -40,8 +55,7 @@ public class DashboardService {
             return AuthResponse.success("Profile retrieved successfully", null, userInfo);
             
         } catch (Exception e) {
-            System.err.println("Get profile error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Get profile error", e);
             return AuthResponse.error("Failed to retrieve profile: " + e.getMessage());
         }
     }
@@ -56,47 +70,40 @@ public class DashboardService {
      */
     public AuthResponse updateUserProfile(Long userId, String displayName, String email, String profileImageUrl) {
         try {
-            System.out.println("Update profile request - userId: " + userId + ", displayName: " + displayName + ", email: " + email);
+            log.debug("Update profile request for user {}", userId);
             
             Optional<User> userOptional = userRepository.findById(userId);
             
             if (userOptional.isEmpty()) {
-                System.out.println("User not found with ID: " + userId);
+                log.debug("Profile update failed, no user with ID {}", userId);
                 return AuthResponse.error("User not found");
             }
             
             User user = userOptional.get();
-            System.out.println("Found user: " + user.getEmail() + ", current displayName: " + user.getDisplayName());
             
-            // Check if email is being changed and if it already exists
-            if (!user.getEmail().equals(email)) {
-                System.out.println("Email is being changed from " + user.getEmail() + " to " + email);
-                if (userRepository.existsByEmail(email)) {
-                    System.out.println("Email already exists: " + email);
-                    return AuthResponse.error("Email already exists. Please use a different email.");
-                }
-            }
-            
-            // Check if display name is being changed and if it already exists
-            if (!user.getDisplayName().equals(displayName)) {
-                System.out.println("Display name is being changed from " + user.getDisplayName() + " to " + displayName);
-                if (userRepository.existsByDisplayName(displayName)) {
-                    System.out.println("Display name already exists: " + displayName);
-                    return AuthResponse.error("Display name already exists. Please choose a different name.");
-                }
-            }
-            
-            // Update user fields
-            user.setDisplayName(displayName);
-            user.setEmail(email);
+            // Update user fields, the unique constraints reject emails and display names already in use
+            user.setDisplayName(displayName.trim());
+            user.setEmail(UserAvailabilityService.normalizeEmail(email));
             if (profileImageUrl != null && !profileImageUrl.trim().isEmpty()) {
                 user.setProfileImageUrl(profileImageUrl);
             }
             
-            System.out.println("Saving updated user...");
             // Save updated user
-            User updatedUser = userRepository.save(user);
-            System.out.println("User saved successfully with ID: " + updatedUser.getId());
+            User updatedUser;
+            try {
+                updatedUser = userRepository.saveAndFlush(user);
+            } catch (DataIntegrityViolationException e) {
+                String conflict = userAvailabilityService.conflictMessage(e);
+                if (conflict == null) {
+                    throw e;
+                }
+                log.debug("Profile update conflict for user {}: {}", userId, conflict);
+                return AuthResponse.error(conflict);
+            }
+            log.debug("Profile updated for user {}", updatedUser.getId());
+            userAvailabilityService.recordUser(updatedUser);
+            // Listing cards show the seller's display name
+            productCardStore.refreshSellerAfterCommit(updatedUser.getId());
             
             // Create user info for response
             AuthResponse.UserInfo userInfo = new AuthResponse.UserInfo(
@@ -106,12 +113,10 @@ public class DashboardService {
                 updatedUser.getProfileImageUrl()
             );
             
-            System.out.println("Returning success response");
             return AuthResponse.success("Profile updated successfully", null, userInfo);
 
         } catch (Exception e) {
-            System.err.println("Update profile error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Update profile error", e);
             return AuthResponse.error("Failed to update profile: " + e.getMessage());
         }
     }
@@ -0,0 +1,183 @@
+package com.hitarth.odoo.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.hitarth.odoo.repository.ExportRepository;
+import com.hitarth.odoo.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CSV and NDJSON exports of a seller's listings and a buyer's purchase history.
+ * Rows are read in keyset pages, each page in its own short read-only transaction, and written out
+ * and flushed before the next page is read, so memory and transaction time do not grow with the export.
+ * Seller-written text is opened in spreadsheets, so CSV cells that would start a formula are quoted.
+ */
+@Service
+public class ExportService {
+
+    /**
+     * Export file formats, with their media type and file extension
+     */
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format of(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + name);
+            }
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final CsvMapper CSV = new CsvMapper();
+    private static final JsonFactory JSON = new JsonFactory();
+
+    @Autowired
+    private ExportRepository exportRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final TransactionTemplate pageTransaction;
+    private final int pageSize;
+
+    public ExportService(PlatformTransactionManager transactionManager,
+                         @Value("${app.exports.page-size:1000}") int pageSize) {
+        this.pageTransaction = new TransactionTemplate(transactionManager);
+        this.pageTransaction.setReadOnly(true);
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Check the user exists, before the response is committed
+     */
+    public void checkUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+    }
+
+    // Write every product of a seller, including inactive and sold ones, in listing order
+    public void exportSellerListings(Long sellerId, Format format, OutputStream out) throws IOException {
+        export(ExportRepository.LISTING_COLUMNS, format, out,
+                after -> exportRepository.findListingPage(sellerId, after, pageSize));
+    }
+
+    // Write one row per purchased item, with the purchase it belongs to, oldest purchase first
+    public void exportPurchaseHistory(Long userId, Format format, OutputStream out) throws IOException {
+        export(ExportRepository.PURCHASE_COLUMNS, format, out,
+                after -> exportRepository.findPurchasePage(userId, after, pageSize));
+    }
+
+    private void export(List<String> columns, Format format, OutputStream out, PageQuery query) throws IOException {
+        try (JsonGenerator generator = createGenerator(columns, format, out)) {
+            Object[] last = null;
+            while (true) {
+                Object[] after = last;
+                List<Object[]> page = pageTransaction.execute(status -> query.next(after));
+                if (page == null || page.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : page) {
+                    writeRow(generator, columns, row, format);
+                }
+                // Each page reaches the client before the next one is read
+                generator.flush();
+                if (page.size() < pageSize) {
+                    break;
+                }
+                last = page.get(page.size() - 1);
+            }
+        }
+    }
+
+    private static JsonGenerator createGenerator(List<String> columns, Format format, OutputStream out)
+            throws IOException {
+        JsonGenerator generator;
+        if (format == Format.CSV) {
+            CsvSchema.Builder schema = CsvSchema.builder().setUseHeader(true);
+            columns.forEach(schema::addColumn);
+            generator = CSV.getFactory().createGenerator(out);
+            generator.setSchema(schema.build());
+        } else {
+            generator = JSON.createGenerator(out);
+            generator.setRootValueSeparator(null);
+        }
+        // The caller owns the response stream
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private static void writeRow(JsonGenerator generator, List<String> columns, Object[] row, Format format)
+            throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < row.length; i++) {
+            generator.writeFieldName(columns.get(i));
+            Object value = row[i];
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof BigDecimal decimal) {
+                generator.writeNumber(decimal);
+            } else if (value instanceof Long number) {
+                generator.writeNumber(number);
+            } else if (value instanceof Integer number) {
+                generator.writeNumber(number);
+            } else if (value instanceof Boolean flag) {
+                generator.writeBoolean(flag);
+            } else if (value instanceof LocalDateTime dateTime) {
+                generator.writeString(dateTime.toString());
+            } else if (format == Format.CSV) {
+                generator.writeString(neutralizeFormula(value.toString()));
+            } else {
+                generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+        if (format == Format.NDJSON) {
+            generator.writeRaw('\n');
+        }
+    }
+
+    // Spreadsheets run a cell starting with one of these as a formula, the quote makes it plain text
+    private static String neutralizeFormula(String text) {
+        if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            return "'" + text;
+        }
+        return text;
+    }
+
+    private interface PageQuery {
+        List<Object[]> next(Object[] after);
+    }
+}
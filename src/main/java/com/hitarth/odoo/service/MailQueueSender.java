@@ -0,0 +1,219 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.repository.MailQueueRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the queued mails in the background. Each batch goes out over one SMTP connection; mails the server
+ * refused (or the whole batch, when it cannot be reached) are retried with exponential backoff and marked DEAD
+ * after the last attempt. Dead mails can be listed and queued again via /api/admin/mail.
+ * Sending runs on its own thread: a slow or unreachable mail server blocks it for the SMTP timeouts,
+ * which must not hold up the jobs on the shared scheduler.
+ */
+@Service
+public class MailQueueSender {
+
+    private static final Logger log = LoggerFactory.getLogger(MailQueueSender.class);
+
+    @Autowired
+    private MailQueueRepository mailQueueRepository;
+
+    private final JavaMailSender mailSender;
+    private final ScheduledExecutorService executor;
+    private final String from;
+    private final long sendIntervalMs;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryMinMs;
+    private final long retryMaxMs;
+    private final long retentionHours;
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter dead;
+
+    public MailQueueSender(
+            ObjectProvider<JavaMailSender> mailSender,
+            MeterRegistry registry,
+            @Value("${app.mail.from:no-reply@ecofinds.local}") String from,
+            @Value("${app.mail.send-interval-ms:2000}") long sendIntervalMs,
+            @Value("${app.mail.batch-size:50}") int batchSize,
+            @Value("${app.mail.max-attempts:6}") int maxAttempts,
+            @Value("${app.mail.retry-min-ms:30000}") long retryMinMs,
+            @Value("${app.mail.retry-max-ms:3600000}") long retryMaxMs,
+            @Value("${app.mail.retention-hours:72}") long retentionHours) {
+        this.mailSender = mailSender.getIfAvailable();
+        this.executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("mail-sender-"));
+        this.from = from;
+        this.sendIntervalMs = sendIntervalMs;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryMinMs = retryMinMs;
+        this.retryMaxMs = retryMaxMs;
+        this.retentionHours = retentionHours;
+        this.sent = Counter.builder("app.mail.sent").description("Mails accepted by the SMTP server")
+                .register(registry);
+        this.failed = Counter.builder("app.mail.failed").description("Mail attempts that failed and will be retried")
+                .register(registry);
+        this.dead = Counter.builder("app.mail.dead").description("Mails given up on after the last attempt")
+                .register(registry);
+    }
+
+    /**
+     * Start sending the queued mails at the interval, when a mail server is configured
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (mailSender != null) {
+            executor.scheduleWithFixedDelay(this::sendDue, sendIntervalMs, sendIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // A batch interrupted before it was marked sent is sent again on the next start
+        executor.shutdownNow();
+    }
+
+    /**
+     * Send the due mails, batch after batch until none are left. Serialized: a batch is only marked sent
+     * after the server accepted it, an overlapping run would send it again
+     */
+    public synchronized void sendDue() {
+        if (mailSender == null) {
+            return;
+        }
+        try {
+            List<MailQueueRepository.QueuedMail> batch;
+            do {
+                batch = mailQueueRepository.findDue(LocalDateTime.now(), batchSize);
+                if (!batch.isEmpty()) {
+                    sendBatch(batch);
+                }
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Sending queued mails failed", e);
+        }
+    }
+
+    /**
+     * Mails given up on, oldest first
+     */
+    public List<MailQueueRepository.QueuedMail> getDeadLetters(int limit) {
+        return mailQueueRepository.findDead(limit);
+    }
+
+    /**
+     * Queue every dead mail again with fresh attempts, e.g. once the mail server is fixed
+     */
+    public int requeueDeadLetters() {
+        int requeued = mailQueueRepository.requeueDead(LocalDateTime.now());
+        log.info("Requeued {} dead mails", requeued);
+        return requeued;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        try {
+            mailQueueRepository.deleteSentBefore(LocalDateTime.now().minusHours(retentionHours));
+        } catch (RuntimeException e) {
+            log.warn("Purging sent mails failed", e);
+        }
+    }
+
+    private void sendBatch(List<MailQueueRepository.QueuedMail> batch) {
+        Map<MimeMessage, MailQueueRepository.QueuedMail> queued = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        for (MailQueueRepository.QueuedMail mail : batch) {
+            try {
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+                helper.setFrom(from);
+                helper.setTo(mail.recipient());
+                helper.setSubject(mail.subject());
+                helper.setText(mail.body(), true);
+                queued.put(message, mail);
+                messages.add(message);
+            } catch (MessagingException e) {
+                // Bad address or content, retrying will not help
+                giveUp(mail, e.getMessage());
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        try {
+            // One connection for the whole batch
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+        } catch (MailException e) {
+            Map<Object, Exception> all = new IdentityHashMap<>();
+            messages.forEach(message -> all.put(message, e));
+            failures = all;
+        }
+
+        List<Long> sentIds = new ArrayList<>(messages.size());
+        for (MimeMessage message : messages) {
+            MailQueueRepository.QueuedMail mail = queued.get(message);
+            Exception failure = failures.get(message);
+            if (failure == null) {
+                sentIds.add(mail.id());
+            } else {
+                retryLater(mail, failure.getMessage());
+            }
+        }
+        mailQueueRepository.markSent(sentIds, LocalDateTime.now());
+        sent.increment(sentIds.size());
+    }
+
+    private void retryLater(MailQueueRepository.QueuedMail mail, String error) {
+        int attempts = mail.attempts() + 1;
+        if (attempts >= maxAttempts) {
+            giveUp(mail, error);
+            return;
+        }
+        failed.increment();
+        long delayMs = Math.min(retryMaxMs, retryMinMs << Math.min(attempts - 1, 20));
+        mailQueueRepository.markFailed(mail.id(), MailQueueRepository.PENDING, attempts,
+                LocalDateTime.now().plus(Duration.ofMillis(delayMs)), error);
+    }
+
+    private void giveUp(MailQueueRepository.QueuedMail mail, String error) {
+        dead.increment();
+        // Server errors can quote the recipient's address, it is kept with the dead letter and not logged
+        log.warn("Mail {} ({}) dead after {} attempts", mail.id(), mail.dedupeKey(), mail.attempts() + 1);
+        mailQueueRepository.markFailed(mail.id(), MailQueueRepository.DEAD, mail.attempts() + 1,
+                LocalDateTime.now(), error);
+    }
+}
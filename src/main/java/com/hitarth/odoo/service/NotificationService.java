@@ -0,0 +1,168 @@
+package com.hitarth.odoo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hitarth.odoo.model.User;
+import com.hitarth.odoo.outbox.OutboxEvent;
+import com.hitarth.odoo.outbox.OutboxSubscriber;
+import com.hitarth.odoo.repository.MailQueueRepository;
+import com.hitarth.odoo.repository.ProductRepository;
+import com.hitarth.odoo.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.exceptions.TemplateEngineException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Order confirmation (buyer) and item sold (seller) mails for completed purchases.
+ * Reacts to the purchase outbox events, so checkout only records the event; the mails are rendered from the
+ * templates/mail Thymeleaf templates here and queued for {@link MailQueueSender}.
+ * Nothing is queued unless a mail server is configured (spring.mail.host).
+ */
+@Service
+public class NotificationService implements OutboxSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
+
+    private static final String PURCHASE_COMPLETED = "completed";
+
+    @Autowired
+    private MailQueueRepository mailQueueRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ITemplateEngine templateEngine;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final String appName;
+    private final TransactionTemplate queueTransaction;
+
+    public NotificationService(
+            ObjectProvider<JavaMailSender> mailSender,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.name:EcoFinds}") String appName) {
+        this.enabled = mailSender.getIfAvailable() != null;
+        this.appName = appName;
+        this.queueTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void onEvents(List<OutboxEvent> events) {
+        if (!enabled) {
+            return;
+        }
+        for (OutboxEvent event : events) {
+            if (event.is(OutboxEvent.PURCHASE) && PURCHASE_COMPLETED.equals(event.eventType())) {
+                queuePurchaseMails(event);
+            }
+        }
+    }
+
+    // All mails of a purchase are queued in one transaction: a redelivered event finds them and queues nothing
+    private void queuePurchaseMails(OutboxEvent event) {
+        long purchaseId = event.aggregateId();
+        String buyerKey = "purchase:" + purchaseId + ":buyer";
+        List<MailQueueRepository.NewMail> mails;
+        try {
+            JsonNode payload = objectMapper.readTree(event.payload());
+            mails = queueTransaction.execute(status -> {
+                if (mailQueueRepository.existsByDedupeKey(buyerKey)) {
+                    return List.of();
+                }
+                List<MailQueueRepository.NewMail> rendered = render(purchaseId, buyerKey, payload);
+                mailQueueRepository.insertAll(rendered);
+                return rendered;
+            });
+        } catch (JsonProcessingException | TemplateEngineException | IllegalStateException e) {
+            // A mail that cannot be rendered will not render on redelivery either
+            log.error("Purchase {} mails could not be rendered and were skipped", purchaseId, e);
+            return;
+        }
+        if (mails != null && !mails.isEmpty()) {
+            log.debug("Queued {} mails for purchase {}", mails.size(), purchaseId);
+        }
+    }
+
+    private List<MailQueueRepository.NewMail> render(long purchaseId, String buyerKey, JsonNode payload) {
+        User buyer = userRepository.findById(payload.path("userId").asLong())
+                .orElseThrow(() -> new IllegalStateException("Buyer of purchase " + purchaseId + " not found"));
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (JsonNode item : payload.path("items")) {
+            Map<String, Object> line = new HashMap<>();
+            line.put("productId", item.path("productId").asLong());
+            line.put("title", item.path("title").asText());
+            line.put("quantity", item.path("quantity").asInt());
+            line.put("price", new BigDecimal(item.path("price").asText("0")));
+            items.add(line);
+        }
+
+        List<MailQueueRepository.NewMail> mails = new ArrayList<>();
+        Context buyerContext = context(purchaseId);
+        buyerContext.setVariable("buyerName", buyer.getDisplayName());
+        buyerContext.setVariable("items", items);
+        buyerContext.setVariable("totalAmount", new BigDecimal(payload.path("totalAmount").asText("0")));
+        mails.add(new MailQueueRepository.NewMail(buyerKey, buyer.getEmail(),
+                "Your " + appName + " order #" + purchaseId,
+                templateEngine.process("mail/order-confirmation", buyerContext)));
+
+        // One mail per seller, listing only that seller's items
+        Map<Long, Object[]> sellers = new LinkedHashMap<>();
+        Map<Long, List<Map<String, Object>>> sellerItems = new LinkedHashMap<>();
+        Map<Long, Long> sellerOfProduct = new HashMap<>();
+        List<Long> productIds = items.stream().map(item -> (Long) item.get("productId")).toList();
+        for (Object[] row : productRepository.findSellerContactsByIds(productIds)) {
+            sellerOfProduct.put((Long) row[0], (Long) row[1]);
+            sellers.putIfAbsent((Long) row[1], row);
+        }
+        for (Map<String, Object> item : items) {
+            Long sellerId = sellerOfProduct.get((Long) item.get("productId"));
+            if (sellerId != null) {
+                sellerItems.computeIfAbsent(sellerId, id -> new ArrayList<>()).add(item);
+            }
+        }
+        sellerItems.forEach((sellerId, sold) -> {
+            Object[] seller = sellers.get(sellerId);
+            Context sellerContext = context(purchaseId);
+            sellerContext.setVariable("sellerName", seller[2]);
+            sellerContext.setVariable("buyerName", buyer.getDisplayName());
+            sellerContext.setVariable("items", sold);
+            mails.add(new MailQueueRepository.NewMail("purchase:" + purchaseId + ":seller:" + sellerId,
+                    (String) seller[3], "You sold " + (sold.size() == 1 ? "an item" : sold.size() + " items")
+                    + " on " + appName, templateEngine.process("mail/item-sold", sellerContext)));
+        });
+        return mails;
+    }
+
+    private Context context(long purchaseId) {
+        Context context = new Context(Locale.ENGLISH);
+        context.setVariable("appName", appName);
+        context.setVariable("purchaseId", purchaseId);
+        return context;
+    }
+}
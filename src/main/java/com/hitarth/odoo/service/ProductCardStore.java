@@ -0,0 +1,311 @@
+package com.hitarth.odoo.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hitarth.odoo.outbox.OutboxEvent;
+import com.hitarth.odoo.outbox.OutboxSubscriber;
+import com.hitarth.odoo.repository.ProductCardRepository;
+import com.hitarth.odoo.util.SlabStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static com.hitarth.odoo.util.TransactionCallbacks.afterCommit;
+
+/**
+ * Active listing cards encoded once, when a product is written, and kept off-heap in a {@link SlabStore}.
+ * GET /api/products and /category/{category} are answered by copying the stored bytes.
+ * Loaded at startup and refreshed by the outbox events of product writes on this instance, so it is off by
+ * default and only for single-instance deployments (app.products.card-store.enabled=true).
+ * Until it is loaded, after a failed refresh until the next reload, or once the catalog outgrows the budget,
+ * listings are streamed from the database.
+ */
+@Service
+public class ProductCardStore implements OutboxSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCardStore.class);
+
+    private static final byte[] ARRAY_START = {'['};
+    private static final byte[] ARRAY_END = {']'};
+    private static final byte[] SEPARATOR = {','};
+
+    // Listing order: newest first, ID as tie-break
+    private static final Comparator<CardKey> NEWEST_FIRST = Comparator.comparingLong(CardKey::createdAtMillis)
+            .thenComparingLong(CardKey::id).reversed();
+
+    @Autowired
+    private ProductCardRepository productCardRepository;
+
+    private final boolean enabled;
+    private final SlabStore cards;
+    private final JsonFactory jsonFactory;
+    private final TransactionTemplate refreshTransaction;
+    private final Map<Long, CardKey> keys = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<CardKey> listing = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+
+    // Listings are only served from the store while it holds every active card
+    private volatile boolean complete = false;
+    private volatile boolean overBudget = false;
+
+    public ProductCardStore(
+            @Value("${app.products.card-store.enabled:false}") boolean enabled,
+            @Value("${app.products.card-store.max-size-mb:64}") long maxSizeMb,
+            @Value("${app.products.card-store.slab-size-kb:1024}") int slabSizeKb,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry registry) {
+        this.enabled = enabled;
+        this.cards = new SlabStore(maxSizeMb * 1024 * 1024, slabSizeKb * 1024, Math.min(slabSizeKb * 1024, 16 * 1024));
+        this.jsonFactory = objectMapper.getFactory();
+        // After commit the finished transaction's connection is still bound, refreshes read on their own.
+        // Not read-only: the row was just written and must come from the primary
+        this.refreshTransaction = new TransactionTemplate(transactionManager);
+        this.refreshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("app.products.card-store.cards", cards, SlabStore::size)
+                .description("Listing cards held pre-encoded off-heap")
+                .register(registry);
+        Gauge.builder("app.products.card-store.memory", cards, SlabStore::getReservedBytes)
+                .description("Off-heap memory reserved by the card store's slabs")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("app.products.card-store.complete", this, store -> store.complete ? 1 : 0)
+                .description("1 while listings are served from the card store")
+                .register(registry);
+    }
+
+    /**
+     * Encode every active card into the store
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            productCardRepository.encodeActiveCards(jsonFactory, this::store);
+        } catch (RuntimeException e) {
+            log.warn("Card store load failed, listings are read from the database", e);
+            return;
+        }
+        complete = !overBudget;
+        if (complete) {
+            log.info("Card store loaded {} cards ({} KB off-heap) in {} ms", cards.size(),
+                    cards.getReservedBytes() / 1024, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Reload every card after a failed load or refresh, the store may have missed writes since.
+     * A store over its budget stays off, the catalog would not fit again
+     */
+    @Scheduled(initialDelayString = "${app.products.card-store.reload-interval-ms:60000}",
+            fixedDelayString = "${app.products.card-store.reload-interval-ms:60000}")
+    public synchronized void reloadIfIncomplete() {
+        if (!enabled || complete || overBudget) {
+            return;
+        }
+        log.info("Reloading the card store");
+        for (Long id : List.copyOf(keys.keySet())) {
+            remove(id);
+        }
+        warmUp();
+    }
+
+    /**
+     * Write all active cards as a JSON array, newest first
+     * @return false without writing anything if the store cannot answer, the caller then reads the database
+     */
+    public boolean writeActiveCards(OutputStream out) throws IOException {
+        return writeCards(null, out);
+    }
+
+    /**
+     * Write the active cards of a category as a JSON array, newest first
+     * @return false without writing anything if the store cannot answer, the caller then reads the database
+     */
+    public boolean writeActiveCardsByCategory(String category, OutputStream out) throws IOException {
+        return writeCards(category, out);
+    }
+
+    /**
+     * Write the cards of the given products as a JSON array, in the given order, skipping unlisted ones
+     * @return false without writing anything if the store cannot answer, the caller then reads the database
+     */
+    public boolean writeCardsByIds(List<Long> productIds, OutputStream out) throws IOException {
+        return writeCardsByIds(productIds, productIds.size(), out);
+    }
+
+    /**
+     * Write the cards of the first listed products of the given ones as a JSON array, at most limit cards
+     * @return false without writing anything if the store cannot answer, the caller then reads the database
+     */
+    public boolean writeCardsByIds(List<Long> productIds, int limit, OutputStream out) throws IOException {
+        if (!complete) {
+            return false;
+        }
+        byte[] buffer = new byte[cards.getMaxRecordBytes()];
+        boolean first = true;
+        out.write(ARRAY_START);
+        int written = 0;
+        for (Long id : productIds) {
+            if (written == limit) {
+                break;
+            }
+            int length = cards.read(id, buffer);
+            if (length < 0) {
+                continue;
+            }
+            if (!first) {
+                out.write(SEPARATOR);
+            }
+            out.write(buffer, 0, length);
+            first = false;
+            written++;
+        }
+        out.write(ARRAY_END);
+        out.flush();
+        return true;
+    }
+
+    /**
+     * Re-encode the cards of written products with one query per batch, once the writes committed
+     */
+    @Override
+    public void onEvents(List<OutboxEvent> events) {
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (OutboxEvent event : events) {
+            if (event.is(OutboxEvent.PRODUCT)) {
+                productIds.add(event.aggregateId());
+            }
+        }
+        if (!productIds.isEmpty()) {
+            refreshAll(List.copyOf(productIds));
+        }
+    }
+
+    /**
+     * Re-encode a seller's cards once the current transaction commits, e.g. after a display name change
+     */
+    public void refreshSellerAfterCommit(Long sellerId) {
+        afterCommit(() -> refreshSeller(sellerId));
+    }
+
+    private boolean writeCards(String category, OutputStream out) throws IOException {
+        if (!complete) {
+            return false;
+        }
+        byte[] buffer = new byte[cards.getMaxRecordBytes()];
+        boolean first = true;
+        out.write(ARRAY_START);
+        for (CardKey key : listing) {
+            if (category != null && !category.equals(key.category())) {
+                continue;
+            }
+            int length = cards.read(key.id(), buffer);
+            // Removed since the iteration passed it
+            if (length < 0) {
+                continue;
+            }
+            if (!first) {
+                out.write(SEPARATOR);
+            }
+            out.write(buffer, 0, length);
+            first = false;
+        }
+        out.write(ARRAY_END);
+        out.flush();
+        return true;
+    }
+
+    // Serialized with warmUp(), so a refresh never overtakes the load with an older row
+    private synchronized void refreshAll(List<Long> productIds) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Set<Long> listed = new HashSet<>();
+            refreshTransaction.executeWithoutResult(status ->
+                    productCardRepository.encodeActiveCardsByIds(productIds, jsonFactory,
+                            (id, sellerId, createdAtMillis, category, card) -> {
+                                listed.add(id);
+                                store(id, sellerId, createdAtMillis, category, card);
+                            }));
+            for (Long id : productIds) {
+                if (!listed.contains(id)) {
+                    remove(id);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Card refresh for {} products failed, listings fall back to the database until the next reload", productIds.size(), e);
+            complete = false;
+        }
+    }
+
+    private synchronized void refreshSeller(Long sellerId) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refreshTransaction.executeWithoutResult(status ->
+                    productCardRepository.encodeActiveSellerCards(sellerId, jsonFactory, this::store));
+        } catch (RuntimeException e) {
+            log.warn("Card refresh for seller {} failed, listings fall back to the database until the next reload", sellerId, e);
+            complete = false;
+        }
+    }
+
+    private void store(long id, long sellerId, long createdAtMillis, String category, byte[] card) {
+        if (!cards.put(id, card)) {
+            if (!overBudget) {
+                log.warn("Card store budget of {} KB exhausted at {} cards, listings fall back to the database",
+                        cards.getReservedBytes() / 1024, cards.size());
+            }
+            overBudget = true;
+            complete = false;
+            remove(id);
+            return;
+        }
+        CardKey key = new CardKey(id, sellerId, createdAtMillis, category);
+        CardKey previous = keys.put(id, key);
+        if (!key.equals(previous)) {
+            if (previous != null) {
+                listing.remove(previous);
+            }
+            listing.add(key);
+        }
+    }
+
+    private void remove(long id) {
+        cards.remove(id);
+        CardKey previous = keys.remove(id);
+        if (previous != null) {
+            listing.remove(previous);
+        }
+    }
+
+    private record CardKey(long id, long sellerId, long createdAtMillis, String category) {
+    }
+}
@@ -0,0 +1,189 @@
+package com.hitarth.odoo.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hitarth.odoo.datasource.ReadWriteRoutingDataSource;
+import com.hitarth.odoo.dto.ProductChange;
+import com.hitarth.odoo.dto.ProductChangeFeed;
+import com.hitarth.odoo.outbox.OutboxEvent;
+import com.hitarth.odoo.outbox.OutboxService;
+import com.hitarth.odoo.repository.ProductCardRepository;
+import com.hitarth.odoo.repository.ProductChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Product writes in one place: each write appends to the change log and the outbox in its own transaction,
+ * the outbox subscribers (card store, stream subscribers) react once it committed.
+ * The change log answers GET /api/products/changes, so a client that kept a token only downloads what changed.
+ */
+@Service
+public class ProductChangeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeService.class);
+
+    private static final String CREATED = ProductEventBroadcaster.Type.CREATED.eventName();
+    private static final String SOLD = ProductEventBroadcaster.Type.SOLD.eventName();
+
+    @Autowired
+    private ProductChangeRepository productChangeRepository;
+
+    @Autowired
+    private ProductCardRepository productCardRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    private final JsonFactory jsonFactory;
+    private final TransactionTemplate compactTransaction;
+    // Tokens are assigned at insert, not commit. Changes are only handed out once older than the settle window,
+    // by then the write transactions holding lower tokens have committed (they are far shorter than the window);
+    // a page ends before the first change still settling, so a later one settling first cannot skip it
+    private final long settleMs;
+    private final int maxPageSize;
+    private final int compactBatchSize;
+
+    public ProductChangeService(
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.products.changes.settle-ms:5000}") long settleMs,
+            @Value("${app.products.changes.max-page-size:1000}") int maxPageSize,
+            @Value("${app.products.changes.compact-batch-size:1000}") int compactBatchSize) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.compactTransaction = new TransactionTemplate(transactionManager);
+        this.settleMs = settleMs;
+        this.maxPageSize = maxPageSize;
+        this.compactBatchSize = compactBatchSize;
+    }
+
+    /**
+     * Record a product change in the current transaction, with the outbox event that refreshes and announces it
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ProductEventBroadcaster.Type type, Long productId) {
+        productChangeRepository.insertAll(type.eventName(), List.of(productId));
+        outboxService.recordAll(OutboxEvent.PRODUCT, List.of(productId), type.eventName());
+    }
+
+    /**
+     * Record the same change for several products in the current transaction, e.g. an import chunk or a checkout
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ProductEventBroadcaster.Type type, Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        productChangeRepository.insertAll(type.eventName(), productIds);
+        outboxService.recordAll(OutboxEvent.PRODUCT, productIds, type.eventName());
+    }
+
+    /**
+     * Token to start syncing from, taken before downloading the full catalog
+     */
+    @Transactional(readOnly = true)
+    public String getCurrentToken() {
+        return ReadWriteRoutingDataSource.onPrimary(() ->
+                Long.toString(productChangeRepository.findLastSettledToken(settleMs)));
+    }
+
+    /**
+     * Products changed after a token, each with its latest state, at most one page of changes
+     */
+    @Transactional(readOnly = true)
+    public ProductChangeFeed getChangesSince(String since, Integer limit) {
+        // The settle time covers changes committing out of token order on the primary, not a replica's lag
+        // on top of that: a lagging replica could hand out a token past changes it has not applied yet
+        return ReadWriteRoutingDataSource.onPrimary(() -> readChangesSince(since, limit));
+    }
+
+    /**
+     * Delete settled changes that a newer change of the same product supersedes, in short batches
+     */
+    @Scheduled(fixedDelayString = "${app.products.changes.compact-interval-ms:60000}")
+    public void compact() {
+        try {
+            long upTo = productChangeRepository.findLastSettledToken(settleMs);
+            int deleted = 0;
+            while (true) {
+                Integer batch = compactTransaction.execute(status -> productChangeRepository.deleteByIds(
+                        productChangeRepository.findSupersededIds(upTo, compactBatchSize)));
+                deleted += batch != null ? batch : 0;
+                if (batch == null || batch < compactBatchSize) {
+                    break;
+                }
+            }
+            if (deleted > 0) {
+                log.debug("Compacted {} superseded product changes up to token {}", deleted, upTo);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Product change log compaction failed", e);
+        }
+    }
+
+    private ProductChangeFeed readChangesSince(String since, Integer limit) {
+        long token = parseToken(since);
+        int pageSize = limit != null ? Math.max(1, Math.min(limit, maxPageSize)) : maxPageSize;
+
+        List<ProductChangeRepository.Change> changes =
+                productChangeRepository.findChangesAfter(token, settleMs, pageSize);
+        if (changes.isEmpty()) {
+            return new ProductChangeFeed(List.of(), Long.toString(token), false);
+        }
+
+        // Several changes of one product collapse into its latest, in the order of that latest change
+        Map<Long, String> latest = new LinkedHashMap<>();
+        for (ProductChangeRepository.Change change : changes) {
+            latest.remove(change.productId());
+            latest.put(change.productId(), change.changeType());
+        }
+        Map<Long, String> cards = new HashMap<>();
+        productCardRepository.encodeActiveCardsByIds(latest.keySet(), jsonFactory,
+                (id, sellerId, createdAtMillis, category, card) ->
+                        cards.put(id, new String(card, StandardCharsets.UTF_8)));
+
+        List<ProductChange> result = new ArrayList<>(latest.size());
+        latest.forEach((productId, type) -> result.add(resolve(productId, type, cards.get(productId))));
+        long nextToken = changes.get(changes.size() - 1).token();
+        return new ProductChangeFeed(result, Long.toString(nextToken), changes.size() == pageSize);
+    }
+
+    // The current state decides: listed products report their card (a purchase that left stock is an update),
+    // the others whether they were sold or deactivated
+    private static ProductChange resolve(Long productId, String type, String card) {
+        ProductEventBroadcaster.Type resolved;
+        if (card != null) {
+            resolved = CREATED.equals(type) ? ProductEventBroadcaster.Type.CREATED : ProductEventBroadcaster.Type.UPDATED;
+        } else {
+            resolved = SOLD.equals(type) ? ProductEventBroadcaster.Type.SOLD : ProductEventBroadcaster.Type.DEACTIVATED;
+        }
+        return new ProductChange(productId, resolved.eventName(), card);
+    }
+
+    private static long parseToken(String since) {
+        try {
+            long token = Long.parseLong(since);
+            if (token < 0) {
+                throw new NumberFormatException();
+            }
+            return token;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid change token: " + since);
+        }
+    }
+}
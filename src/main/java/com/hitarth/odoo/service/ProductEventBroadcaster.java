@@ -0,0 +1,299 @@
+package com.hitarth.odoo.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hitarth.odoo.outbox.OutboxEvent;
+import com.hitarth.odoo.outbox.OutboxSubscriber;
+import com.hitarth.odoo.repository.ProductCardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fan-out of listing changes to the GET /api/products/stream Server-Sent Events subscribers.
+ * Each change is encoded once, when the outbox dispatcher delivers it (so events keep their recording order),
+ * and the same event is queued for every subscriber. Subscribers have bounded buffers that
+ * drop the oldest event when full; a subscriber that lost events is told to reload instead.
+ * Idle subscribers hold no thread: the requests are async and a small sender pool drains the buffers.
+ */
+@Service
+public class ProductEventBroadcaster implements OutboxSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductEventBroadcaster.class);
+
+    /**
+     * Listing changes pushed to subscribers, sent as the SSE event name
+     */
+    public enum Type {
+        CREATED, UPDATED, SOLD, DEACTIVATED;
+
+        String eventName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        static Type of(String eventName) {
+            return valueOf(eventName.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    // Sent in place of the dropped events, the client reloads the listing
+    private static final Event RESYNC = new Event(0, "resync", "{}");
+    private static final Event HEARTBEAT = new Event(0, null, null);
+
+    @Autowired
+    private ProductCardRepository productCardRepository;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService senders;
+    private final JsonFactory jsonFactory;
+    private final TransactionTemplate cardTransaction;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final Counter droppedEvents;
+
+    public ProductEventBroadcaster(
+            @Value("${app.products.stream.buffer-size:64}") int bufferSize,
+            @Value("${app.products.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${app.products.stream.sender-threads:4}") int senderThreads,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry registry) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.jsonFactory = objectMapper.getFactory();
+        this.senders = Executors.newFixedThreadPool(senderThreads,
+                new CustomizableThreadFactory("product-events-send-"));
+        // Cards are read after the write committed, from the primary like the card store's refreshes
+        this.cardTransaction = new TransactionTemplate(transactionManager);
+        this.cardTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("app.products.stream.subscribers", subscribers, Set::size)
+                .description("Open listing change streams")
+                .register(registry);
+        this.droppedEvents = Counter.builder("app.products.stream.dropped")
+                .description("Listing change events dropped from full subscriber buffers")
+                .register(registry);
+    }
+
+    /**
+     * Open a listing change stream, events are pushed until the client disconnects or the timeout ends it
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        // Commits the response headers so the client sees the stream open
+        subscriber.offer(HEARTBEAT);
+        return emitter;
+    }
+
+    /**
+     * Announce the product events of an outbox batch, in order. SOLD is recorded for every purchased product
+     * and only announced for those no longer listed
+     */
+    @Override
+    public void onEvents(List<OutboxEvent> events) {
+        // Runs of the same change are encoded with one query, e.g. an import chunk
+        Type runType = null;
+        List<Long> run = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            if (!event.is(OutboxEvent.PRODUCT)) {
+                continue;
+            }
+            Type type = Type.of(event.eventType());
+            if (type != runType && !run.isEmpty()) {
+                dispatch(runType, run);
+                run = new ArrayList<>();
+            }
+            runType = type;
+            run.add(event.aggregateId());
+        }
+        if (!run.isEmpty()) {
+            dispatch(runType, run);
+        }
+    }
+
+    /**
+     * Keep idle streams open through proxies and notice clients that went away
+     */
+    @Scheduled(fixedDelayString = "${app.products.stream.heartbeat-ms:30000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offerIfIdle(HEARTBEAT);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    private void dispatch(Type type, List<Long> productIds) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        try {
+            if (type == Type.DEACTIVATED) {
+                for (Long id : productIds) {
+                    broadcast(type, id, null);
+                }
+                return;
+            }
+
+            // Created and updated events carry the listing card, so clients do not re-fetch the listing
+            Set<Long> listed = new HashSet<>();
+            cardTransaction.executeWithoutResult(status ->
+                    productCardRepository.encodeActiveCardsByIds(productIds, jsonFactory,
+                            (id, sellerId, createdAtMillis, category, card) -> {
+                                listed.add(id);
+                                // Purchased with stock left, the card did not change
+                                if (type != Type.SOLD) {
+                                    broadcast(type, id, card);
+                                }
+                            }));
+            for (Long id : productIds) {
+                // Out of the listing: sold out, or deactivated (or sold) since it was written
+                if (!listed.contains(id)) {
+                    broadcast(type == Type.SOLD ? Type.SOLD : Type.DEACTIVATED, id, null);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Publishing {} for {} products failed", type, productIds.size(), e);
+        }
+    }
+
+    private void broadcast(Type type, long productId, byte[] card) {
+        StringBuilder data = new StringBuilder(card != null ? card.length + 32 : 24).append("{\"id\":").append(productId);
+        if (card != null) {
+            data.append(",\"card\":").append(new String(card, StandardCharsets.UTF_8));
+        }
+        Event event = new Event(sequence.incrementAndGet(), type.eventName(), data.append('}').toString());
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    private record Event(long id, String name, String data) {
+    }
+
+    /**
+     * One open stream: a bounded buffer, drained by at most one sender thread at a time
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ArrayDeque<Event> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private boolean lost;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Event event) {
+            synchronized (buffer) {
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                    lost = true;
+                    droppedEvents.increment();
+                }
+                buffer.addLast(event);
+            }
+            scheduleDrain();
+        }
+
+        void offerIfIdle(Event event) {
+            synchronized (buffer) {
+                if (!buffer.isEmpty() || draining.get()) {
+                    return;
+                }
+                buffer.addLast(event);
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Event event;
+                boolean resync;
+                synchronized (buffer) {
+                    event = buffer.pollFirst();
+                    resync = lost;
+                    lost = false;
+                    if (event == null) {
+                        draining.set(false);
+                        return;
+                    }
+                }
+                try {
+                    if (resync) {
+                        send(RESYNC);
+                    }
+                    send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away or the stream already ended
+                    subscribers.remove(this);
+                    synchronized (buffer) {
+                        buffer.clear();
+                        draining.set(false);
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void send(Event event) throws IOException {
+            if (event.name() == null) {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+                return;
+            }
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(event.name())
+                    .data(event.data(), MediaType.APPLICATION_JSON);
+            if (event.id() > 0) {
+                builder.id(Long.toString(event.id()));
+            }
+            emitter.send(builder);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.hitarth.odoo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.hitarth.odoo.dto.ProductImportResult;
+import com.hitarth.odoo.dto.ProductRequest;
+import com.hitarth.odoo.repository.ProductImportRepository;
+import com.hitarth.odoo.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk listing import for sellers with many items. The upload is parsed row by row, rows are validated
+ * with the ProductRequest constraints and inserted in JDBC batches, one transaction per chunk.
+ * Only one chunk is held in memory, so memory use does not depend on the upload size.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final CsvMapper CSV = new CsvMapper();
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.emptySchema().withHeader();
+
+    @Autowired
+    private ProductImportRepository productImportRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductChangeService productChangeService;
+
+    @Autowired
+    private Validator validator;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader rowReader;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.products.import.chunk-size:500}") int chunkSize,
+            @Value("${app.products.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.objectMapper = objectMapper;
+        this.rowReader = objectMapper.readerFor(ProductRequest.class);
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Import listings from CSV with a header row naming ProductRequest fields (title, category, price, ...)
+     */
+    public ProductImportResult importCsv(Long sellerId, InputStream in) throws IOException {
+        checkSeller(sellerId);
+        ProductImportResult result = new ProductImportResult(maxReportedErrors);
+        List<ProductRequest> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkRows = new ArrayList<>(chunkSize);
+
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+             MappingIterator<Map<String, String>> rows = CSV.readerFor(Map.class).with(CSV_SCHEMA).readValues(reader)) {
+            long row = 0;
+            while (true) {
+                Map<String, String> values;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    values = rows.nextValue();
+                } catch (RuntimeJsonMappingException | JsonProcessingException e) {
+                    // The parser cannot resynchronize after a broken row
+                    result.rejected(row + 1, "Malformed CSV, import stopped: " + rootMessage(e));
+                    break;
+                }
+                row++;
+                // Blank cells mean "not set", the ProductRequest defaults apply
+                values.values().removeIf(value -> value == null || value.isBlank());
+
+                ProductRequest request;
+                try {
+                    request = objectMapper.convertValue(values, ProductRequest.class);
+                } catch (IllegalArgumentException e) {
+                    result.rejected(row, "Invalid value: " + rootMessage(e));
+                    continue;
+                }
+                accept(sellerId, row, request, chunk, chunkRows, result);
+            }
+        }
+        flush(sellerId, chunk, chunkRows, result);
+        return result;
+    }
+
+    /**
+     * Import listings from newline-delimited JSON, one ProductRequest object per line
+     */
+    public ProductImportResult importNdjson(Long sellerId, InputStream in) throws IOException {
+        checkSeller(sellerId);
+        ProductImportResult result = new ProductImportResult(maxReportedErrors);
+        List<ProductRequest> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkRows = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            long row = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                row++;
+
+                ProductRequest request;
+                try {
+                    request = rowReader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    result.rejected(row, "Invalid JSON: " + e.getOriginalMessage());
+                    continue;
+                }
+                accept(sellerId, row, request, chunk, chunkRows, result);
+            }
+        }
+        flush(sellerId, chunk, chunkRows, result);
+        return result;
+    }
+
+    private void checkSeller(Long sellerId) {
+        if (!userRepository.existsById(sellerId)) {
+            throw new RuntimeException("Seller not found");
+        }
+    }
+
+    private void accept(Long sellerId, long row, ProductRequest request, List<ProductRequest> chunk,
+                        List<Long> chunkRows, ProductImportResult result) {
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            StringBuilder message = new StringBuilder("Validation failed: ");
+            violations.forEach(violation -> message.append(violation.getPropertyPath()).append(" - ")
+                    .append(violation.getMessage()).append("; "));
+            result.rejected(row, message.toString());
+            return;
+        }
+
+        chunk.add(request);
+        chunkRows.add(row);
+        if (chunk.size() == chunkSize) {
+            flush(sellerId, chunk, chunkRows, result);
+        }
+    }
+
+    // One transaction per chunk: a failing chunk is rolled back and reported, earlier chunks stay imported.
+    // Any failure counts, including at commit, so the result of the committed chunks always reaches the response
+    private void flush(Long sellerId, List<ProductRequest> chunk, List<Long> chunkRows, ProductImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            chunkTransaction.executeWithoutResult(status -> {
+                List<Long> ids = productImportRepository.insertAll(sellerId, chunk);
+                // Logged with the chunk, listing cards are refreshed and announced once per chunk after it commits
+                productChangeService.record(ProductEventBroadcaster.Type.CREATED, ids);
+            });
+            result.imported(chunk.size());
+        } catch (RuntimeException e) {
+            long firstRow = chunkRows.get(0);
+            long lastRow = chunkRows.get(chunkRows.size() - 1);
+            log.warn("Import chunk of rows {}-{} for seller {} failed", firstRow, lastRow, sellerId, e);
+            String cause = e instanceof DataAccessException dataAccess
+                    ? dataAccess.getMostSpecificCause().getMessage() : rootMessage(e);
+            String message = "Insert failed, rows " + firstRow + "-" + lastRow + " rolled back: " + cause;
+            for (Long row : chunkRows) {
+                result.rejected(row, message);
+            }
+        }
+        chunk.clear();
+        chunkRows.clear();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+}
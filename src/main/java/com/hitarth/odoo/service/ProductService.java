@@ -1,27 +1,59 @@
 package com.hitarth.odoo.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hitarth.odoo.dto.ProductImage;
+import com.hitarth.odoo.dto.ProductPatchRequest;
 import com.hitarth.odoo.dto.ProductRequest;
 import com.hitarth.odoo.dto.ProductResponse;
 import com.hitarth.odoo.model.Product;
 import com.hitarth.odoo.model.User;
+import com.hitarth.odoo.monitoring.MarketplaceMetrics;
+import com.hitarth.odoo.monitoring.ProductSearchEvent;
+import com.hitarth.odoo.repository.ProductCardRepository;
 import com.hitarth.odoo.repository.ProductRepository;
 import com.hitarth.odoo.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 public class ProductService {
     
+    private static final Logger log = LoggerFactory.getLogger(ProductService.class);
+    
     @Autowired
     private ProductRepository productRepository;
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ProductCardRepository productCardRepository;
+    
+    @Autowired
+    private MarketplaceMetrics marketplaceMetrics;
+    
+    @Autowired
+    private ProductChangeService productChangeService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     // Available categories
     public static final String[] CATEGORIES = {
         "Electronics", "Clothing", "Furniture", "Books", "Sports", 
@@ -33,9 +65,13 @@ public class ProductService {
         "New", "Like New", "Good", "Fair", "Poor"
     };
     
+    // Fields a PATCH can change without loading the product
+    private static final Set<String> PRICE_AND_QUANTITY = Set.of(ProductPatchRequest.PRICE, ProductPatchRequest.QUANTITY);
+    
     /**
      * Create a new product
      */
+    @Transactional
     public ProductResponse createProduct(ProductRequest request, Long sellerId) {
         try {
             // Find seller
@@ -69,12 +105,12 @@ public class ProductService {
             
             // Save product
             Product savedProduct = productRepository.save(product);
+            productChangeService.record(ProductEventBroadcaster.Type.CREATED, savedProduct.getId());
             
             return new ProductResponse(savedProduct);
             
         } catch (Exception e) {
-            System.err.println("Error creating product: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating product", e);
             throw new RuntimeException("Failed to create product: " + e.getMessage());
         }
     }
@@ -82,15 +118,12 @@ public class ProductService {
     /**
      * Get all active products
      */
+    @Transactional(readOnly = true)
     public List<ProductResponse> getAllProducts() {
         try {
-            List<Product> products = productRepository.findByIsActiveTrueAndIsSoldFalseOrderByCreatedAtDesc();
-            return products.stream()
-                    .map(ProductResponse::new)
-                    .collect(Collectors.toList());
+            return productRepository.findActiveListings();
         } catch (Exception e) {
-            System.err.println("Error fetching products: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error fetching products", e);
             throw new RuntimeException("Failed to fetch products: " + e.getMessage());
         }
     }
@@ -98,15 +131,12 @@ public class ProductService {
     /**
      * Get products by category
      */
+    @Transactional(readOnly = true)
     public List<ProductResponse> getProductsByCategory(String category) {
         try {
-            List<Product> products = productRepository.findByCategoryAndIsActiveTrueAndIsSoldFalseOrderByCreatedAtDesc(category);
-            return products.stream()
-                    .map(ProductResponse::new)
-                    .collect(Collectors.toList());
+            return productRepository.findActiveListingsByCategory(category);
         } catch (Exception e) {
-            System.err.println("Error fetching products by category: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error fetching products by category", e);
             throw new RuntimeException("Failed to fetch products: " + e.getMessage());
         }
     }
@@ -114,38 +144,50 @@ public class ProductService {
     /**
      * Search products by title
      */
+    @Transactional(readOnly = true)
     public List<ProductResponse> searchProducts(String keyword) {
+        ProductSearchEvent event = new ProductSearchEvent();
+        event.begin();
         try {
-            List<Product> products = productRepository.findByTitleContainingIgnoreCase(keyword);
-            return products.stream()
-                    .map(ProductResponse::new)
-                    .collect(Collectors.toList());
+            marketplaceMetrics.searched(false);
+            List<ProductResponse> results = productRepository.searchActiveListings(keyword);
+            event.keywordLength = keyword.length();
+            event.resultSize = results.size();
+            return results;
         } catch (Exception e) {
-            System.err.println("Error searching products: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error searching products", e);
             throw new RuntimeException("Failed to search products: " + e.getMessage());
+        } finally {
+            event.commit();
         }
     }
     
     /**
-     * Search products by title and category
+     * Search products by title or brand and category
      */
+    @Transactional(readOnly = true)
     public List<ProductResponse> searchProducts(String keyword, String category) {
+        ProductSearchEvent event = new ProductSearchEvent();
+        event.begin();
         try {
-            List<Product> products = productRepository.findByTitleContainingIgnoreCaseAndCategory(keyword, category);
-            return products.stream()
-                    .map(ProductResponse::new)
-                    .collect(Collectors.toList());
+            marketplaceMetrics.searched(true);
+            List<ProductResponse> results = productRepository.searchActiveListingsByCategory(keyword, category);
+            event.keywordLength = keyword.length();
+            event.categoryFilter = true;
+            event.resultSize = results.size();
+            return results;
         } catch (Exception e) {
-            System.err.println("Error searching products: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error searching products", e);
             throw new RuntimeException("Failed to search products: " + e.getMessage());
+        } finally {
+            event.commit();
         }
     }
     
     /**
      * Get product by ID
      */
+    @Transactional(readOnly = true)
     public ProductResponse getProductById(Long id) {
         try {
             Optional<Product> productOptional = productRepository.findByIdAndIsActiveTrue(id);
@@ -155,8 +197,7 @@ public class ProductService {
             
             return new ProductResponse(productOptional.get());
         } catch (Exception e) {
-            System.err.println("Error fetching product: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error fetching product", e);
             throw new RuntimeException("Failed to fetch product: " + e.getMessage());
         }
     }
@@ -164,28 +205,122 @@ public class ProductService {
     /**
      * Get user's products
      */
+    @Transactional(readOnly = true)
     public List<ProductResponse> getUserProducts(Long sellerId) {
         try {
-            Optional<User> sellerOptional = userRepository.findById(sellerId);
-            if (sellerOptional.isEmpty()) {
+            if (!userRepository.existsById(sellerId)) {
                 throw new RuntimeException("Seller not found");
             }
             
-            User seller = sellerOptional.get();
-            List<Product> products = productRepository.findBySellerOrderByCreatedAtDesc(seller);
-            return products.stream()
-                    .map(ProductResponse::new)
-                    .collect(Collectors.toList());
+            return productRepository.findListingsBySellerId(sellerId);
         } catch (Exception e) {
-            System.err.println("Error fetching user products: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error fetching user products", e);
             throw new RuntimeException("Failed to fetch user products: " + e.getMessage());
         }
     }
     
+    /**
+     * Stream active product cards as a JSON array
+     */
+    @Transactional(readOnly = true)
+    public void writeAllProductCards(OutputStream out) throws IOException {
+        try (JsonGenerator json = cardGenerator(out)) {
+            productCardRepository.writeActiveCards(json);
+        }
+    }
+    
+    /**
+     * Stream active product cards in a category as a JSON array
+     */
+    @Transactional(readOnly = true)
+    public void writeProductCardsByCategory(String category, OutputStream out) throws IOException {
+        try (JsonGenerator json = cardGenerator(out)) {
+            productCardRepository.writeActiveCardsByCategory(category, json);
+        }
+    }
+    
+    /**
+     * Write the active cards of the given products as a JSON array, in the given order
+     */
+    @Transactional(readOnly = true)
+    public void writeProductCardsByIds(List<Long> productIds, OutputStream out) throws IOException {
+        writeProductCardsByIds(productIds, productIds.size(), out);
+    }
+    
+    /**
+     * Write the active cards of the first listed products of the given ones as a JSON array, at most limit cards
+     */
+    @Transactional(readOnly = true)
+    public void writeProductCardsByIds(List<Long> productIds, int limit, OutputStream out) throws IOException {
+        Map<Long, byte[]> cards = new HashMap<>();
+        productCardRepository.encodeActiveCardsByIds(productIds, objectMapper.getFactory(),
+                (id, sellerId, createdAtMillis, category, card) -> cards.put(id, card));
+        boolean first = true;
+        out.write('[');
+        int written = 0;
+        for (Long id : productIds) {
+            byte[] card = cards.get(id);
+            if (card == null) {
+                continue;
+            }
+            if (written == limit) {
+                break;
+            }
+            if (!first) {
+                out.write(',');
+            }
+            out.write(card);
+            first = false;
+            written++;
+        }
+        out.write(']');
+        out.flush();
+    }
+    
+    /**
+     * Stream a seller's product cards (including inactive and sold) as a JSON array
+     */
+    @Transactional(readOnly = true)
+    public void writeUserProductCards(Long sellerId, OutputStream out) throws IOException {
+        if (!userRepository.existsById(sellerId)) {
+            throw new RuntimeException("Seller not found");
+        }
+        
+        try (JsonGenerator json = cardGenerator(out)) {
+            productCardRepository.writeSellerCards(sellerId, json);
+        }
+    }
+    
+    /**
+     * Get a product's image, decoded from its data: URL or as the external URL it points to
+     */
+    @Transactional(readOnly = true)
+    public ProductImage getProductImage(Long id) {
+        String imageUrl = productRepository.findImageUrlById(id)
+                .filter(url -> !url.isBlank())
+                .orElseThrow(() -> new RuntimeException("Image not found"));
+        
+        if (imageUrl.startsWith("http://") || imageUrl.startsWith("https://")) {
+            return ProductImage.external(imageUrl);
+        }
+        
+        // data:image/png;base64,<payload>, anything but a base64 image is refused
+        int comma = imageUrl.indexOf(',');
+        if (!imageUrl.startsWith("data:image/") || comma < 0 || !imageUrl.substring(0, comma).endsWith(";base64")) {
+            throw new RuntimeException("Image not found");
+        }
+        String contentType = imageUrl.substring("data:".length(), comma - ";base64".length());
+        try {
+            return ProductImage.inline(contentType, Base64.getMimeDecoder().decode(imageUrl.substring(comma + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Image not found");
+        }
+    }
+    
     /**
      * Update product
      */
+    @Transactional
     public ProductResponse updateProduct(Long productId, ProductRequest request, Long sellerId) {
         try {
             // Find seller
@@ -225,12 +360,56 @@ public class ProductService {
             
             // Save updated product
             Product updatedProduct = productRepository.save(product);
+            productChangeService.record(ProductEventBroadcaster.Type.UPDATED, updatedProduct.getId());
             
             return new ProductResponse(updatedProduct);
             
         } catch (Exception e) {
-            System.err.println("Error updating product: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error updating product", e);
+            throw new RuntimeException("Failed to update product: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Partially update product, only the fields present in the request are written
+     * @return the updated field names
+     */
+    @Transactional
+    public Set<String> patchProduct(Long productId, ProductPatchRequest patch, Long sellerId) {
+        try {
+            Set<String> fields = patch.getPresentFields();
+            if (fields.isEmpty()) {
+                throw new IllegalArgumentException("No fields to update");
+            }
+            
+            // Price and stock edits are a single UPDATE, the product row is never read
+            if (PRICE_AND_QUANTITY.containsAll(fields)) {
+                int updated = productRepository.updatePriceAndQuantity(productId, sellerId,
+                        patch.getPrice(), patch.getQuantity(), LocalDateTime.now());
+                if (updated == 0) {
+                    throw new RuntimeException("Product not found or you don't have permission to edit it");
+                }
+                productChangeService.record(ProductEventBroadcaster.Type.UPDATED, productId);
+                return fields;
+            }
+            
+            // Ownership is checked by the query, the seller itself is not loaded
+            Optional<Product> productOptional = productRepository.findByIdAndSeller(productId, userRepository.getReferenceById(sellerId));
+            if (productOptional.isEmpty()) {
+                throw new RuntimeException("Product not found or you don't have permission to edit it");
+            }
+            
+            Product product = productOptional.get();
+            applyPatch(product, patch);
+            
+            // Dirty checking flushes the changed columns only (@DynamicUpdate)
+            productChangeService.record(ProductEventBroadcaster.Type.UPDATED, product.getId());
+            return fields;
+            
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error patching product", e);
             throw new RuntimeException("Failed to update product: " + e.getMessage());
         }
     }
@@ -238,6 +417,7 @@ public class ProductService {
     /**
      * Delete product (soft delete)
      */
+    @Transactional
     public boolean deleteProduct(Long productId, Long sellerId) {
         try {
             // Find seller
@@ -257,16 +437,49 @@ public class ProductService {
             Product product = productOptional.get();
             product.setIsActive(false);
             productRepository.save(product);
+            productChangeService.record(ProductEventBroadcaster.Type.DEACTIVATED, product.getId());
             
             return true;
             
         } catch (Exception e) {
-            System.err.println("Error deleting product: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error deleting product", e);
             throw new RuntimeException("Failed to delete product: " + e.getMessage());
         }
     }
     
+    private static void applyPatch(Product product, ProductPatchRequest patch) {
+        for (String field : patch.getPresentFields()) {
+            switch (field) {
+                case ProductPatchRequest.TITLE -> product.setTitle(patch.getTitle().trim());
+                case ProductPatchRequest.DESCRIPTION -> product.setDescription(patch.getDescription() != null ? patch.getDescription().trim() : null);
+                case ProductPatchRequest.CATEGORY -> product.setCategory(patch.getCategory());
+                case ProductPatchRequest.PRICE -> product.setPrice(patch.getPrice());
+                case ProductPatchRequest.QUANTITY -> product.setQuantity(patch.getQuantity());
+                case ProductPatchRequest.CONDITION_TYPE -> product.setConditionType(patch.getConditionType());
+                case ProductPatchRequest.BRAND -> product.setBrand(patch.getBrand());
+                case ProductPatchRequest.MODEL -> product.setModel(patch.getModel());
+                case ProductPatchRequest.YEAR_MANUFACTURED -> product.setYearManufactured(patch.getYearManufactured());
+                case ProductPatchRequest.DIMENSIONS -> product.setDimensions(patch.getDimensions());
+                case ProductPatchRequest.WEIGHT -> product.setWeight(patch.getWeight());
+                case ProductPatchRequest.MATERIAL -> product.setMaterial(patch.getMaterial());
+                case ProductPatchRequest.COLOR -> product.setColor(patch.getColor());
+                case ProductPatchRequest.ORIGINAL_PACKAGING -> product.setOriginalPackaging(patch.getOriginalPackaging());
+                case ProductPatchRequest.MANUAL_INCLUDED -> product.setManualIncluded(patch.getManualIncluded());
+                case ProductPatchRequest.WORKING_CONDITION -> product.setWorkingCondition(patch.getWorkingCondition());
+                case ProductPatchRequest.IMAGE_URL -> product.setImageUrl(patch.getImageUrl());
+                default -> throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+    }
+    
+    // A failed stream is neither closed into a valid, truncated array nor closes the response,
+    // so the caller can still replace it with an error while nothing has been committed
+    private JsonGenerator cardGenerator(OutputStream out) throws IOException {
+        return objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+    
     /**
      * Get available categories
      */
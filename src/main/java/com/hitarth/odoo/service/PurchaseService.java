@@ -3,16 +3,29 @@ package com.hitarth.odoo.service;
 import com.hitarth.odoo.dto.PurchaseItemResponse;
 import com.hitarth.odoo.dto.PurchaseResponse;
 import com.hitarth.odoo.model.*;
+import com.hitarth.odoo.monitoring.CheckoutEvent;
+import com.hitarth.odoo.monitoring.MarketplaceMetrics;
+import com.hitarth.odoo.outbox.OutboxEvent;
+import com.hitarth.odoo.outbox.OutboxService;
 import com.hitarth.odoo.repository.*;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import static com.hitarth.odoo.util.TransactionCallbacks.afterCommit;
+import static com.hitarth.odoo.util.TransactionCallbacks.afterCompletion;
+
 @Service
+@Timed(value = "app.service", histogram = true)
 @Transactional
 public class PurchaseService {
 
@@ -31,28 +44,61 @@ public class PurchaseService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private MarketplaceMetrics marketplaceMetrics;
+
+    @Autowired
+    private ProductChangeService productChangeService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ReservationService reservationService;
+
     // Create purchase from cart
     public PurchaseResponse createPurchaseFromCart(Long userId) {
+        CheckoutEvent event = new CheckoutEvent();
+        event.begin();
+        // Ends with the transaction, a checkout that fails at flush or commit is not a success
+        afterCompletion(committed -> {
+            event.success = committed;
+            event.commit();
+        });
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         List<CartItem> cartItems = cartItemRepository.findByUserWithProduct(user);
+        event.itemCount = cartItems.size();
         
         if (cartItems.isEmpty()) {
             throw new RuntimeException("Cart is empty");
         }
         
+        // Renew the cart's holds: a line another cart holds fails here, before any stock is taken
+        for (CartItem cartItem : cartItems) {
+            reservationService.reserve(userId, cartItem.getProduct(), cartItem.getQuantity());
+        }
+        
         // Calculate total amount
-        BigDecimal totalAmount = cartItems.stream()
-                .map(item -> item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalAmount = calculateTotal(cartItems);
         
         // Create purchase
         Purchase purchase = new Purchase(user, totalAmount);
         purchase = purchaseRepository.save(purchase);
         
-        // Create purchase items and clear cart
+        // Take the stock, create purchase items and clear cart
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> productIds = new ArrayList<>(cartItems.size());
+        List<Map<String, Object>> eventItems = new ArrayList<>(cartItems.size());
         for (CartItem cartItem : cartItems) {
+            Product product = cartItem.getProduct();
+            // Conditional UPDATE, two buyers cannot both take the last unit
+            if (productRepository.takeStock(product.getId(), cartItem.getQuantity(), now) == 0) {
+                throw new RuntimeException(product.getTitle() + " is no longer available in that quantity");
+            }
+            productIds.add(product.getId());
+            
             PurchaseItem purchaseItem = new PurchaseItem(
                     purchase,
                     cartItem.getProduct(),
@@ -60,28 +106,56 @@ public class PurchaseService {
                     cartItem.getProduct().getPrice()
             );
             purchaseItemRepository.save(purchaseItem);
+            purchase.getItems().add(purchaseItem);
+            Map<String, Object> eventItem = new LinkedHashMap<>();
+            eventItem.put("productId", product.getId());
+            eventItem.put("title", product.getTitle());
+            eventItem.put("category", product.getCategory());
+            eventItem.put("brand", product.getBrand());
+            eventItem.put("quantity", cartItem.getQuantity());
+            eventItem.put("price", product.getPrice());
+            eventItems.add(eventItem);
         }
         
-        // Clear cart
+        // Clear cart, the taken stock no longer needs holding
         cartItemRepository.deleteByUser(user);
+        reservationService.releaseAll(userId);
+        // Sold out products leave the listing
+        productChangeService.record(ProductEventBroadcaster.Type.SOLD, productIds);
+        // Notifications and other side effects of the purchase run off the request thread
+        outboxService.record(OutboxEvent.PURCHASE, purchase.getId(), "completed", Map.of(
+                "userId", user.getId(), "totalAmount", totalAmount, "items", eventItems));
+        // Counted once the purchase is committed, a checkout rolled back later is not a sale
+        int itemCount = cartItems.size();
+        afterCommit(() -> marketplaceMetrics.checkoutCompleted(itemCount));
         
-        // Load purchase with items for response
-        purchase = purchaseRepository.findById(purchase.getId()).orElse(purchase);
+        // The saved purchase is the managed instance, findById would return it unchanged
         return convertToResponse(purchase);
     }
 
     // Get user's purchase history
+    @Transactional(readOnly = true)
     public List<PurchaseResponse> getPurchaseHistory(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
         
-        List<Purchase> purchases = purchaseRepository.findByUserWithItems(user);
-        return purchases.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        // Rows arrive grouped by purchase, newest first
+        Map<Long, PurchaseResponse> purchases = new LinkedHashMap<>();
+        for (Object[] row : purchaseRepository.findHistoryRowsByUserId(userId)) {
+            PurchaseResponse purchase = purchases.computeIfAbsent((Long) row[0], id -> new PurchaseResponse(
+                    id, (BigDecimal) row[1], (LocalDateTime) row[2], (String) row[3], new ArrayList<>()));
+            if (row[4] != null) {
+                purchase.getItems().add(new PurchaseItemResponse(
+                        (Long) row[4], (Long) row[5], (String) row[6], (String) row[7], (String) row[8],
+                        (String) row[9], (Integer) row[10], (BigDecimal) row[11]));
+            }
+        }
+        return new ArrayList<>(purchases.values());
     }
 
     // Get purchase by ID
+    @Transactional(readOnly = true)
     public PurchaseResponse getPurchaseById(Long userId, Long purchaseId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -96,6 +170,13 @@ public class PurchaseService {
         return convertToResponse(purchase);
     }
 
+    // Sum price x quantity over the cart lines (package-private for the perf benchmarks)
+    static BigDecimal calculateTotal(List<CartItem> cartItems) {
+        return cartItems.stream()
+                .map(item -> item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
     // Convert Purchase to PurchaseResponse
     private PurchaseResponse convertToResponse(Purchase purchase) {
         List<PurchaseItemResponse> itemResponses = purchase.getItems().stream()
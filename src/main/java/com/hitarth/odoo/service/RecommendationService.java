@@ -0,0 +1,347 @@
+package com.hitarth.odoo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hitarth.odoo.outbox.OutboxEvent;
+import com.hitarth.odoo.outbox.OutboxSubscriber;
+import com.hitarth.odoo.outbox.RedeliveryFilter;
+import com.hitarth.odoo.repository.OutboxRepository;
+import com.hitarth.odoo.repository.RecommendationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "Recommended for you": listed products ranked by how well their category, brand and price match what the
+ * user bought and put in the cart. Both sides are kept in memory: the listed products' features, and one
+ * profile per user that purchases and cart additions update incrementally through their outbox events.
+ * A recommendation scores every listed product against the profile and keeps the best with a top-K heap,
+ * so it runs no SQL. Users without history get the newest listings.
+ */
+@Service
+public class RecommendationService implements OutboxSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+
+    private static final String PURCHASE_COMPLETED = "completed";
+    private static final String CART_ADDED = "cart-added";
+
+    // A purchased unit says more about taste than a unit put in the cart
+    private static final double PURCHASE_WEIGHT = 3.0;
+    private static final double CART_WEIGHT = 1.0;
+
+    private static final double CATEGORY_SCORE = 0.45;
+    private static final double BRAND_SCORE = 0.25;
+    private static final double PRICE_SCORE = 0.2;
+    private static final double RECENCY_SCORE = 0.1;
+    private static final double RECENCY_DAYS = 30.0;
+    private static final double DAY_MILLIS = 86_400_000.0;
+    // Smallest price spread in log space, about a factor of 1.6 either way
+    private static final double MIN_PRICE_VARIANCE = 0.25;
+
+    @Autowired
+    private RecommendationRepository recommendationRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<Long, Item> catalog = new ConcurrentHashMap<>();
+    private final Map<Long, Profile> profiles = new ConcurrentHashMap<>();
+    private final TransactionTemplate historyTransaction;
+    private final int pageSize;
+    private final int maxLimit;
+
+    // Null until the history is loaded, which contains every interaction event delivered before
+    private RedeliveryFilter redeliveryFilter;
+
+    public RecommendationService(
+            PlatformTransactionManager transactionManager,
+            @Value("${app.recommendations.load-page-size:1000}") int pageSize,
+            @Value("${app.recommendations.max-limit:100}") int maxLimit) {
+        // One snapshot for the history and the outbox, so they agree on which events the history contains
+        this.historyTransaction = new TransactionTemplate(transactionManager);
+        this.historyTransaction.setReadOnly(true);
+        this.historyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.pageSize = pageSize;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Load the listed products and build every user's profile from the history, in primary key pages
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warmUp() {
+        long start = System.nanoTime();
+        // The events still pending in the snapshot are part of the history, as are those delivered earlier;
+        // events committed after the snapshot, whatever their ID, are applied when they arrive
+        List<Long> pendingEventIds = historyTransaction.execute(status -> {
+            loadHistory();
+            return outboxRepository.findPendingIds();
+        });
+        redeliveryFilter = new RedeliveryFilter(pendingEventIds);
+
+        log.info("Recommendations loaded {} listed products and {} profiles in {} ms", catalog.size(), profiles.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void loadHistory() {
+        List<RecommendationRepository.Features> listed;
+        long afterId = 0;
+        do {
+            listed = recommendationRepository.findListedPage(afterId, pageSize);
+            for (RecommendationRepository.Features features : listed) {
+                catalog.put(features.id(), toItem(features));
+                afterId = features.id();
+            }
+        } while (listed.size() == pageSize);
+
+        List<RecommendationRepository.Interaction> interactions;
+        afterId = 0;
+        do {
+            interactions = recommendationRepository.findPurchasePage(afterId, pageSize);
+            for (RecommendationRepository.Interaction interaction : interactions) {
+                apply(interaction, PURCHASE_WEIGHT);
+                afterId = interaction.id();
+            }
+        } while (interactions.size() == pageSize);
+        afterId = 0;
+        do {
+            interactions = recommendationRepository.findCartPage(afterId, pageSize);
+            for (RecommendationRepository.Interaction interaction : interactions) {
+                apply(interaction, CART_WEIGHT);
+                afterId = interaction.id();
+            }
+        } while (interactions.size() == pageSize);
+    }
+
+    /**
+     * IDs of the listed products that best match the user's history, best first.
+     * The user's own listings and products they already bought or put in the cart are left out
+     */
+    public List<Long> recommend(Long userId, Integer limit) {
+        int k = limit != null ? Math.max(1, Math.min(limit, maxLimit)) : 20;
+        Profile profile = profiles.get(userId);
+        Scoring scoring = profile != null ? profile.scoring() : null;
+        long now = System.currentTimeMillis();
+
+        // Min-heap of the best k so far, the root is the one to beat
+        PriorityQueue<Scored> best = new PriorityQueue<>(k + 1);
+        for (Item item : catalog.values()) {
+            if (item.sellerId == userId || (scoring != null && scoring.seen.contains(item.id))) {
+                continue;
+            }
+            double score = RECENCY_SCORE * Math.exp(-(now - item.createdAtMillis) / DAY_MILLIS / RECENCY_DAYS);
+            if (scoring != null) {
+                score += scoring.score(item);
+            }
+            if (best.size() < k) {
+                best.add(new Scored(item.id, score));
+            } else if (score > best.peek().score) {
+                best.poll();
+                best.add(new Scored(item.id, score));
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ids.add(best.poll().id);
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    // Serialized with warmUp(), which decides which events the history already contains
+    @Override
+    public synchronized void onEvents(List<OutboxEvent> events) {
+        Set<Long> changedProducts = new LinkedHashSet<>();
+        for (OutboxEvent event : events) {
+            if (event.is(OutboxEvent.PRODUCT)) {
+                changedProducts.add(event.aggregateId());
+            }
+        }
+        // Profiles only change on an event's first delivery, refreshing a product again is harmless
+        if (redeliveryFilter != null) {
+            for (OutboxEvent event : redeliveryFilter.firstDeliveries(events)) {
+                applyEvent(event);
+            }
+        }
+        if (!changedProducts.isEmpty()) {
+            refresh(changedProducts);
+        }
+    }
+
+    // Listed products get their current features, the others leave the catalog
+    private void refresh(Set<Long> productIds) {
+        Set<Long> unlisted = new HashSet<>(productIds);
+        for (RecommendationRepository.Features features : recommendationRepository.findListedByIds(productIds)) {
+            catalog.put(features.id(), toItem(features));
+            unlisted.remove(features.id());
+        }
+        unlisted.forEach(catalog::remove);
+    }
+
+    private void applyEvent(OutboxEvent event) {
+        boolean purchase = event.is(OutboxEvent.PURCHASE) && PURCHASE_COMPLETED.equals(event.eventType());
+        boolean cart = event.is(OutboxEvent.USER) && CART_ADDED.equals(event.eventType());
+        if (!purchase && !cart) {
+            return;
+        }
+        try {
+            JsonNode payload = objectMapper.readTree(event.payload());
+            if (purchase) {
+                long userId = payload.path("userId").asLong();
+                for (JsonNode item : payload.path("items")) {
+                    apply(userId, item, PURCHASE_WEIGHT);
+                }
+            } else {
+                apply(event.aggregateId(), payload, CART_WEIGHT);
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Outbox event {} has an unreadable payload, skipped for recommendations", event.id(), e);
+        }
+    }
+
+    private void apply(long userId, JsonNode item, double weight) {
+        int quantity = item.path("quantity").asInt(1);
+        if (quantity > 0) {
+            profile(userId).add(item.path("productId").asLong(), text(item.path("category")),
+                    text(item.path("brand")), new BigDecimal(item.path("price").asText("0")), weight * quantity);
+        }
+    }
+
+    private void apply(RecommendationRepository.Interaction interaction, double weight) {
+        if (interaction.quantity() > 0) {
+            profile(interaction.userId()).add(interaction.productId(), interaction.category(), interaction.brand(),
+                    interaction.price(), weight * interaction.quantity());
+        }
+    }
+
+    // Only created for an interaction that counts, a profile without weight has no scoring
+    private Profile profile(long userId) {
+        return profiles.computeIfAbsent(userId, id -> new Profile());
+    }
+
+    private static String text(JsonNode node) {
+        return node.isTextual() ? node.asText() : null;
+    }
+
+    private static Item toItem(RecommendationRepository.Features features) {
+        return new Item(features.id(), features.sellerId(), features.category(), brandKey(features.brand()),
+                logPrice(features.price()), features.createdAtMillis());
+    }
+
+    private static String brandKey(String brand) {
+        return brand == null || brand.isBlank() ? null : brand.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static double logPrice(BigDecimal price) {
+        return Math.log1p(price != null ? Math.max(0, price.doubleValue()) : 0);
+    }
+
+    private record Item(long id, long sellerId, String category, String brand, double logPrice,
+                        long createdAtMillis) {
+    }
+
+    private record Scored(long id, double score) implements Comparable<Scored> {
+        @Override
+        public int compareTo(Scored other) {
+            return Double.compare(score, other.score);
+        }
+    }
+
+    /**
+     * A user's taste: weighted counts per category and brand, and the weighted mean and variance of the log price
+     */
+    private static final class Profile {
+
+        private final Map<String, Double> categories = new HashMap<>();
+        private final Map<String, Double> brands = new HashMap<>();
+        private final Set<Long> seen = new HashSet<>();
+        private double weight;
+        private double priceSum;
+        private double priceSquares;
+        private Scoring scoring;
+
+        synchronized void add(long productId, String category, String brand, BigDecimal price, double units) {
+            if (units <= 0) {
+                return;
+            }
+            seen.add(productId);
+            if (category != null) {
+                categories.merge(category, units, Double::sum);
+            }
+            String brandKey = brandKey(brand);
+            if (brandKey != null) {
+                brands.merge(brandKey, units, Double::sum);
+            }
+            double logPrice = logPrice(price);
+            weight += units;
+            priceSum += units * logPrice;
+            priceSquares += units * logPrice * logPrice;
+            scoring = null;
+        }
+
+        // Normalized once per change and shared by the recommendations until the next one, null without history
+        synchronized Scoring scoring() {
+            if (weight <= 0) {
+                return null;
+            }
+            if (scoring == null) {
+                double mean = priceSum / weight;
+                double variance = Math.max(MIN_PRICE_VARIANCE, priceSquares / weight - mean * mean);
+                scoring = new Scoring(shares(categories, weight), shares(brands, weight), mean, variance,
+                        Set.copyOf(seen));
+            }
+            return scoring;
+        }
+
+        private static Map<String, Double> shares(Map<String, Double> counts, double total) {
+            Map<String, Double> shares = new HashMap<>(counts.size() * 2);
+            counts.forEach((key, count) -> shares.put(key, count / total));
+            return shares;
+        }
+    }
+
+    /**
+     * Immutable snapshot of a profile, scoring a listed product between 0 and 1 minus the recency share
+     */
+    private record Scoring(Map<String, Double> categories, Map<String, Double> brands, double priceMean,
+                           double priceVariance, Set<Long> seen) {
+
+        double score(Item item) {
+            double score = 0;
+            if (item.category() != null) {
+                score += CATEGORY_SCORE * categories.getOrDefault(item.category(), 0.0);
+            }
+            if (item.brand() != null) {
+                score += BRAND_SCORE * brands.getOrDefault(item.brand(), 0.0);
+            }
+            double distance = item.logPrice() - priceMean;
+            return score + PRICE_SCORE * Math.exp(-distance * distance / (2 * priceVariance));
+        }
+    }
+}
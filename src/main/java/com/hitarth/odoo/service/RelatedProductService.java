@@ -0,0 +1,472 @@
+package com.hitarth.odoo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hitarth.odoo.outbox.OutboxEvent;
+import com.hitarth.odoo.outbox.OutboxSubscriber;
+import com.hitarth.odoo.outbox.RedeliveryFilter;
+import com.hitarth.odoo.repository.CoPurchaseRepository;
+import com.hitarth.odoo.util.LongIntHashMap;
+import com.hitarth.odoo.util.LongObjectHashMap;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "Frequently bought together": for every purchased product, the products bought in the same purchases,
+ * most often first. The index is a primitive-keyed map from product ID to a sparse adjacency row of at most
+ * max-neighbours entries, so a lookup is one hash probe and memory grows with the number of products only.
+ * It is rebuilt from the purchase history at startup and periodically, one fork/join task per range of products,
+ * and every checkout updates the rows of its products through the purchase outbox event in between.
+ * An event is applied unless the index's history already read its purchase, whatever order events arrive in.
+ * Periodic rebuilds run on their own thread, not on the shared scheduler where they would hold up the other jobs.
+ * A full row keeps its heavy hitters the space-saving way: a new neighbour replaces the least counted one and
+ * inherits its count, so products bought together often are not pushed out by one-off pairs.
+ */
+@Service
+public class RelatedProductService implements OutboxSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatedProductService.class);
+
+    private static final String PURCHASE_COMPLETED = "completed";
+
+    // Products counted by one fork/join leaf task
+    private static final int LEAF_PRODUCTS = 256;
+
+    @Autowired
+    private CoPurchaseRepository coPurchaseRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Rows are immutable and replaced on update, readers hold the read lock for the probe only
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private LongObjectHashMap<Row> index = new LongObjectHashMap<>(0);
+
+    private final ForkJoinPool pool;
+    private final ScheduledExecutorService rebuilder;
+    private final int maxNeighbours;
+    private final int pageSize;
+    private final long rebuildIntervalMs;
+
+    private final RedeliveryFilter redeliveryFilter = new RedeliveryFilter();
+    // The purchases the current index was built from, their events are already counted
+    private Purchases indexed = Purchases.NONE;
+    // Baskets checked out while a rebuild reads the history, applied to the new index before it is published
+    private List<Basket> replay;
+
+    public RelatedProductService(
+            @Value("${app.related.max-neighbours:50}") int maxNeighbours,
+            @Value("${app.related.load-page-size:1000}") int pageSize,
+            @Value("${app.related.rebuild-parallelism:0}") int parallelism,
+            @Value("${app.related.rebuild-interval-ms:21600000}") long rebuildIntervalMs) {
+        this.maxNeighbours = maxNeighbours;
+        this.pageSize = pageSize;
+        this.rebuildIntervalMs = rebuildIntervalMs;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("related-rebuild-"));
+    }
+
+    /**
+     * Build the index before the application takes traffic, then rebuild it at the interval in the background
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        rebuilder.scheduleWithFixedDelay(this::rebuild, rebuildIntervalMs, rebuildIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * IDs of the products bought together with a product, most often first; empty if it was never
+     * bought with anything
+     */
+    public List<Long> related(Long productId) {
+        Row row;
+        lock.readLock().lock();
+        try {
+            row = index.get(productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (row == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(row.products.length);
+        for (long id : row.products) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Count every pair of products bought together from the history and publish the new index.
+     * Checkouts keep being applied to the current index meanwhile, and replayed onto the new one
+     */
+    public void rebuild() {
+        synchronized (this) {
+            if (replay != null) {
+                return;
+            }
+            replay = new ArrayList<>();
+        }
+        try {
+            long start = System.nanoTime();
+            History history = loadHistory();
+            Row[] rows = new Row[history.productCount];
+            pool.invoke(new CountNeighbours(history, rows, 0, history.productCount));
+
+            LongObjectHashMap<Row> rebuilt = new LongObjectHashMap<>(history.productCount);
+            for (int i = 0; i < history.productCount; i++) {
+                rebuilt.put(history.products[i], rows[i]);
+            }
+            synchronized (this) {
+                for (Basket basket : replay) {
+                    if (!history.purchases.contains(basket.purchaseId)) {
+                        apply(rebuilt, basket.products);
+                    }
+                }
+                lock.writeLock().lock();
+                try {
+                    index = rebuilt;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                indexed = history.purchases;
+            }
+            log.info("Co-purchase index built for {} products from {} baskets in {} ms", history.productCount,
+                    history.basketCount, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Co-purchase index rebuild failed, the current index stays in use", e);
+        } finally {
+            synchronized (this) {
+                replay = null;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onEvents(List<OutboxEvent> events) {
+        for (OutboxEvent event : redeliveryFilter.firstDeliveries(events)) {
+            if (!event.is(OutboxEvent.PURCHASE) || !PURCHASE_COMPLETED.equals(event.eventType())) {
+                continue;
+            }
+            long[] products = basket(event);
+            if (products.length < 2) {
+                continue;
+            }
+            if (replay != null) {
+                replay.add(new Basket(event.aggregateId(), products));
+            }
+            // E.g. a backlog left by the previous run, read by the startup build before it was delivered
+            if (!indexed.contains(event.aggregateId())) {
+                lock.writeLock().lock();
+                try {
+                    apply(index, products);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    // Distinct products of a purchase event, in ascending order
+    private long[] basket(OutboxEvent event) {
+        try {
+            JsonNode items = objectMapper.readTree(event.payload()).path("items");
+            long[] products = new long[items.size()];
+            int i = 0;
+            for (JsonNode item : items) {
+                products[i++] = item.path("productId").asLong();
+            }
+            return Arrays.stream(products).filter(id -> id != 0).sorted().distinct().toArray();
+        } catch (JsonProcessingException e) {
+            log.warn("Outbox event {} has an unreadable payload, skipped for related products", event.id(), e);
+            return new long[0];
+        }
+    }
+
+    private void apply(LongObjectHashMap<Row> rows, long[] products) {
+        for (long product : products) {
+            Row row = rows.get(product);
+            rows.put(product, (row != null ? row : Row.EMPTY).with(product, products, maxNeighbours));
+        }
+    }
+
+    // Baskets with at least two distinct products, and for every product the baskets it is in
+    private History loadHistory() {
+        History history = new History();
+        long lastPurchaseId = coPurchaseRepository.findLastPurchaseId();
+        for (long afterId = 0; afterId < lastPurchaseId; afterId += pageSize) {
+            coPurchaseRepository.findBasketItems(afterId, Math.min(afterId + pageSize, lastPurchaseId), history::add);
+        }
+        history.finish(lastPurchaseId);
+        return history;
+    }
+
+    private record Basket(long purchaseId, long[] products) {
+    }
+
+    /**
+     * The purchase IDs a history read: all up to the last one, except the gaps left by purchases that were not
+     * committed yet (or rolled back) when their page was read. A purchase is read whole or not at all
+     */
+    private record Purchases(long lastId, long[] gapStarts, long[] gapEnds) {
+
+        static final Purchases NONE = new Purchases(0, new long[0], new long[0]);
+
+        boolean contains(long purchaseId) {
+            if (purchaseId <= 0 || purchaseId > lastId) {
+                return false;
+            }
+            // The gap starting at or before the ID is the only one that can hold it
+            int gap = Arrays.binarySearch(gapStarts, purchaseId);
+            if (gap < 0) {
+                gap = -gap - 2;
+            }
+            return gap < 0 || purchaseId > gapEnds[gap];
+        }
+    }
+
+    /**
+     * The purchase history in flat arrays: basket items back to back, and per product (by dense position)
+     * a slice of basket numbers in memberships
+     */
+    private static final class History {
+
+        private long[] items = new long[1024];
+        private int itemCount;
+        private int[] basketEnds = new int[256];
+        private int basketCount;
+        private long purchaseId;
+        private int basketStart;
+        private long[] gapStarts = new long[16];
+        private long[] gapEnds = new long[16];
+        private int gapCount;
+        private Purchases purchases;
+
+        private long[] products;
+        private int productCount;
+        private int[] offsets;
+        private int[] memberships;
+
+        // Items arrive grouped by purchase and ordered by product
+        void add(long purchaseId, long productId) {
+            if (purchaseId != this.purchaseId) {
+                closeBasket();
+                addGap(this.purchaseId + 1, purchaseId - 1);
+                this.purchaseId = purchaseId;
+            } else if (items[itemCount - 1] == productId) {
+                return;
+            }
+            if (itemCount == items.length) {
+                items = Arrays.copyOf(items, itemCount * 2);
+            }
+            items[itemCount++] = productId;
+        }
+
+        void finish(long lastPurchaseId) {
+            closeBasket();
+            addGap(purchaseId + 1, lastPurchaseId);
+            purchases = new Purchases(lastPurchaseId, Arrays.copyOf(gapStarts, gapCount),
+                    Arrays.copyOf(gapEnds, gapCount));
+            LongIntHashMap positions = new LongIntHashMap(1024);
+            products = new long[1024];
+            int[] counts = new int[1024];
+            for (int i = 0; i < itemCount; i++) {
+                int position = positions.get(items[i], -1);
+                if (position < 0) {
+                    position = productCount++;
+                    positions.put(items[i], position);
+                    if (position == products.length) {
+                        products = Arrays.copyOf(products, position * 2);
+                        counts = Arrays.copyOf(counts, position * 2);
+                    }
+                    products[position] = items[i];
+                }
+                counts[position]++;
+            }
+
+            offsets = new int[productCount + 1];
+            for (int i = 0; i < productCount; i++) {
+                offsets[i + 1] = offsets[i] + counts[i];
+            }
+            int[] cursor = Arrays.copyOf(offsets, productCount);
+            memberships = new int[itemCount];
+            for (int basket = 0; basket < basketCount; basket++) {
+                for (int i = start(basket); i < basketEnds[basket]; i++) {
+                    memberships[cursor[positions.get(items[i], -1)]++] = basket;
+                }
+            }
+        }
+
+        int start(int basket) {
+            return basket == 0 ? 0 : basketEnds[basket - 1];
+        }
+
+        // Purchase IDs between two read purchases, not in the history
+        private void addGap(long from, long to) {
+            if (from > to) {
+                return;
+            }
+            if (gapCount == gapStarts.length) {
+                gapStarts = Arrays.copyOf(gapStarts, gapCount * 2);
+                gapEnds = Arrays.copyOf(gapEnds, gapCount * 2);
+            }
+            gapStarts[gapCount] = from;
+            gapEnds[gapCount++] = to;
+        }
+
+        // A single product basket has no pairs and is dropped
+        private void closeBasket() {
+            if (itemCount - basketStart < 2) {
+                itemCount = basketStart;
+                return;
+            }
+            if (basketCount == basketEnds.length) {
+                basketEnds = Arrays.copyOf(basketEnds, basketCount * 2);
+            }
+            basketEnds[basketCount++] = itemCount;
+            basketStart = itemCount;
+        }
+    }
+
+    /**
+     * Counts the neighbours of a range of products, splitting the range until it is small enough
+     */
+    private final class CountNeighbours extends RecursiveAction {
+
+        private final History history;
+        private final Row[] rows;
+        private final int from;
+        private final int to;
+
+        CountNeighbours(History history, Row[] rows, int from, int to) {
+            this.history = history;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_PRODUCTS) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CountNeighbours(history, rows, from, middle),
+                        new CountNeighbours(history, rows, middle, to));
+                return;
+            }
+            LongIntHashMap counts = new LongIntHashMap(64);
+            for (int position = from; position < to; position++) {
+                long product = history.products[position];
+                counts.clear();
+                for (int m = history.offsets[position]; m < history.offsets[position + 1]; m++) {
+                    int basket = history.memberships[m];
+                    for (int i = history.start(basket); i < history.basketEnds[basket]; i++) {
+                        if (history.items[i] != product) {
+                            counts.addTo(history.items[i], 1);
+                        }
+                    }
+                }
+                rows[position] = Row.of(counts, maxNeighbours);
+            }
+        }
+    }
+
+    /**
+     * A product's neighbours and how often each was bought with it, most often first
+     */
+    private static final class Row {
+
+        static final Row EMPTY = new Row(new long[0], new int[0]);
+
+        final long[] products;
+        final int[] counts;
+
+        private Row(long[] products, int[] counts) {
+            this.products = products;
+            this.counts = counts;
+        }
+
+        static Row of(LongIntHashMap neighbours, int capacity) {
+            long[] products = new long[neighbours.size()];
+            int[] counts = new int[neighbours.size()];
+            int[] size = {0};
+            neighbours.forEach((product, count) -> {
+                products[size[0]] = product;
+                counts[size[0]++] = count;
+            });
+            return top(products, counts, size[0], capacity);
+        }
+
+        // This row after the product was bought together with the basket
+        Row with(long self, long[] basket, int capacity) {
+            long[] products = Arrays.copyOf(this.products, Math.max(capacity, this.products.length));
+            int[] counts = Arrays.copyOf(this.counts, products.length);
+            int size = this.products.length;
+            for (long neighbour : basket) {
+                if (neighbour == self) {
+                    continue;
+                }
+                int slot = 0;
+                while (slot < size && products[slot] != neighbour) {
+                    slot++;
+                }
+                if (slot == size && size == capacity) {
+                    // Full: the least counted neighbour makes room and the newcomer inherits its count
+                    slot = 0;
+                    for (int i = 1; i < size; i++) {
+                        if (counts[i] < counts[slot]) {
+                            slot = i;
+                        }
+                    }
+                    products[slot] = neighbour;
+                } else if (slot == size) {
+                    products[size++] = neighbour;
+                }
+                counts[slot]++;
+            }
+            return top(products, counts, size, capacity);
+        }
+
+        // The capacity most counted of the first size entries, sorted on count and position packed in one long
+        private static Row top(long[] products, int[] counts, int size, int capacity) {
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = ((long) counts[i] << 32) | i;
+            }
+            Arrays.sort(order);
+            int kept = Math.min(size, capacity);
+            long[] topProducts = new long[kept];
+            int[] topCounts = new int[kept];
+            for (int i = 0; i < kept; i++) {
+                int position = (int) order[size - 1 - i];
+                topProducts[i] = products[position];
+                topCounts[i] = counts[position];
+            }
+            return new Row(topProducts, topCounts);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.model.Product;
+import com.hitarth.odoo.repository.StockReservationRepository;
+import com.hitarth.odoo.util.TimerWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hitarth.odoo.util.TransactionCallbacks.afterCommit;
+import static com.hitarth.odoo.util.TransactionCallbacks.onRollback;
+
+/**
+ * Time-limited holds on listed units for the items in carts. Adding to the cart reserves the units for
+ * app.cart.reservation.ttl-ms, so a single-unit listing cannot sit in several carts and fail all but one checkout.
+ * Holds are kept in memory per product, so checking what is left is a map lookup; the stock_reservations rows
+ * only bring them back after a restart. Expiry runs on a {@link TimerWheel} instead of polling the table.
+ * Like the card store this assumes a single instance.
+ */
+@Service
+public class ReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationService.class);
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    private final Map<Long, Holds> holds = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> productsByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger heldLines = new AtomicInteger();
+    private final TimerWheel<Key> expiries;
+    private final ScheduledExecutorService ticker;
+    private final TransactionTemplate expiryTransaction;
+    private final long ttlMs;
+    private final long tickMs;
+    private final Counter expired;
+
+    public ReservationService(
+            @Value("${app.cart.reservation.ttl-ms:900000}") long ttlMs,
+            @Value("${app.cart.reservation.tick-ms:1000}") long tickMs,
+            @Value("${app.cart.reservation.wheel-size:1024}") int wheelSize,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry registry) {
+        this.ttlMs = ttlMs;
+        this.tickMs = tickMs;
+        this.expiries = new TimerWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("reservation-expiry-"));
+        this.expiryTransaction = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("app.cart.reservations", heldLines, AtomicInteger::get)
+                .description("Cart lines holding reserved units")
+                .register(registry);
+        this.expired = Counter.builder("app.cart.reservations.expired")
+                .description("Cart reservations released because they were not checked out in time")
+                .register(registry);
+    }
+
+    /**
+     * Reload the reservations that survived a restart and start expiring them
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        stockReservationRepository.deleteAllExpired(now);
+        int loaded = 0;
+        for (StockReservationRepository.Reservation reservation : stockReservationRepository.findActive(now)) {
+            long expiresAt = reservation.expiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            Hold hold = new Hold(reservation.quantity(), expiresAt);
+            // Reservations made since the start are newer than the rows
+            holds.compute(reservation.productId(), (productId, current) -> {
+                Holds updated = current != null ? current : new Holds();
+                if (!updated.byUser.containsKey(reservation.userId())) {
+                    updated.put(reservation.userId(), hold);
+                }
+                return updated;
+            });
+            productsByUser.computeIfAbsent(reservation.userId(), id -> ConcurrentHashMap.newKeySet())
+                    .add(reservation.productId());
+            expiries.schedule(new Key(reservation.productId(), reservation.userId()), expiresAt);
+            loaded++;
+        }
+        log.info("Loaded {} cart reservations", loaded);
+        ticker.scheduleWithFixedDelay(this::expire, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hold units of a product for a user's cart, replacing the user's previous hold and restarting its time.
+     * Fails when other carts hold the units; undone if the current transaction rolls back
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Long userId, Product product, int quantity) {
+        // A negative hold would free units for the other carts
+        if (quantity <= 0) {
+            throw new RuntimeException("Quantity must be at least 1");
+        }
+        if (!Boolean.TRUE.equals(product.getIsActive()) || Boolean.TRUE.equals(product.getIsSold())) {
+            throw new RuntimeException(product.getTitle() + " is no longer available");
+        }
+        long expiresAt = System.currentTimeMillis() + ttlMs;
+        Hold hold = new Hold(quantity, expiresAt);
+        Hold[] previous = new Hold[1];
+        holds.compute(product.getId(), (productId, current) -> {
+            Holds updated = current != null ? current : new Holds();
+            Hold own = updated.byUser.get(userId);
+            int available = product.getQuantity() - (updated.total - (own != null ? own.quantity : 0));
+            if (quantity > available) {
+                throw new RuntimeException(available <= 0
+                        ? product.getTitle() + " is reserved in another cart"
+                        : "Only " + available + " of " + product.getTitle() + " available");
+            }
+            updated.put(userId, hold);
+            previous[0] = own;
+            return updated;
+        });
+        productsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(product.getId());
+
+        stockReservationRepository.upsert(product.getId(), userId, quantity, toDateTime(expiresAt));
+        expiries.schedule(new Key(product.getId(), userId), expiresAt);
+        onRollback(() -> restore(product.getId(), userId, hold, previous[0]));
+    }
+
+    /**
+     * Release a user's hold on a product once the current transaction commits, e.g. the line left the cart
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Long userId, Long productId) {
+        stockReservationRepository.delete(productId, userId);
+        afterCommit(() -> removeHold(productId, userId, null));
+    }
+
+    /**
+     * Release all of a user's holds once the current transaction commits, after a checkout or a cleared cart
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseAll(Long userId) {
+        stockReservationRepository.deleteByUser(userId);
+        afterCommit(() -> {
+            Set<Long> productIds = productsByUser.get(userId);
+            if (productIds != null) {
+                for (Long productId : List.copyOf(productIds)) {
+                    removeHold(productId, userId, null);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    // Ticker thread: release the holds whose time ran out and were not renewed since
+    private void expire() {
+        try {
+            long now = System.currentTimeMillis();
+            List<long[]> released = new ArrayList<>();
+            expiries.advance(now, key -> {
+                if (removeHold(key.productId(), key.userId(), now)) {
+                    released.add(new long[] {key.productId(), key.userId()});
+                }
+            });
+            if (released.isEmpty()) {
+                return;
+            }
+            expired.increment(released.size());
+            expiryTransaction.executeWithoutResult(status ->
+                    stockReservationRepository.deleteExpired(released, toDateTime(now)));
+        } catch (RuntimeException e) {
+            // Expired rows left behind are skipped and deleted on the next start
+            log.warn("Expiring cart reservations failed", e);
+        }
+    }
+
+    // Remove a hold, only if expired by then when a time is given
+    private boolean removeHold(Long productId, Long userId, Long expiredBy) {
+        boolean[] removed = new boolean[1];
+        holds.computeIfPresent(productId, (id, current) -> {
+            Hold hold = current.byUser.get(userId);
+            if (hold != null && (expiredBy == null || hold.expiresAt <= expiredBy)) {
+                current.remove(userId);
+                removed[0] = true;
+            }
+            return current.byUser.isEmpty() ? null : current;
+        });
+        if (removed[0]) {
+            productsByUser.computeIfPresent(userId, (id, products) -> {
+                products.remove(productId);
+                return products.isEmpty() ? null : products;
+            });
+        }
+        return removed[0];
+    }
+
+    // Put the previous hold back if the rolled back one is still in place
+    private void restore(Long productId, Long userId, Hold hold, Hold previous) {
+        boolean[] removed = new boolean[1];
+        holds.computeIfPresent(productId, (id, current) -> {
+            if (current.byUser.get(userId) == hold) {
+                if (previous != null) {
+                    current.put(userId, previous);
+                } else {
+                    current.remove(userId);
+                    removed[0] = true;
+                }
+            }
+            return current.byUser.isEmpty() ? null : current;
+        });
+        if (removed[0]) {
+            productsByUser.computeIfPresent(userId, (id, products) -> {
+                products.remove(productId);
+                return products.isEmpty() ? null : products;
+            });
+        }
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private record Key(long productId, long userId) {
+    }
+
+    private record Hold(int quantity, long expiresAt) {
+    }
+
+    /**
+     * The holds on one product, only changed inside holds.compute for that product
+     */
+    private final class Holds {
+
+        private final Map<Long, Hold> byUser = new HashMap<>();
+        private int total;
+
+        void put(Long userId, Hold hold) {
+            Hold previous = byUser.put(userId, hold);
+            total += hold.quantity() - (previous != null ? previous.quantity() : 0);
+            if (previous == null) {
+                heldLines.incrementAndGet();
+            }
+        }
+
+        void remove(Long userId) {
+            Hold previous = byUser.remove(userId);
+            if (previous != null) {
+                total -= previous.quantity();
+                heldLines.decrementAndGet();
+            }
+        }
+    }
+}
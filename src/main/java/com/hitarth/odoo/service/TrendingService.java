@@ -0,0 +1,234 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.repository.ProductActivityRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * "Trending now": listings ranked by recent detail views and cart additions.
+ * Both are counted in memory on striped {@link LongAdder}s, so the request paths never wait on each other
+ * or on the database. Once per time bucket a single ticker folds the new counts into each product's
+ * exponentially decaying score, publishes the top products as an immutable snapshot, and adds the bucket's
+ * counts to product_activity in JDBC batches. On startup the scores are rebuilt from the recent buckets.
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+
+    // A cart addition says more about interest than a view
+    private static final double VIEW_WEIGHT = 1.0;
+    private static final double CART_WEIGHT = 5.0;
+    // Products whose score decayed below this are forgotten until they are counted again
+    private static final double MIN_SCORE = 0.01;
+    // Buckets older than this many half-lives add less than 1/256 of their counts and are not reloaded
+    private static final int HISTORY_HALF_LIVES = 8;
+    // Unflushed rows kept while the database is unreachable, the oldest are dropped beyond this
+    private static final int MAX_PENDING_ROWS = 100_000;
+
+    @Autowired
+    private ProductActivityRepository productActivityRepository;
+
+    private final Map<Long, Tally> tallies = new ConcurrentHashMap<>();
+    private final List<ProductActivityRepository.Activity> pending = new ArrayList<>();
+    private final TransactionTemplate batchTransaction;
+    private final long bucketMs;
+    private final long halfLifeMs;
+    private final double decayPerBucket;
+    private final int snapshotSize;
+    private final int flushBatchSize;
+    private final long retentionHours;
+
+    private volatile List<Long> snapshot = List.of();
+    private long lastTickMillis = System.currentTimeMillis();
+
+    public TrendingService(
+            MeterRegistry registry,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.trending.bucket-ms:60000}") long bucketMs,
+            @Value("${app.trending.half-life-ms:3600000}") long halfLifeMs,
+            @Value("${app.trending.snapshot-size:100}") int snapshotSize,
+            @Value("${app.trending.flush-batch-size:500}") int flushBatchSize,
+            @Value("${app.trending.retention-hours:48}") long retentionHours) {
+        // A batch is added whole or not at all, so a retry does not count rows twice
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.bucketMs = bucketMs;
+        this.halfLifeMs = halfLifeMs;
+        this.decayPerBucket = Math.pow(0.5, (double) bucketMs / halfLifeMs);
+        this.snapshotSize = snapshotSize;
+        this.flushBatchSize = flushBatchSize;
+        this.retentionHours = retentionHours;
+
+        Gauge.builder("app.trending.products", tallies, Map::size)
+                .description("Products with a trending score")
+                .register(registry);
+    }
+
+    /**
+     * Count a view of a listing's detail page
+     */
+    public void viewed(long productId) {
+        tally(productId).views.increment();
+    }
+
+    /**
+     * Count a cart addition of a listing
+     */
+    public void addedToCart(long productId) {
+        tally(productId).cartAdds.increment();
+    }
+
+    /**
+     * IDs of the products with the highest scores at the last tick, highest first.
+     * Sold and deactivated products are not filtered out here, the card writers skip them
+     */
+    public List<Long> trending() {
+        return snapshot;
+    }
+
+    /**
+     * Rebuild the scores from the buckets still worth counting
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warmUp() {
+        long now = System.currentTimeMillis();
+        List<ProductActivityRepository.Activity> history =
+                productActivityRepository.findSince(now - HISTORY_HALF_LIVES * halfLifeMs);
+        for (ProductActivityRepository.Activity activity : history) {
+            double age = Math.max(0, now - activity.bucketStartMillis() - bucketMs);
+            tally(activity.productId()).score += Math.pow(0.5, age / halfLifeMs)
+                    * (VIEW_WEIGHT * activity.views() + CART_WEIGHT * activity.cartAdds());
+        }
+        publish(new ArrayList<>(tallies.entrySet()));
+        log.info("Trending scores loaded for {} products from {} buckets", tallies.size(), history.size());
+    }
+
+    /**
+     * Close a bucket: decay every score, add the counts since the last tick, publish the top products and
+     * write the counts to the database
+     */
+    @Scheduled(initialDelayString = "${app.trending.bucket-ms:60000}", fixedRateString = "${app.trending.bucket-ms:60000}")
+    public synchronized void tick() {
+        long bucketStart = Math.floorDiv(lastTickMillis, bucketMs) * bucketMs;
+        lastTickMillis = System.currentTimeMillis();
+
+        List<Map.Entry<Long, Tally>> scored = new ArrayList<>(tallies.size());
+        for (Iterator<Map.Entry<Long, Tally>> it = tallies.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, Tally> entry = it.next();
+            Tally tally = entry.getValue();
+            // Counts only grow, the difference to the last tick is this bucket's, however updates interleave
+            long views = tally.views.sum();
+            long cartAdds = tally.cartAdds.sum();
+            long newViews = views - tally.countedViews;
+            long newCartAdds = cartAdds - tally.countedCartAdds;
+            tally.countedViews = views;
+            tally.countedCartAdds = cartAdds;
+            tally.score = tally.score * decayPerBucket + VIEW_WEIGHT * newViews + CART_WEIGHT * newCartAdds;
+
+            if (newViews > 0 || newCartAdds > 0) {
+                pending.add(new ProductActivityRepository.Activity(entry.getKey(), bucketStart, newViews, newCartAdds));
+            } else if (tally.score < MIN_SCORE) {
+                // Idle for many half-lives; a count racing this removal is lost, which a ranking can afford
+                it.remove();
+                continue;
+            }
+            scored.add(entry);
+        }
+        publish(scored);
+        flush();
+    }
+
+    /**
+     * Delete the buckets past retention
+     */
+    @Scheduled(fixedDelayString = "${app.trending.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = productActivityRepository.deleteBefore(System.currentTimeMillis() - retentionHours * 3_600_000L);
+        if (deleted > 0) {
+            log.info("Purged {} product activity buckets older than {} hours", deleted, retentionHours);
+        }
+    }
+
+    // Counts since the last tick are written before shutdown
+    @PreDestroy
+    public void shutdown() {
+        tick();
+    }
+
+    private Tally tally(long productId) {
+        Tally tally = tallies.get(productId);
+        return tally != null ? tally : tallies.computeIfAbsent(productId, id -> new Tally());
+    }
+
+    // Min-heap of the best so far, the root is the one to beat
+    private void publish(List<Map.Entry<Long, Tally>> scored) {
+        PriorityQueue<Map.Entry<Long, Tally>> best = new PriorityQueue<>(snapshotSize + 1,
+                (a, b) -> Double.compare(a.getValue().score, b.getValue().score));
+        for (Map.Entry<Long, Tally> entry : scored) {
+            if (best.size() < snapshotSize) {
+                best.add(entry);
+            } else if (entry.getValue().score > best.peek().getValue().score) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+        List<Long> ids = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ids.add(best.poll().getKey());
+        }
+        Collections.reverse(ids);
+        snapshot = Collections.unmodifiableList(ids);
+    }
+
+    // Rows that fail stay pending and are retried at the next tick
+    private void flush() {
+        int flushed = 0;
+        try {
+            while (flushed < pending.size()) {
+                int end = Math.min(pending.size(), flushed + flushBatchSize);
+                List<ProductActivityRepository.Activity> batch = pending.subList(flushed, end);
+                batchTransaction.executeWithoutResult(status -> productActivityRepository.addAll(batch));
+                flushed = end;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Writing product activity failed, {} rows will be retried", pending.size() - flushed, e);
+        }
+        pending.subList(0, flushed).clear();
+        if (pending.size() > MAX_PENDING_ROWS) {
+            log.warn("Dropping {} unwritten product activity rows", pending.size() - MAX_PENDING_ROWS);
+            pending.subList(0, pending.size() - MAX_PENDING_ROWS).clear();
+        }
+    }
+
+    /**
+     * A product's counts and score. The adders take concurrent increments; the rest is the ticker's
+     */
+    private static final class Tally {
+
+        private final LongAdder views = new LongAdder();
+        private final LongAdder cartAdds = new LongAdder();
+        private long countedViews;
+        private long countedCartAdds;
+        private double score;
+    }
+}
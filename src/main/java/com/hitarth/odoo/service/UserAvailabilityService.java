@@ -0,0 +1,132 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.model.User;
+import com.hitarth.odoo.repository.UserRepository;
+import com.hitarth.odoo.util.BloomFilter;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+
+@Service
+public class UserAvailabilityService {
+
+    // Unique constraint names declared on the users table
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+    public static final String DISPLAY_NAME_CONSTRAINT = "uk_users_display_name";
+
+    public static final String EMAIL_TAKEN_MESSAGE = "Email already exists. Please use a different email.";
+    public static final String DISPLAY_NAME_TAKEN_MESSAGE = "Display name already exists. Please choose a different name.";
+
+    private static final int WARM_UP_PAGE_SIZE = 5000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final BloomFilter takenEmails;
+    private final BloomFilter takenDisplayNames;
+
+    // Until the filters are loaded every lookup goes to the database
+    private volatile boolean ready = false;
+
+    public UserAvailabilityService(
+            @Value("${app.availability.bloom.expected-entries:1000000}") long expectedEntries,
+            @Value("${app.availability.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.takenEmails = new BloomFilter(expectedEntries, falsePositiveRate);
+        this.takenDisplayNames = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    /**
+     * Load all existing emails and display names into the filters
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long lastId = 0L;
+        List<Object[]> page;
+        do {
+            page = userRepository.findIdentitiesAfter(lastId, PageRequest.of(0, WARM_UP_PAGE_SIZE));
+            for (Object[] row : page) {
+                lastId = (Long) row[0];
+                takenEmails.put(normalizeEmail((String) row[1]));
+                takenDisplayNames.put(normalizeDisplayName((String) row[2]));
+            }
+        } while (page.size() == WARM_UP_PAGE_SIZE);
+        ready = true;
+    }
+
+    /**
+     * Check if an email can still be registered
+     * Answers from memory when the email is definitely free, otherwise asks the database
+     */
+    public boolean isEmailAvailable(String email) {
+        String normalized = normalizeEmail(email);
+        if (ready && !takenEmails.mightContain(normalized)) {
+            return true;
+        }
+        return !userRepository.existsByEmail(normalized);
+    }
+
+    /**
+     * Check if a display name can still be registered
+     * Answers from memory when the name is definitely free, otherwise asks the database
+     */
+    public boolean isDisplayNameAvailable(String displayName) {
+        if (ready && !takenDisplayNames.mightContain(normalizeDisplayName(displayName))) {
+            return true;
+        }
+        return !userRepository.existsByDisplayName(displayName.trim());
+    }
+
+    /**
+     * Record a saved user so the filters keep reporting its email and display name as taken
+     */
+    public void recordUser(User user) {
+        takenEmails.put(normalizeEmail(user.getEmail()));
+        takenDisplayNames.put(normalizeDisplayName(user.getDisplayName()));
+    }
+
+    /**
+     * Translate a unique constraint violation on the users table into a user-facing message
+     * @return the error message, or null if the violation is not an email/display name conflict
+     */
+    public String conflictMessage(DataIntegrityViolationException e) {
+        String constraint = null;
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                constraint = violation.getConstraintName();
+                break;
+            }
+        }
+
+        // Fall back to the driver message when the dialect could not extract the name
+        String source = (constraint != null ? constraint : String.valueOf(e.getMostSpecificCause().getMessage()))
+                .toLowerCase(Locale.ROOT);
+
+        if (source.contains(EMAIL_CONSTRAINT)) {
+            return EMAIL_TAKEN_MESSAGE;
+        }
+        if (source.contains(DISPLAY_NAME_CONSTRAINT)) {
+            return DISPLAY_NAME_TAKEN_MESSAGE;
+        }
+        return null;
+    }
+
+    /**
+     * Normalize an email the same way registration stores it
+     */
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Display names compare case-insensitively in the database collation
+    private static String normalizeDisplayName(String displayName) {
+        return displayName.trim().toLowerCase(Locale.ROOT);
+    }
+}
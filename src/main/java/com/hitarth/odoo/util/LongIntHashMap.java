@@ -0,0 +1,146 @@
+package com.hitarth.odoo.util;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from long keys to int values, for counting without boxing.
+ * Keys and values sit in two flat arrays probed linearly, the table doubles at half load.
+ * Key 0 marks an empty slot and cannot be stored. Not thread-safe.
+ */
+public class LongIntHashMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * @param expectedSize number of keys held without resizing
+     */
+    public LongIntHashMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    /**
+     * Add to a key's value, a missing key starts at 0
+     * @return the new value
+     */
+    public int addTo(long key, int delta) {
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            return values[slot] += delta;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > (mask + 1) >>> 1) {
+            resize();
+        }
+        return delta;
+    }
+
+    /**
+     * Set a key's value
+     */
+    public void put(long key, int value) {
+        int slot = slot(key);
+        values[slot] = value;
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            if (++size > (mask + 1) >>> 1) {
+                resize();
+            }
+        }
+    }
+
+    /**
+     * @return the key's value, or missing if the key is not in the map
+     */
+    public int get(long key, int missing) {
+        int slot = slot(key);
+        return keys[slot] == key ? values[slot] : missing;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every key, keeping the table for reuse
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, 0L);
+            size = 0;
+        }
+    }
+
+    /**
+     * Visit every key and value, in no particular order
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                visitor.visit(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Receives the entries of {@link #forEach}
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(long key, int value);
+    }
+
+    // Slot holding the key, or the empty slot where it belongs
+    private int slot(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    static int tableSize(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Map too large: " + expectedSize);
+        }
+        return capacity;
+    }
+
+    // Murmur3 finalizer: sequential IDs spread over the whole table
+    static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,81 @@
+package com.hitarth.odoo.util;
+
+/**
+ * Open addressing hash map from long keys to objects, without boxing the keys.
+ * Probing and sizing follow {@link LongIntHashMap}: key 0 marks an empty slot and cannot be stored,
+ * null values are not allowed. Not thread-safe.
+ */
+public class LongObjectHashMap<V> {
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * @param expectedSize number of keys held without resizing
+     */
+    public LongObjectHashMap(int expectedSize) {
+        allocate(LongIntHashMap.tableSize(expectedSize));
+    }
+
+    /**
+     * Set a key's value
+     */
+    public void put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not allowed");
+        }
+        int slot = slot(key);
+        values[slot] = value;
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            if (++size > (mask + 1) >>> 1) {
+                resize();
+            }
+        }
+    }
+
+    /**
+     * @return the key's value, or null if the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = slot(key);
+        return keys[slot] == key ? (V) values[slot] : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int slot = LongIntHashMap.mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+}
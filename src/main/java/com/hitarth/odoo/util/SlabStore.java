@@ -0,0 +1,205 @@
+package com.hitarth.odoo.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Byte records keyed by a long ID, kept off-heap in direct {@link ByteBuffer} slabs.
+ * Records live in power-of-two slots; a record that still fits its slot is rewritten in place,
+ * otherwise it moves and the old slot is recycled. Total slab memory never exceeds the budget.
+ * Writers are serialized, readers copy without locking and retry only if a write overlapped.
+ */
+public class SlabStore {
+
+    private static final int MIN_SLOT_BYTES = 64;
+
+    private final int slabBytes;
+    private final int maxSlabs;
+    private final int maxRecordBytes;
+
+    private final StampedLock lock = new StampedLock();
+    private final ConcurrentHashMap<Long, Slot> index = new ConcurrentHashMap<>();
+    // Free slots per size class (slot bytes = MIN_SLOT_BYTES << class)
+    private final ArrayDeque<Slot>[] freeSlots;
+
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    private int slabPosition;
+    private volatile long recordBytes;
+
+    /**
+     * Create an empty store, slabs are allocated as records arrive
+     * @param budgetBytes upper bound for all slabs together
+     * @param slabBytes size of one slab, a power of two
+     * @param maxRecordBytes largest accepted record, at most one slab
+     */
+    @SuppressWarnings("unchecked")
+    public SlabStore(long budgetBytes, int slabBytes, int maxRecordBytes) {
+        if (slabBytes < MIN_SLOT_BYTES || Integer.bitCount(slabBytes) != 1) {
+            throw new IllegalArgumentException("slabBytes must be a power of two of at least " + MIN_SLOT_BYTES);
+        }
+        if (budgetBytes < slabBytes) {
+            throw new IllegalArgumentException("Budget must hold at least one slab");
+        }
+        if (maxRecordBytes <= 0 || maxRecordBytes > slabBytes) {
+            throw new IllegalArgumentException("maxRecordBytes must be between 1 and the slab size");
+        }
+        this.slabBytes = slabBytes;
+        this.maxSlabs = (int) Math.min(Integer.MAX_VALUE, budgetBytes / slabBytes);
+        this.maxRecordBytes = maxRecordBytes;
+        this.freeSlots = new ArrayDeque[sizeClass(slabBytes) + 1];
+        for (int i = 0; i < freeSlots.length; i++) {
+            freeSlots[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Store or replace a record
+     * @return false if the record is too large or the budget is exhausted, the previous record is then removed
+     */
+    public boolean put(long id, byte[] record) {
+        long stamp = lock.writeLock();
+        try {
+            Slot current = index.get(id);
+            if (record.length > maxRecordBytes) {
+                release(id, current);
+                return false;
+            }
+
+            Slot slot;
+            if (current != null && record.length <= current.capacity) {
+                slot = new Slot(current.slab, current.offset, current.capacity, record.length);
+            } else {
+                Slot free = allocate(record.length);
+                if (free == null) {
+                    release(id, current);
+                    return false;
+                }
+                slot = new Slot(free.slab, free.offset, free.capacity, record.length);
+                if (current != null) {
+                    freeSlots[sizeClass(current.capacity)].push(current);
+                }
+            }
+
+            slabs[slot.slab].put(slot.offset, record);
+            index.put(id, slot);
+            recordBytes += record.length - (current != null ? current.length : 0);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove a record, its slot is reused by later writes
+     */
+    public void remove(long id) {
+        long stamp = lock.writeLock();
+        try {
+            release(id, index.get(id));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Copy a record into the buffer
+     * @param buffer at least {@link #getMaxRecordBytes()} long
+     * @return the record length, or -1 if there is no record for the ID
+     */
+    public int read(long id, byte[] buffer) {
+        long stamp = lock.tryOptimisticRead();
+        Slot slot = index.get(id);
+        if (slot == null) {
+            return -1;
+        }
+        ByteBuffer[] current = slabs;
+        if (stamp != 0 && slot.slab < current.length) {
+            current[slot.slab].get(slot.offset, buffer, 0, slot.length);
+            // No write since the stamp means the slot was neither rewritten nor handed to another record
+            if (lock.validate(stamp)) {
+                return slot.length;
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            slot = index.get(id);
+            if (slot == null) {
+                return -1;
+            }
+            slabs[slot.slab].get(slot.offset, buffer, 0, slot.length);
+            return slot.length;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean contains(long id) {
+        return index.containsKey(id);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Bytes held by the stored records
+     */
+    public long getRecordBytes() {
+        return recordBytes;
+    }
+
+    /**
+     * Off-heap bytes reserved by slabs
+     */
+    public long getReservedBytes() {
+        return (long) slabs.length * slabBytes;
+    }
+
+    public int getMaxRecordBytes() {
+        return maxRecordBytes;
+    }
+
+    private void release(long id, Slot slot) {
+        if (slot != null) {
+            index.remove(id);
+            freeSlots[sizeClass(slot.capacity)].push(slot);
+            recordBytes -= slot.length;
+        }
+    }
+
+    // Reuse a free slot of the size class, else carve one from the current slab, else open a new slab
+    private Slot allocate(int length) {
+        int sizeClass = sizeClass(length);
+        Slot free = freeSlots[sizeClass].poll();
+        if (free != null) {
+            return free;
+        }
+
+        int capacity = MIN_SLOT_BYTES << sizeClass;
+        ByteBuffer[] current = slabs;
+        if (current.length == 0 || slabPosition + capacity > slabBytes) {
+            if (current.length == maxSlabs) {
+                return null;
+            }
+            ByteBuffer[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = ByteBuffer.allocateDirect(slabBytes);
+            slabs = grown;
+            slabPosition = 0;
+        }
+        Slot slot = new Slot(slabs.length - 1, slabPosition, capacity, 0);
+        slabPosition += capacity;
+        return slot;
+    }
+
+    private static int sizeClass(int length) {
+        int slotBytes = Math.max(MIN_SLOT_BYTES, Integer.highestOneBit(Math.max(1, length - 1)) << 1);
+        return Integer.numberOfTrailingZeros(slotBytes / MIN_SLOT_BYTES);
+    }
+
+    private record Slot(int slab, int offset, int capacity, int length) {
+    }
+}
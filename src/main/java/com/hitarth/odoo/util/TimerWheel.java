@@ -0,0 +1,94 @@
+package com.hitarth.odoo.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: timeouts are dropped into one of a fixed ring of buckets by their deadline tick,
+ * and each tick only looks at its own bucket. Scheduling is O(1) and an advance costs the number of
+ * timeouts in the passed buckets, however many timeouts are pending in total.
+ * Deadlines further away than one revolution wait in their bucket for the remaining rounds.
+ * {@link #schedule} may be called from any thread, {@link #advance} from a single thread only.
+ * Timeouts cannot be cancelled: the expiry handler checks whether the timeout still applies.
+ */
+public class TimerWheel<T> {
+
+    private final long tickMs;
+    private final ArrayDeque<Timeout<T>>[] buckets;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Timeout<T>> incoming = new ConcurrentLinkedQueue<>();
+
+    // Next tick to expire, in ticks since the epoch
+    private long tick;
+
+    /**
+     * @param tickMs resolution, timeouts fire up to one tick late
+     * @param wheelSize number of buckets, rounded up to a power of two
+     * @param startMillis current time, the first tick to expire
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMs, int wheelSize, long startMillis) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMs = tickMs;
+        this.buckets = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = size - 1;
+        this.tick = startMillis / tickMs;
+    }
+
+    /**
+     * Expire an item at the deadline (or at the next tick, when the deadline already passed)
+     */
+    public void schedule(T item, long deadlineMillis) {
+        // Rounded up, a timeout never fires early
+        incoming.add(new Timeout<>(item, Math.floorDiv(deadlineMillis + tickMs - 1, tickMs)));
+    }
+
+    /**
+     * Expire every timeout due by now, in tick order
+     * @return the number of expired items
+     */
+    public int advance(long nowMillis, Consumer<T> expired) {
+        transferIncoming();
+        long nowTick = nowMillis / tickMs;
+        int count = 0;
+        // After a long pause one revolution visits every bucket, the rounds take care of the rest
+        long lastTick = Math.min(nowTick, tick + buckets.length - 1);
+        long skipped = nowTick - lastTick;
+        for (; tick <= lastTick; tick++) {
+            ArrayDeque<Timeout<T>> bucket = buckets[(int) (tick & mask)];
+            int size = bucket.size();
+            for (int i = 0; i < size; i++) {
+                Timeout<T> timeout = bucket.pollFirst();
+                if (timeout.deadlineTick() <= nowTick) {
+                    expired.accept(timeout.item());
+                    count++;
+                } else {
+                    bucket.addLast(timeout);
+                }
+            }
+        }
+        tick += skipped;
+        return count;
+    }
+
+    private void transferIncoming() {
+        Timeout<T> timeout;
+        while ((timeout = incoming.poll()) != null) {
+            // Overdue timeouts go into the next bucket to expire
+            long target = Math.max(timeout.deadlineTick(), tick);
+            buckets[(int) (target & mask)].addLast(timeout);
+        }
+    }
+
+    private record Timeout<I>(I item, long deadlineTick) {
+    }
+}
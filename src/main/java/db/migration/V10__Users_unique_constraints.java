@@ -0,0 +1,94 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Gives databases baselined at V1 the named unique keys of users that V1 creates for new databases.
+ * Those databases come from sql/complete-schema.sql or ddl-auto and have an auto-named UNIQUE index on email
+ * (or a Hibernate UK_... one) and plain indexes on email and display_name. Registration relies on
+ * uk_users_email and uk_users_display_name to reject duplicates and name the conflict, so every other
+ * single-column index on those columns is replaced by them. Existing duplicates stop the migration
+ * with the offending values, they have to be resolved by hand.
+ * Written in Java because MySQL has no DROP INDEX IF EXISTS; H2 databases are always created from V1.
+ */
+public class V10__Users_unique_constraints extends BaseJavaMigration {
+
+    private static final String USERS_INDEXES = "SELECT s.index_name, s.column_name FROM information_schema.statistics s "
+            + "WHERE s.table_schema = DATABASE() AND s.table_name = 'users' ORDER BY s.index_name, s.seq_in_index";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (!connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql")) {
+            return;
+        }
+        Map<String, List<String>> indexes = usersIndexes(connection);
+        replaceIndexes(connection, indexes, "email", "uk_users_email");
+        replaceIndexes(connection, indexes, "display_name", "uk_users_display_name");
+    }
+
+    private static void replaceIndexes(Connection connection, Map<String, List<String>> indexes, String column,
+                                       String constraint) throws SQLException {
+        StringJoiner changes = new StringJoiner(", ");
+        boolean present = false;
+        for (Map.Entry<String, List<String>> index : indexes.entrySet()) {
+            if (!index.getValue().equals(List.of(column))) {
+                continue;
+            }
+            if (index.getKey().equalsIgnoreCase(constraint)) {
+                present = true;
+            } else {
+                changes.add("DROP INDEX `" + index.getKey() + "`");
+            }
+        }
+        if (!present) {
+            checkNoDuplicates(connection, column);
+            changes.add("ADD CONSTRAINT " + constraint + " UNIQUE (" + column + ")");
+        }
+        if (changes.length() > 0) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE users " + changes);
+            }
+        }
+    }
+
+    private static void checkNoDuplicates(Connection connection, String column) throws SQLException {
+        List<String> duplicates = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + column + " FROM users GROUP BY "
+                + column + " HAVING COUNT(*) > 1 LIMIT 10");
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                duplicates.add(rs.getString(1));
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            throw new IllegalStateException("users." + column + " has duplicates, resolve them before migrating: "
+                    + duplicates);
+        }
+    }
+
+    private static Map<String, List<String>> usersIndexes(Connection connection) throws SQLException {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(USERS_INDEXES);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                indexes.computeIfAbsent(rs.getString(1), name -> new ArrayList<>())
+                        .add(rs.getString(2).toLowerCase(Locale.ROOT));
+            }
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,3 @@
+-- Change times to the millisecond, set by the database in the INSERT. Whole seconds made later changes look
+-- as old as earlier ones, and the JVM clock of each instance could put a change before one with a lower id.
+ALTER TABLE product_changes MODIFY changed_at TIMESTAMP(3) NOT NULL;
@@ -0,0 +1,18 @@
+-- Composite indexes for the repository query shapes.
+-- Listings filter is_active AND is_sold and order by created_at, so the equality columns come first
+-- and the sort column last; id makes the order total for keyset paging.
+
+-- Active listing, paged listing and keyword search (LIKE '%..%' is filtered inside this index range)
+CREATE INDEX idx_products_active_listing ON products (is_active, is_sold, created_at, id);
+
+-- Category listing and keyword search within a category
+CREATE INDEX idx_products_category_listing ON products (category, is_active, is_sold, created_at);
+
+-- Seller dashboard (all or active products) and seller counts, also backs fk_products_seller
+CREATE INDEX idx_products_seller_listing ON products (seller_id, is_active, created_at);
+
+-- Purchase history newest first, also backs fk_purchases_user
+CREATE INDEX idx_purchases_user_date ON purchases (user_id, purchase_date);
+
+-- Cart contents newest first (the unique (user_id, product_id) key serves single item lookups)
+CREATE INDEX idx_cart_items_user_added ON cart_items (user_id, added_at);
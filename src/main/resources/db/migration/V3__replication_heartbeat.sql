@@ -0,0 +1,7 @@
+-- Heartbeat written to the primary and read back from the read replica to measure replication lag
+CREATE TABLE replication_heartbeat (
+    id INT PRIMARY KEY,
+    beat_millis BIGINT NOT NULL
+) ENGINE=InnoDB;
+
+INSERT INTO replication_heartbeat (id, beat_millis) VALUES (1, 0);
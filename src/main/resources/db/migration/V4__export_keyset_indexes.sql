@@ -0,0 +1,8 @@
+-- Keyset paging for the seller listing and purchase history exports: each page continues after the last id seen,
+-- so the owner column is followed by id and a page is a short range scan instead of a sort of the whole history.
+
+-- Seller listing export (all products of a seller, in id order)
+CREATE INDEX idx_products_seller_id ON products (seller_id, id);
+
+-- Purchase history export (purchases of a user in id order, items follow through idx_purchase_items_purchase)
+CREATE INDEX idx_purchases_user_id ON purchases (user_id, id);
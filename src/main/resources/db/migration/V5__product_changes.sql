@@ -0,0 +1,11 @@
+-- Change log behind GET /api/products/changes: one row per product write, inserted in the writing transaction.
+-- The id is the change token clients resume from; rows superseded by a newer change of the same product are
+-- compacted away, so the table holds at most one row per changed product plus the recent history.
+CREATE TABLE product_changes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    change_type VARCHAR(20) NOT NULL,
+    changed_at TIMESTAMP NOT NULL,
+    INDEX idx_product_changes_product (product_id, id),
+    INDEX idx_product_changes_changed (changed_at, id)
+) ENGINE=InnoDB;
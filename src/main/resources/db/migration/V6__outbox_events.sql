@@ -0,0 +1,11 @@
+-- Transactional outbox: side effects of product and purchase writes (card store refresh, stream pushes,
+-- notifications) are recorded here in the writing transaction and delivered by the outbox dispatcher.
+-- Rows are deleted once every subscriber handled them, so the table only holds the undelivered backlog.
+CREATE TABLE outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    aggregate_type VARCHAR(30) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(40) NOT NULL,
+    payload TEXT,
+    created_at TIMESTAMP NOT NULL
+) ENGINE=InnoDB;
@@ -0,0 +1,19 @@
+-- Outgoing e-mail, rendered when queued and sent in batches by the mail sender. Failed sends are retried with
+-- backoff and end up DEAD after the last attempt; SENT rows are kept for a while so a redelivered outbox event
+-- does not send the same mail twice (dedupe_key).
+CREATE TABLE mail_queue (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    dedupe_key VARCHAR(100) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    status VARCHAR(10) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    UNIQUE KEY uk_mail_queue_dedupe (dedupe_key),
+    INDEX idx_mail_queue_due (status, next_attempt_at, id),
+    INDEX idx_mail_queue_updated (status, updated_at)
+) ENGINE=InnoDB;
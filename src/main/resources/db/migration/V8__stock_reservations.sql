@@ -0,0 +1,11 @@
+-- Cart reservations: units of a product held for a user's cart until expires_at. The reservation service keeps
+-- them in memory and expires them on a timer wheel; these rows are reloaded on startup.
+CREATE TABLE stock_reservations (
+    product_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (product_id, user_id),
+    INDEX idx_stock_reservations_user (user_id),
+    INDEX idx_stock_reservations_expires (expires_at)
+) ENGINE=InnoDB;
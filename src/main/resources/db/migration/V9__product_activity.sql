@@ -0,0 +1,10 @@
+-- Listing views and cart additions per product and time bucket. The trending service counts them in memory
+-- and adds each bucket's counts here in batches; recent buckets are reloaded on startup.
+CREATE TABLE product_activity (
+    product_id BIGINT NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    views BIGINT NOT NULL DEFAULT 0,
+    cart_adds BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (product_id, bucket_start),
+    INDEX idx_product_activity_bucket (bucket_start)
+) ENGINE=InnoDB;
@@ -17,13 +17,13 @@ SET FOREIGN_KEY_CHECKS = 1;
 CREATE TABLE users (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     display_name VARCHAR(100) NOT NULL,
-    email VARCHAR(255) NOT NULL UNIQUE,
+    email VARCHAR(255) NOT NULL,
     password_hash VARCHAR(255) NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     is_active BOOLEAN DEFAULT TRUE,
-    INDEX idx_email (email),
-    INDEX idx_display_name (display_name)
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_display_name UNIQUE (display_name)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- Insert test users with fresh password hashes
@@ -0,0 +1,16 @@
+-- Drops the single-column indexes created by complete-schema.sql once the
+-- composite indexes from db/migration/V2__composite_indexes.sql exist.
+-- Optional: run manually on databases that predate the migrations.
+-- Indexes backing a foreign key can only be dropped after V2 created a replacement.
+
+ALTER TABLE products DROP INDEX idx_category;
+ALTER TABLE products DROP INDEX idx_seller_id;
+ALTER TABLE products DROP INDEX idx_is_active;
+ALTER TABLE products DROP INDEX idx_is_sold;
+ALTER TABLE products DROP INDEX idx_created_at;
+ALTER TABLE products DROP INDEX idx_title;
+
+ALTER TABLE cart_items DROP INDEX idx_user_id;
+
+ALTER TABLE purchases DROP INDEX idx_user_id;
+ALTER TABLE purchases DROP INDEX idx_purchase_date;
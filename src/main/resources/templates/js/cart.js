@@ -12,6 +12,7 @@ class CartManager {
         this.checkAuth();
         this.bindEvents();
         this.loadCartFromDatabase();
+        this.watchCartProducts();
     }
 
     // Check if user is authenticated
@@ -55,6 +56,35 @@ class CartManager {
         }
     }
 
+    // Keep prices current and warn about sold items from the listing change stream, without polling
+    watchCartProducts() {
+        if (!window.EventSource || !this.userId) return;
+
+        const findItem = (event) => {
+            const { id, card } = JSON.parse(event.data);
+            return { item: this.cart.find(item => item.productId === id), card };
+        };
+        const unavailable = (event) => {
+            const { item } = findItem(event);
+            if (item && !this.checkingOut) {
+                sharedUtils.showMessage(`${item.productTitle} is no longer available`, 'warning');
+            }
+        };
+
+        const changes = new EventSource('/api/products/stream');
+        changes.addEventListener('updated', (event) => {
+            const { item, card } = findItem(event);
+            if (item) {
+                item.productTitle = card.title;
+                item.productPrice = card.price;
+                this.renderCart();
+            }
+        });
+        changes.addEventListener('sold', unavailable);
+        changes.addEventListener('deactivated', unavailable);
+        changes.addEventListener('resync', () => this.loadCartFromDatabase());
+    }
+
     // Update cart count in header
     updateCartCount() {
         const cartCount = this.cart.reduce((total, item) => total + item.quantity, 0);
@@ -259,6 +289,7 @@ class CartManager {
             return;
         }
 
+        this.checkingOut = true;
         try {
             const response = await sharedUtils.makeApiCall(
                 `/api/purchases/checkout/${this.userId}`,
@@ -273,9 +304,11 @@ class CartManager {
                     window.location.href = '/purchases.html';
                 }, 2000);
             } else {
+                this.checkingOut = false;
                 sharedUtils.showMessage(response.message || 'Checkout failed', 'error');
             }
         } catch (error) {
+            this.checkingOut = false;
             console.error('Error during checkout:', error);
             sharedUtils.showMessage('Checkout failed. Please try again.', 'error');
         }
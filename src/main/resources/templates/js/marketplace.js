@@ -13,6 +13,7 @@ class MarketplaceManager {
     init() {
         this.bindEvents();
         this.loadProducts();
+        this.subscribeToChanges();
         this.updateCartDisplay();
     }
 
@@ -67,17 +68,55 @@ class MarketplaceManager {
         }
     }
 
+    // Apply listing changes pushed by the server, the list is only fetched again after missed events
+    subscribeToChanges() {
+        if (!window.EventSource) return;
+
+        const upsert = (event) => {
+            const { id, card } = JSON.parse(event.data);
+            const index = this.products.findIndex(p => p.id === id);
+            if (index >= 0) {
+                this.products[index] = card;
+            } else {
+                this.products.unshift(card);
+            }
+            this.filterProducts();
+        };
+        const remove = (event) => {
+            const { id } = JSON.parse(event.data);
+            const count = this.products.length;
+            this.products = this.products.filter(p => p.id !== id);
+            if (this.products.length !== count) {
+                this.filterProducts();
+            }
+        };
+
+        const changes = new EventSource('/api/products/stream');
+        changes.addEventListener('created', upsert);
+        changes.addEventListener('updated', upsert);
+        changes.addEventListener('sold', remove);
+        changes.addEventListener('deactivated', remove);
+        // The server dropped events for this connection, or it reconnected after a drop
+        changes.addEventListener('resync', () => this.loadProducts());
+        changes.onopen = () => {
+            if (this.streamOpened) {
+                this.loadProducts();
+            }
+            this.streamOpened = true;
+        };
+    }
+
     // Filter products based on search and category
     filterProducts() {
         this.filteredProducts = this.products.filter(product => {
             // Category filter
             const categoryMatch = this.currentCategory === 'all' || product.category === this.currentCategory;
             
-            // Search filter
-            const searchMatch = !this.searchKeyword || 
-                product.title.toLowerCase().includes(this.searchKeyword.toLowerCase()) ||
-                (product.description && product.description.toLowerCase().includes(this.searchKeyword.toLowerCase())) ||
-                (product.brand && product.brand.toLowerCase().includes(this.searchKeyword.toLowerCase()));
+            // Search filter: title and brand, like the server-side search
+            const keyword = this.searchKeyword.toLowerCase();
+            const searchMatch = !keyword || 
+                product.title.toLowerCase().includes(keyword) ||
+                (product.brand && product.brand.toLowerCase().includes(keyword));
             
             return categoryMatch && searchMatch;
         });
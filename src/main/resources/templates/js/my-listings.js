@@ -76,11 +76,12 @@ class MyListingsManager {
                 statusMatch = product.isSold;
             }
             
-            // Search filter
-            const searchMatch = !this.searchKeyword || 
-                product.title.toLowerCase().includes(this.searchKeyword.toLowerCase()) ||
-                (product.description && product.description.toLowerCase().includes(this.searchKeyword.toLowerCase())) ||
-                (product.brand && product.brand.toLowerCase().includes(this.searchKeyword.toLowerCase()));
+            // Search filter (the seller's cards carry brand and description)
+            const keyword = this.searchKeyword.toLowerCase();
+            const searchMatch = !keyword || 
+                product.title.toLowerCase().includes(keyword) ||
+                (product.description && product.description.toLowerCase().includes(keyword)) ||
+                (product.brand && product.brand.toLowerCase().includes(keyword));
             
             return statusMatch && searchMatch;
         });
@@ -0,0 +1,157 @@
+package com.hitarth.odoo.datasource;
+
+import com.hitarth.odoo.dto.ProductResponse;
+import com.hitarth.odoo.model.User;
+import com.hitarth.odoo.repository.UserRepository;
+import com.hitarth.odoo.service.ProductChangeService;
+import com.hitarth.odoo.service.ProductService;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two in-memory databases stand in for primary and replica. They do not replicate, so the
+ * replica gets its own marker product and heartbeat, which shows where each read was served from.
+ */
+@SpringBootTest(properties = {
+        "app.test.database=routing-primary",
+        "app.datasource.replica.jdbc-url=jdbc:h2:mem:routing-replica;${app.test.h2-options}",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password=",
+        // Refreshed by the tests
+        "app.datasource.routing.heartbeat-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadWriteRoutingTests {
+
+    private static final String REPLICA_TITLE = "Served by the replica";
+    private static final long REPLICA_CHANGE_TOKEN = 1_000_000;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductChangeService productChangeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private JdbcTemplate replica;
+
+    @BeforeAll
+    void seedReplica() {
+        Flyway.configure().dataSource(replicaDataSource).load().migrate();
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.update("INSERT INTO users (display_name, email, password_hash) VALUES ('replica', 'replica@ecofinds.test', 'hash')");
+        replica.update("INSERT INTO products (title, category, price, seller_id) "
+                + "SELECT ?, 'Books', 10.00, id FROM users WHERE email = 'replica@ecofinds.test'", REPLICA_TITLE);
+        replica.update("INSERT INTO product_changes (id, product_id, change_type, changed_at) "
+                + "VALUES (?, 1, 'updated', TIMESTAMPADD(HOUR, -1, CURRENT_TIMESTAMP))", REPLICA_CHANGE_TOKEN);
+    }
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        replicaHeartbeat(System.currentTimeMillis());
+
+        assertTrue(lagMonitor.isReplicaUsable());
+        assertTrue(servedByReplica());
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        replicaHeartbeat(System.currentTimeMillis() - 60_000);
+
+        assertFalse(lagMonitor.isReplicaUsable());
+        assertFalse(servedByReplica());
+    }
+
+    @Test
+    void writePinsTheClientToPrimary() {
+        replicaHeartbeat(System.currentTimeMillis());
+        MockHttpServletResponse response = bindRequest(new MockHttpServletRequest());
+
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.save(new User("writer-" + System.nanoTime(), System.nanoTime() + "@ecofinds.test", "hash")));
+
+        // Later reads in the same request and the next request with the cookie both stay on the primary
+        assertFalse(servedByReplica());
+        String setCookie = response.getHeader(HttpHeaders.SET_COOKIE);
+        assertNotNull(setCookie);
+        assertTrue(setCookie.startsWith(ReadYourWrites.COOKIE_NAME + "="));
+
+        MockHttpServletRequest next = new MockHttpServletRequest();
+        next.setCookies(new Cookie(ReadYourWrites.COOKIE_NAME, setCookie.substring(
+                setCookie.indexOf('=') + 1, setCookie.indexOf(';'))));
+        bindRequest(next);
+        assertFalse(servedByReplica());
+
+        MockHttpServletRequest expired = new MockHttpServletRequest();
+        expired.setCookies(new Cookie(ReadYourWrites.COOKIE_NAME, String.valueOf(System.currentTimeMillis() - 1)));
+        bindRequest(expired);
+        assertTrue(servedByReplica());
+    }
+
+    @Test
+    void changeFeedReadsThePrimary() {
+        replicaHeartbeat(System.currentTimeMillis());
+
+        // A usable replica still must not hand out tokens, the replica-only change stays unseen
+        assertTrue(servedByReplica());
+        assertNotEquals(String.valueOf(REPLICA_CHANGE_TOKEN), productChangeService.getCurrentToken());
+        assertNotEquals(String.valueOf(REPLICA_CHANGE_TOKEN), productChangeService.getChangesSince("0", null).getNextToken());
+    }
+
+    private boolean servedByReplica() {
+        List<ProductResponse> products = productService.getProductsByCategory("Books");
+        return products.stream().anyMatch(product -> REPLICA_TITLE.equals(product.getTitle()));
+    }
+
+    private void replicaHeartbeat(long beatMillis) {
+        replica.update("UPDATE replication_heartbeat SET beat_millis = ? WHERE id = 1", beatMillis);
+        lagMonitor.refresh();
+    }
+
+    private static MockHttpServletResponse bindRequest(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        return response;
+    }
+}
@@ -0,0 +1,53 @@
+package com.hitarth.odoo.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryShapeProfilerTests {
+
+    @Autowired
+    private QueryShapeProfiler profiler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void interleavedResultSetsCountTheirOwnRows() {
+        String prefix = "shape-rows-" + System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("INSERT INTO users (display_name, email, password_hash) VALUES (?, ?, 'hash')",
+                    prefix + "-outer-" + i, prefix + "-outer-" + i + "@ecofinds.test");
+        }
+        for (int i = 0; i < 2; i++) {
+            jdbcTemplate.update("INSERT INTO users (display_name, email, password_hash) VALUES (?, ?, 'hash')",
+                    prefix + "-inner-" + i, prefix + "-inner-" + i + "@ecofinds.test");
+        }
+        profiler.reset();
+
+        // Like a lazy load while the outer result set is still being read
+        jdbcTemplate.query("SELECT u.id AS outer_id FROM users u WHERE u.email LIKE ?", rs -> {
+            if (rs.getRow() == 1) {
+                jdbcTemplate.query("SELECT u.id AS inner_id FROM users u WHERE u.email LIKE ?", inner -> {
+                }, prefix + "-inner-%");
+            }
+        }, prefix + "-outer-%");
+
+        assertEquals(3L, rowsOf("outer_id"));
+        assertEquals(2L, rowsOf("inner_id"));
+    }
+
+    private Object rowsOf(String column) {
+        return profiler.topShapes(Integer.MAX_VALUE, "total").stream()
+                .filter(shape -> ((String) shape.get("shape")).contains(column))
+                .map(shape -> shape.get("rows"))
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,67 @@
+package com.hitarth.odoo.monitoring;
+
+import com.hitarth.odoo.model.Product;
+import com.hitarth.odoo.model.User;
+import com.hitarth.odoo.repository.ProductRepository;
+import com.hitarth.odoo.repository.UserRepository;
+import com.hitarth.odoo.service.CartService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionTimingAspectTests {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void onlyTheOutermostTransactionIsTimed() {
+        String prefix = "timing-" + System.nanoTime();
+        User seller = userRepository.save(new User(prefix + "-seller", prefix + "-seller@ecofinds.test", "hash"));
+        User buyer = userRepository.save(new User(prefix + "-buyer", prefix + "-buyer@ecofinds.test", "hash"));
+        Product vase = new Product("Glass vase", "No chips", "Home", new BigDecimal("12.00"), seller);
+        vase.setQuantity(2);
+        vase = productRepository.save(vase);
+        long commits = count("CartService", "addToCart", "commit");
+        long rollbacks = count("CartService", "addToCart", "rollback");
+
+        cartService.addToCart(buyer.getId(), vase.getId(), 1);
+        cartService.addToCart(buyer.getId(), vase.getId(), 1);
+        Long vaseId = vase.getId();
+        assertThrows(RuntimeException.class, () -> cartService.addToCart(buyer.getId(), vaseId, 1));
+
+        assertEquals(commits + 2, count("CartService", "addToCart", "commit"));
+        assertEquals(rollbacks + 1, count("CartService", "addToCart", "rollback"));
+        // The reservation joins the cart's transaction and is not timed on its own
+        assertNull(meterRegistry.find("app.transaction").tag("class", "ReservationService").timer());
+    }
+
+    private long count(String className, String methodName, String outcome) {
+        Timer timer = meterRegistry.find("app.transaction")
+                .tag("class", className)
+                .tag("method", methodName)
+                .tag("outcome", outcome)
+                .timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
@@ -0,0 +1,461 @@
+package com.hitarth.odoo.repository;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.hitarth.odoo.model.CartItem;
+import com.hitarth.odoo.model.Product;
+import com.hitarth.odoo.model.Purchase;
+import com.hitarth.odoo.model.PurchaseItem;
+import com.hitarth.odoo.model.User;
+import com.hitarth.odoo.outbox.OutboxEvent;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs every repository query against the migrated schema (H2 in MySQL mode) and EXPLAINs
+ * each statement it issues with the bound parameters. Fails when a plan falls back to a full table scan.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryQueryPlanTests {
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            ProductRepository.class, ProductCardRepository.class, CartItemRepository.class, PurchaseRepository.class,
+            PurchaseItemRepository.class, UserRepository.class, ExportRepository.class, ProductChangeRepository.class,
+            OutboxRepository.class, MailQueueRepository.class, StockReservationRepository.class,
+            RecommendationRepository.class, CoPurchaseRepository.class, ProductActivityRepository.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCardRepository productCardRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private PurchaseItemRepository purchaseItemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExportRepository exportRepository;
+
+    @Autowired
+    private ProductChangeRepository productChangeRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private MailQueueRepository mailQueueRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private RecommendationRepository recommendationRepository;
+
+    @Autowired
+    private CoPurchaseRepository coPurchaseRepository;
+
+    @Autowired
+    private ProductActivityRepository productActivityRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CapturingListener capture;
+
+    private final Set<String> covered = new TreeSet<>();
+    private final List<String> failures = new ArrayList<>();
+
+    private User seller;
+    private User buyer;
+    private Product product;
+    private Purchase purchase;
+
+    @BeforeAll
+    void seed() {
+        String prefix = "plan-" + System.nanoTime();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            users.add(new User(prefix + "-user-" + i, prefix + "-" + i + "@ecofinds.test", "hash"));
+        }
+        userRepository.saveAll(users);
+        seller = users.get(0);
+        buyer = users.get(1);
+
+        List<Product> products = new ArrayList<>();
+        String[] categories = {"Electronics", "Furniture", "Books", "Clothing", "Sports"};
+        for (int i = 0; i < 300; i++) {
+            Product p = new Product("Item " + i, "Seeded for query plans", categories[i % categories.length],
+                    BigDecimal.valueOf(10 + i), users.get(i % users.size()));
+            p.setIsActive(i % 10 != 0);
+            p.setIsSold(i % 7 == 0);
+            p.setCreatedAt(LocalDateTime.now().minusMinutes(i));
+            products.add(p);
+        }
+        productRepository.saveAll(products);
+        product = products.get(1);
+
+        cartItemRepository.save(new CartItem(buyer, product, 1));
+        cartItemRepository.save(new CartItem(buyer, products.get(2), 2));
+
+        purchase = purchaseRepository.save(new Purchase(buyer, BigDecimal.valueOf(21)));
+        purchaseItemRepository.save(new PurchaseItem(purchase, products.get(3), 1, BigDecimal.valueOf(13)));
+    }
+
+    @Test
+    void repositoryQueriesUseIndexes() {
+        explain(ProductRepository.class, "findByIsActiveTrueAndIsSoldFalseOrderByCreatedAtDesc",
+                () -> productRepository.findByIsActiveTrueAndIsSoldFalseOrderByCreatedAtDesc());
+        explain(ProductRepository.class, "findByIsActiveTrueAndIsSoldFalseOrderByCreatedAtDesc",
+                () -> productRepository.findByIsActiveTrueAndIsSoldFalseOrderByCreatedAtDesc(PageRequest.of(1, 20)));
+        explain(ProductRepository.class, "findByCategoryAndIsActiveTrueAndIsSoldFalseOrderByCreatedAtDesc",
+                () -> productRepository.findByCategoryAndIsActiveTrueAndIsSoldFalseOrderByCreatedAtDesc("Books"));
+        explain(ProductRepository.class, "findByCategoryAndIsActiveTrueAndIsSoldFalseOrderByCreatedAtDesc",
+                () -> productRepository.findByCategoryAndIsActiveTrueAndIsSoldFalseOrderByCreatedAtDesc("Books", PageRequest.of(1, 20)));
+        explain(ProductRepository.class, "findBySellerAndIsActiveTrueOrderByCreatedAtDesc",
+                () -> productRepository.findBySellerAndIsActiveTrueOrderByCreatedAtDesc(seller));
+        explain(ProductRepository.class, "findBySellerOrderByCreatedAtDesc",
+                () -> productRepository.findBySellerOrderByCreatedAtDesc(seller));
+        explain(ProductRepository.class, "findByTitleContainingIgnoreCase",
+                () -> productRepository.findByTitleContainingIgnoreCase("Item 1"));
+        explain(ProductRepository.class, "findByTitleContainingIgnoreCaseAndCategory",
+                () -> productRepository.findByTitleContainingIgnoreCaseAndCategory("Item 1", "Furniture"));
+        explain(ProductRepository.class, "findByIdAndSeller",
+                () -> productRepository.findByIdAndSeller(product.getId(), product.getSeller()));
+        explain(ProductRepository.class, "findByIdAndIsActiveTrue",
+                () -> productRepository.findByIdAndIsActiveTrue(product.getId()));
+        explain(ProductRepository.class, "findActiveListings",
+                () -> productRepository.findActiveListings());
+        explain(ProductRepository.class, "findActiveListingsByCategory",
+                () -> productRepository.findActiveListingsByCategory("Books"));
+        explain(ProductRepository.class, "searchActiveListings",
+                () -> productRepository.searchActiveListings("Item 1"));
+        explain(ProductRepository.class, "searchActiveListingsByCategory",
+                () -> productRepository.searchActiveListingsByCategory("Item 1", "Furniture"));
+        explain(ProductRepository.class, "findListingsBySellerId",
+                () -> productRepository.findListingsBySellerId(seller.getId()));
+        explain(ProductRepository.class, "findImageUrlById",
+                () -> productRepository.findImageUrlById(product.getId()));
+        explain(ProductRepository.class, "updatePriceAndQuantity",
+                () -> transactionTemplate.executeWithoutResult(status -> {
+                    productRepository.updatePriceAndQuantity(product.getId(), product.getSeller().getId(),
+                            BigDecimal.valueOf(12), null, LocalDateTime.now());
+                }));
+        explain(ProductRepository.class, "takeStock",
+                () -> transactionTemplate.executeWithoutResult(status -> {
+                    productRepository.takeStock(product.getId(), 1, LocalDateTime.now());
+                    status.setRollbackOnly();
+                }));
+        explain(ProductRepository.class, "findSellerContactsByIds",
+                () -> productRepository.findSellerContactsByIds(List.of(product.getId(), purchase.getId())));
+        explain(ProductRepository.class, "countBySeller",
+                () -> productRepository.countBySeller(seller));
+        explain(ProductRepository.class, "countBySellerAndIsActiveTrue",
+                () -> productRepository.countBySellerAndIsActiveTrue(seller));
+
+        explain(ProductCardRepository.class, "writeActiveCards",
+                () -> writeCards(json -> productCardRepository.writeActiveCards(json)));
+        explain(ProductCardRepository.class, "writeActiveCardsByCategory",
+                () -> writeCards(json -> productCardRepository.writeActiveCardsByCategory("Books", json)));
+        explain(ProductCardRepository.class, "writeSellerCards",
+                () -> writeCards(json -> productCardRepository.writeSellerCards(seller.getId(), json)));
+        explain(ProductCardRepository.class, "encodeActiveCards",
+                () -> productCardRepository.encodeActiveCards(new JsonFactory(), (id, sellerId, createdAt, category, card) -> { }));
+        explain(ProductCardRepository.class, "encodeActiveSellerCards",
+                () -> productCardRepository.encodeActiveSellerCards(seller.getId(), new JsonFactory(),
+                        (id, sellerId, createdAt, category, card) -> { }));
+        explain(ProductCardRepository.class, "encodeActiveCardsByIds",
+                () -> productCardRepository.encodeActiveCardsByIds(List.of(product.getId()), new JsonFactory(),
+                        (id, sellerId, createdAt, category, card) -> { }));
+        explain(ProductCardRepository.class, "encodeActiveCard",
+                () -> productCardRepository.encodeActiveCard(product.getId(), new JsonFactory(),
+                        (id, sellerId, createdAt, category, card) -> { }));
+
+        explain(CartItemRepository.class, "findByUserOrderByAddedAtDesc",
+                () -> cartItemRepository.findByUserOrderByAddedAtDesc(buyer));
+        explain(CartItemRepository.class, "findByUserAndProduct",
+                () -> cartItemRepository.findByUserAndProduct(buyer, product));
+        explain(CartItemRepository.class, "countByUser",
+                () -> cartItemRepository.countByUser(buyer));
+        explain(CartItemRepository.class, "findByUserWithProduct",
+                () -> cartItemRepository.findByUserWithProduct(buyer));
+        explain(CartItemRepository.class, "findResponsesByUserId",
+                () -> cartItemRepository.findResponsesByUserId(buyer.getId()));
+        explain(CartItemRepository.class, "deleteByUser",
+                () -> transactionTemplate.executeWithoutResult(status -> {
+                    cartItemRepository.deleteByUser(seller);
+                }));
+
+        explain(PurchaseRepository.class, "findByUserOrderByPurchaseDateDesc",
+                () -> purchaseRepository.findByUserOrderByPurchaseDateDesc(buyer));
+        explain(PurchaseRepository.class, "findByUserWithItems",
+                () -> purchaseRepository.findByUserWithItems(buyer));
+
+        explain(PurchaseRepository.class, "findHistoryRowsByUserId",
+                () -> purchaseRepository.findHistoryRowsByUserId(buyer.getId()));
+
+        explain(PurchaseItemRepository.class, "findByPurchaseId",
+                () -> purchaseItemRepository.findByPurchaseId(purchase.getId()));
+
+        explain(UserRepository.class, "findByEmail",
+                () -> userRepository.findByEmail(buyer.getEmail()));
+        explain(UserRepository.class, "findByDisplayName",
+                () -> userRepository.findByDisplayName(buyer.getDisplayName()));
+        explain(UserRepository.class, "existsByEmail",
+                () -> userRepository.existsByEmail(buyer.getEmail()));
+        explain(UserRepository.class, "existsByDisplayName",
+                () -> userRepository.existsByDisplayName(buyer.getDisplayName()));
+        explain(UserRepository.class, "findActiveUserByEmail",
+                () -> userRepository.findActiveUserByEmail(buyer.getEmail()));
+        explain(UserRepository.class, "findIdentitiesAfter",
+                () -> userRepository.findIdentitiesAfter(seller.getId(), PageRequest.of(0, 10)));
+
+        explain(ExportRepository.class, "findListingPage",
+                () -> exportRepository.findListingPage(seller.getId(), new Object[] {product.getId()}, 100));
+        explain(ExportRepository.class, "findPurchasePage",
+                () -> exportRepository.findPurchasePage(buyer.getId(), new Object[] {0L, null, null, null, 0L}, 100));
+
+        explain(ProductChangeRepository.class, "insertAll",
+                () -> productChangeRepository.insertAll("updated", List.of(product.getId(), seller.getId())));
+        explain(ProductChangeRepository.class, "findChangesAfter",
+                () -> productChangeRepository.findChangesAfter(0L, 5000L, 100));
+        explain(ProductChangeRepository.class, "findLastSettledToken",
+                () -> productChangeRepository.findLastSettledToken(5000L));
+        explain(ProductChangeRepository.class, "findSupersededIds",
+                () -> productChangeRepository.findSupersededIds(Long.MAX_VALUE, 100));
+        explain(ProductChangeRepository.class, "deleteByIds",
+                () -> productChangeRepository.deleteByIds(List.of(1L, 2L)));
+
+        explain(OutboxRepository.class, "insertAll",
+                () -> outboxRepository.insertAll(OutboxEvent.PURCHASE, List.of(purchase.getId()), "completed", "{}"));
+        explain(OutboxRepository.class, "findPending",
+                () -> outboxRepository.findPending(100));
+        explain(OutboxRepository.class, "findPendingIds",
+                () -> outboxRepository.findPendingIds());
+        explain(OutboxRepository.class, "deleteByIds",
+                () -> outboxRepository.deleteByIds(List.of(1L, 2L)));
+
+        explain(MailQueueRepository.class, "insertAll",
+                () -> mailQueueRepository.insertAll(List.of(new MailQueueRepository.NewMail(
+                        "plan:" + purchase.getId(), buyer.getEmail(), "Plan", "<p>Plan</p>"))));
+        explain(MailQueueRepository.class, "existsByDedupeKey",
+                () -> mailQueueRepository.existsByDedupeKey("plan:" + purchase.getId()));
+        explain(MailQueueRepository.class, "findDue",
+                () -> mailQueueRepository.findDue(LocalDateTime.now(), 50));
+        explain(MailQueueRepository.class, "findDead",
+                () -> mailQueueRepository.findDead(50));
+        explain(MailQueueRepository.class, "markSent",
+                () -> mailQueueRepository.markSent(List.of(1L, 2L), LocalDateTime.now()));
+        explain(MailQueueRepository.class, "markFailed",
+                () -> mailQueueRepository.markFailed(1L, MailQueueRepository.PENDING, 1, LocalDateTime.now(), "refused"));
+        explain(MailQueueRepository.class, "requeueDead",
+                () -> mailQueueRepository.requeueDead(LocalDateTime.now()));
+        explain(MailQueueRepository.class, "deleteSentBefore",
+                () -> mailQueueRepository.deleteSentBefore(LocalDateTime.now().minusDays(3)));
+
+        explain(StockReservationRepository.class, "upsert",
+                () -> stockReservationRepository.upsert(product.getId(), buyer.getId(), 1, LocalDateTime.now()));
+        explain(StockReservationRepository.class, "findActive",
+                () -> stockReservationRepository.findActive(LocalDateTime.now()));
+        explain(StockReservationRepository.class, "deleteExpired",
+                () -> stockReservationRepository.deleteExpired(List.<long[]>of(new long[] {product.getId(), buyer.getId()}),
+                        LocalDateTime.now()));
+        explain(StockReservationRepository.class, "delete",
+                () -> stockReservationRepository.delete(product.getId(), buyer.getId()));
+        explain(StockReservationRepository.class, "deleteByUser",
+                () -> stockReservationRepository.deleteByUser(buyer.getId()));
+        explain(StockReservationRepository.class, "deleteAllExpired",
+                () -> stockReservationRepository.deleteAllExpired(LocalDateTime.now()));
+
+        explain(RecommendationRepository.class, "findListedPage",
+                () -> recommendationRepository.findListedPage(product.getId(), 100));
+        explain(RecommendationRepository.class, "findListedByIds",
+                () -> recommendationRepository.findListedByIds(List.of(product.getId(), purchase.getId())));
+        explain(RecommendationRepository.class, "findPurchasePage",
+                () -> recommendationRepository.findPurchasePage(0L, 100));
+        explain(RecommendationRepository.class, "findCartPage",
+                () -> recommendationRepository.findCartPage(0L, 100));
+
+        explain(CoPurchaseRepository.class, "findLastPurchaseId",
+                () -> coPurchaseRepository.findLastPurchaseId());
+        explain(CoPurchaseRepository.class, "findBasketItems",
+                () -> coPurchaseRepository.findBasketItems(0L, purchase.getId(), (purchaseId, productId) -> { }));
+
+        explain(ProductActivityRepository.class, "addAll",
+                () -> productActivityRepository.addAll(List.of(new ProductActivityRepository.Activity(
+                        product.getId(), System.currentTimeMillis(), 3, 1))));
+        explain(ProductActivityRepository.class, "findSince",
+                () -> productActivityRepository.findSince(System.currentTimeMillis() - 3_600_000L));
+        explain(ProductActivityRepository.class, "deleteBefore",
+                () -> productActivityRepository.deleteBefore(System.currentTimeMillis() - 86_400_000L));
+
+        assertEquals(declaredQueries(), covered, "Every repository query needs an entry here");
+        if (!failures.isEmpty()) {
+            fail("Full table scans:\n" + String.join("\n\n", failures));
+        }
+    }
+
+    private static Set<String> declaredQueries() {
+        Set<String> declared = new TreeSet<>();
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getDeclaredMethods()) {
+                // Default methods delegate to the declared finders, private ones are helpers of JDBC repositories
+                if (!method.isDefault() && !method.isSynthetic() && Modifier.isPublic(method.getModifiers())) {
+                    declared.add(repository.getSimpleName() + "." + method.getName());
+                }
+            }
+        }
+        return declared;
+    }
+
+    private static void writeCards(CardCall call) {
+        try (JsonGenerator json = new JsonFactory().createGenerator(OutputStream.nullOutputStream())) {
+            call.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    interface CardCall {
+        void write(JsonGenerator json) throws IOException;
+    }
+
+    private void explain(Class<?> repository, String method, Runnable call) {
+        covered.add(repository.getSimpleName() + "." + method);
+        List<CapturedQuery> queries = capture.during(call);
+        assertFalse(queries.isEmpty(), repository.getSimpleName() + "." + method + " issued no statement");
+
+        for (CapturedQuery query : queries) {
+            String plan = plan(query);
+            if (plan.contains("tableScan")) {
+                failures.add(repository.getSimpleName() + "." + method + "\n" + plan);
+            }
+        }
+    }
+
+    private String plan(CapturedQuery query) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.sql())) {
+            for (ParameterSetOperation operation : query.parameters()) {
+                Object[] args = operation.getArgs();
+                if ("setNull".equals(operation.getMethod().getName())) {
+                    statement.setNull((Integer) args[0], (Integer) args[1]);
+                } else {
+                    statement.setObject((Integer) args[0], args[1]);
+                }
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1));
+                }
+                return plan.toString();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot explain " + query.sql(), e);
+        }
+    }
+
+    record CapturedQuery(String sql, List<ParameterSetOperation> parameters) {
+    }
+
+    /**
+     * Records SELECTs, UPDATEs, DELETEs and INSERTs issued on the calling thread while a repository call runs.
+     */
+    static class CapturingListener implements QueryExecutionListener {
+
+        private final ThreadLocal<List<CapturedQuery>> active = new ThreadLocal<>();
+
+        List<CapturedQuery> during(Runnable call) {
+            List<CapturedQuery> queries = new CopyOnWriteArrayList<>();
+            active.set(queries);
+            try {
+                call.run();
+            } finally {
+                active.remove();
+            }
+            return queries;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            List<CapturedQuery> queries = active.get();
+            if (queries == null) {
+                return;
+            }
+            for (QueryInfo queryInfo : queryInfoList) {
+                String sql = queryInfo.getQuery().trim();
+                String statement = sql.toLowerCase(Locale.ROOT);
+                if (!statement.startsWith("select") && !statement.startsWith("update")
+                        && !statement.startsWith("delete") && !statement.startsWith("insert")) {
+                    continue;
+                }
+                List<ParameterSetOperation> parameters = queryInfo.getParametersList().isEmpty()
+                        ? List.of() : queryInfo.getParametersList().get(0);
+                queries.add(new CapturedQuery(sql, List.copyOf(parameters)));
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+
+        @Bean
+        CapturingListener capturingListener() {
+            return new CapturingListener();
+        }
+    }
+}
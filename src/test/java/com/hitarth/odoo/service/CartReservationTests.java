@@ -0,0 +1,153 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.dto.CartItemResponse;
+import com.hitarth.odoo.model.Product;
+import com.hitarth.odoo.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cart holds with a short time to live, so expiry runs within the test.
+ */
+@SpringBootTest(properties = {
+        "app.test.database=cart-reservation",
+        "app.cart.reservation.ttl-ms=1500",
+        "app.cart.reservation.tick-ms=50"
+})
+@ActiveProfiles("test")
+@Import(MarketplaceFixtures.class)
+class CartReservationTests {
+
+    private static final long TTL_MS = 1500;
+
+    @Autowired
+    private MarketplaceFixtures fixtures;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void twoCartsCannotBothHoldTheLastUnit() {
+        String prefix = "last-unit-" + System.nanoTime();
+        Product chair = fixtures.listing(prefix, 1);
+        User first = fixtures.user(prefix, "first");
+        User second = fixtures.user(prefix, "second");
+
+        double adds = cartAdds();
+        CartItemResponse held = cartService.addToCart(first.getId(), chair.getId(), 1);
+        RuntimeException rejected = assertThrows(RuntimeException.class,
+                () -> cartService.addToCart(second.getId(), chair.getId(), 1));
+        assertTrue(rejected.getMessage().contains("reserved in another cart"));
+        // The rejected addition is not counted
+        assertEquals(adds + 1, cartAdds());
+
+        // Taking it out of the first cart frees the unit
+        cartService.removeFromCart(first.getId(), held.getId());
+        assertDoesNotThrow(() -> cartService.addToCart(second.getId(), chair.getId(), 1));
+    }
+
+    @Test
+    void holdIsReleasedWhenItExpires() throws InterruptedException {
+        String prefix = "expiry-" + System.nanoTime();
+        Product chair = fixtures.listing(prefix, 1);
+        User first = fixtures.user(prefix, "first");
+        User second = fixtures.user(prefix, "second");
+
+        cartService.addToCart(first.getId(), chair.getId(), 1);
+        assertThrows(RuntimeException.class, () -> cartService.addToCart(second.getId(), chair.getId(), 1));
+
+        Thread.sleep(TTL_MS + 500);
+        assertDoesNotThrow(() -> cartService.addToCart(second.getId(), chair.getId(), 1));
+    }
+
+    @Test
+    void renewalOutlastsTheEarlierExpiry() throws InterruptedException {
+        String prefix = "renewal-" + System.nanoTime();
+        Product chairs = fixtures.listing(prefix, 2);
+        User first = fixtures.user(prefix, "first");
+        User second = fixtures.user(prefix, "second");
+
+        CartItemResponse held = cartService.addToCart(first.getId(), chairs.getId(), 1);
+        Thread.sleep(TTL_MS / 2);
+        // Renewed with both units; the first timeout still fires but must not drop the newer hold
+        cartService.updateCartItemQuantity(first.getId(), held.getId(), 2);
+        Thread.sleep(TTL_MS / 2 + 400);
+        assertThrows(RuntimeException.class, () -> cartService.addToCart(second.getId(), chairs.getId(), 1));
+
+        Thread.sleep(TTL_MS / 2 + 500);
+        assertDoesNotThrow(() -> cartService.addToCart(second.getId(), chairs.getId(), 1));
+    }
+
+    @Test
+    void rolledBackHoldIsUndone() {
+        String prefix = "rollback-" + System.nanoTime();
+        Product chair = fixtures.listing(prefix, 1);
+        User first = fixtures.user(prefix, "first");
+        User second = fixtures.user(prefix, "second");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            reservationService.reserve(first.getId(), chair, 1);
+            status.setRollbackOnly();
+        });
+        assertDoesNotThrow(() -> cartService.addToCart(second.getId(), chair.getId(), 1));
+    }
+
+    @Test
+    void rolledBackRenewalRestoresThePreviousHold() {
+        String prefix = "restore-" + System.nanoTime();
+        Product chairs = fixtures.listing(prefix, 3);
+        User first = fixtures.user(prefix, "first");
+        User second = fixtures.user(prefix, "second");
+
+        cartService.addToCart(first.getId(), chairs.getId(), 1);
+        transactionTemplate.executeWithoutResult(status -> {
+            reservationService.reserve(first.getId(), chairs, 3);
+            status.setRollbackOnly();
+        });
+
+        // The first cart is back to holding one unit, two are left
+        assertThrows(RuntimeException.class, () -> cartService.addToCart(second.getId(), chairs.getId(), 3));
+        assertDoesNotThrow(() -> cartService.addToCart(second.getId(), chairs.getId(), 2));
+    }
+
+    @Test
+    void nonPositiveQuantitiesHoldNothing() {
+        String prefix = "non-positive-" + System.nanoTime();
+        Product chairs = fixtures.listing(prefix, 2);
+        User first = fixtures.user(prefix, "first");
+        User second = fixtures.user(prefix, "second");
+
+        cartService.addToCart(first.getId(), chairs.getId(), 2);
+        assertThrows(RuntimeException.class, () -> cartService.addToCart(first.getId(), chairs.getId(), -5));
+        assertThrows(RuntimeException.class, () -> cartService.addToCart(second.getId(), chairs.getId(), 0));
+        assertThrows(RuntimeException.class, () -> transactionTemplate.executeWithoutResult(status ->
+                reservationService.reserve(second.getId(), chairs, -5)));
+
+        // The first cart still holds both units
+        assertThrows(RuntimeException.class, () -> cartService.addToCart(second.getId(), chairs.getId(), 1));
+    }
+
+    private double cartAdds() {
+        return meterRegistry.counter("marketplace.cart.adds").count();
+    }
+}
@@ -0,0 +1,121 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.model.CartItem;
+import com.hitarth.odoo.model.Product;
+import com.hitarth.odoo.model.User;
+import com.hitarth.odoo.repository.CartItemRepository;
+import com.hitarth.odoo.repository.ProductRepository;
+import com.hitarth.odoo.repository.PurchaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checkout takes the purchased units from the listing. The cart lines are saved directly, as if both buyers
+ * had added the listing before the other one checked out.
+ */
+@SpringBootTest(properties = {
+        "app.test.database=checkout-stock"
+})
+@ActiveProfiles("test")
+@Import(MarketplaceFixtures.class)
+class CheckoutStockTests {
+
+    @Autowired
+    private MarketplaceFixtures fixtures;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void secondBuyerOfASingleUnitListingIsRejected() {
+        String prefix = "single-unit-" + System.nanoTime();
+        Product clock = fixtures.listing(prefix, 1);
+        User first = fixtures.user(prefix, "first");
+        User second = fixtures.user(prefix, "second");
+        cartItemRepository.save(new CartItem(first, clock, 1));
+        cartItemRepository.save(new CartItem(second, clock, 1));
+
+        purchaseService.createPurchaseFromCart(first.getId());
+        Product sold = productRepository.findById(clock.getId()).orElseThrow();
+        assertEquals(0, sold.getQuantity());
+        assertTrue(sold.getIsSold());
+
+        RuntimeException rejected = assertThrows(RuntimeException.class,
+                () -> purchaseService.createPurchaseFromCart(second.getId()));
+        assertTrue(rejected.getMessage().contains("no longer available"), rejected.getMessage());
+        // Rolled back whole: no purchase, the cart line stays
+        assertTrue(purchaseRepository.findByUserOrderByPurchaseDateDesc(second).isEmpty());
+        assertEquals(1, cartItemRepository.findByUserOrderByAddedAtDesc(second).size());
+    }
+
+    @Test
+    void checkoutIsCountedOnlyOnceCommitted() {
+        String prefix = "checkout-count-" + System.nanoTime();
+        Product clock = fixtures.listing(prefix, 2);
+        User buyer = fixtures.user(prefix, "buyer");
+        cartItemRepository.save(new CartItem(buyer, clock, 1));
+        double checkouts = checkouts();
+
+        // Joins an outer transaction that is then rolled back
+        transactionTemplate.executeWithoutResult(status -> {
+            purchaseService.createPurchaseFromCart(buyer.getId());
+            status.setRollbackOnly();
+        });
+        assertEquals(checkouts, checkouts());
+
+        purchaseService.createPurchaseFromCart(buyer.getId());
+        assertEquals(checkouts + 1, checkouts());
+    }
+
+    @Test
+    void takeStockRefusesMoreThanIsLeft() {
+        String prefix = "take-stock-" + System.nanoTime();
+        Product clocks = fixtures.listing(prefix, 2);
+        LocalDateTime now = LocalDateTime.now();
+
+        // The database guard behind the cart holds, for checkouts the holds did not see
+        assertEquals(0, take(clocks, 3, now));
+        assertEquals(1, take(clocks, 1, now));
+        assertEquals(0, take(clocks, 2, now));
+        assertEquals(1, take(clocks, 1, now));
+        assertEquals(0, take(clocks, 1, now));
+
+        Product sold = productRepository.findById(clocks.getId()).orElseThrow();
+        assertEquals(0, sold.getQuantity());
+        assertTrue(sold.getIsSold());
+    }
+
+    private double checkouts() {
+        return meterRegistry.counter("marketplace.checkouts").count();
+    }
+
+    private int take(Product product, int quantity, LocalDateTime now) {
+        return transactionTemplate.execute(status -> productRepository.takeStock(product.getId(), quantity, now));
+    }
+}
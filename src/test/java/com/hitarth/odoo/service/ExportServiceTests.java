@@ -0,0 +1,57 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seller-written text in exports opened as spreadsheets.
+ */
+@SpringBootTest(properties = {
+        "app.test.database=exports"
+})
+@ActiveProfiles("test")
+@Import(MarketplaceFixtures.class)
+class ExportServiceTests {
+
+    private static final String FORMULA = "=HYPERLINK(\"http://evil.test\",\"Click\")";
+
+    @Autowired
+    private MarketplaceFixtures fixtures;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Test
+    void csvCellsStartingAFormulaAreQuoted() throws Exception {
+        String prefix = "formula-" + System.nanoTime();
+        User seller = fixtures.user(prefix, "seller");
+        fixtures.listing(seller, FORMULA, "Home", "10.00", 1);
+        fixtures.listing(seller, "@SUM(A1:A2)", "Home", "10.00", 1);
+        fixtures.listing(seller, "Plain lamp", "Home", "10.00", 1);
+
+        String csv = export(seller, ExportService.Format.CSV);
+        assertTrue(csv.contains("\"'=HYPERLINK(\"\"http://evil.test\"\",\"\"Click\"\")\""), csv);
+        assertTrue(csv.contains("'@SUM(A1:A2)"), csv);
+        assertFalse(csv.contains("'Plain lamp"), csv);
+
+        // NDJSON is not opened as a spreadsheet and keeps the text as written
+        String ndjson = export(seller, ExportService.Format.NDJSON);
+        assertTrue(ndjson.contains("\"title\":\"=HYPERLINK("), ndjson);
+    }
+
+    private String export(User seller, ExportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportSellerListings(seller.getId(), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,39 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.model.Product;
+import com.hitarth.odoo.model.User;
+import com.hitarth.odoo.repository.ProductRepository;
+import com.hitarth.odoo.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+
+/**
+ * Users and listings for the service tests, imported with {@code @Import(MarketplaceFixtures.class)}.
+ * Names are built from a per-test prefix so tests sharing a database do not collide on the unique keys.
+ */
+@TestComponent
+class MarketplaceFixtures {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    User user(String prefix, String name) {
+        return userRepository.save(new User(prefix + "-" + name, prefix + "-" + name + "@ecofinds.test", "hash"));
+    }
+
+    // A listing of a new seller
+    Product listing(String prefix, int quantity) {
+        return listing(user(prefix, "seller"), "Oak chair", "Furniture", "40.00", quantity);
+    }
+
+    Product listing(User seller, String title, String category, String price, int quantity) {
+        Product product = new Product(title, "Good condition", category, new BigDecimal(price), seller);
+        product.setQuantity(quantity);
+        return productRepository.save(product);
+    }
+}
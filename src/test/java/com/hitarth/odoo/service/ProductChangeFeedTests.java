@@ -0,0 +1,66 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.dto.ProductChange;
+import com.hitarth.odoo.dto.ProductChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Change rows are written directly, with IDs and change times out of order as when a write that got its token
+ * first commits last.
+ */
+@SpringBootTest(properties = {
+        "app.test.database=product-change-feed",
+        "app.products.changes.settle-ms=5000",
+        "app.products.changes.compact-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class ProductChangeFeedTests {
+
+    private static final String SETTLED = "TIMESTAMPADD(HOUR, -1, CURRENT_TIMESTAMP(3))";
+    private static final String SETTLING = "CURRENT_TIMESTAMP(3)";
+
+    @Autowired
+    private ProductChangeService productChangeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void changeStillSettlingIsNotSkippedByALaterOne() {
+        insert(1, 9_001, SETTLED);
+        insert(2, 9_002, SETTLING);
+        insert(3, 9_003, SETTLED);
+
+        // Token 3 has settled but 2 has not, neither the feed nor the current token may pass 2
+        assertEquals("1", productChangeService.getCurrentToken());
+        ProductChangeFeed first = productChangeService.getChangesSince("0", null);
+        assertEquals(List.of(9_001L), ids(first));
+        assertEquals("1", first.getNextToken());
+        ProductChangeFeed waiting = productChangeService.getChangesSince(first.getNextToken(), null);
+        assertEquals(List.of(), ids(waiting));
+        assertEquals("1", waiting.getNextToken());
+
+        jdbcTemplate.update("UPDATE product_changes SET changed_at = " + SETTLED + " WHERE id = ?", 2);
+        ProductChangeFeed rest = productChangeService.getChangesSince(waiting.getNextToken(), null);
+        assertEquals(List.of(9_002L, 9_003L), ids(rest));
+        assertEquals("3", rest.getNextToken());
+        assertEquals("3", productChangeService.getCurrentToken());
+    }
+
+    private void insert(long token, long productId, String changedAt) {
+        jdbcTemplate.update("INSERT INTO product_changes (id, product_id, change_type, changed_at) VALUES (?, ?, 'updated', "
+                + changedAt + ")", token, productId);
+    }
+
+    private static List<Long> ids(ProductChangeFeed feed) {
+        return feed.getChanges().stream().map(ProductChange::getId).toList();
+    }
+}
@@ -0,0 +1,70 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.dto.ProductImportResult;
+import com.hitarth.odoo.model.User;
+import com.hitarth.odoo.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Imports in chunks of two rows; the second chunk fails with an exception that is not a data access error.
+ */
+@SpringBootTest(properties = {
+        "app.test.database=product-import",
+        "app.products.import.chunk-size=2"
+})
+@ActiveProfiles("test")
+class ProductImportTests {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoSpyBean
+    private ProductChangeService productChangeService;
+
+    @Test
+    void failedChunkIsReportedAndTheOthersStayImported() throws Exception {
+        String prefix = "import-" + System.nanoTime();
+        User seller = userRepository.save(new User(prefix, prefix + "@ecofinds.test", "hash"));
+        // Stubbed behind the transactional proxy, the chunk's transaction is then rolled back
+        ProductChangeService spy = AopTestUtils.getUltimateTargetObject(productChangeService);
+        AtomicInteger chunks = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (chunks.incrementAndGet() == 2) {
+                throw new TransactionSystemException("Commit failed");
+            }
+            return invocation.callRealMethod();
+        }).when(spy).record(any(ProductEventBroadcaster.Type.class), anyCollection());
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            ndjson.append("{\"title\":\"Lamp ").append(i).append("\",\"category\":\"Home\",\"price\":10}\n");
+        }
+        ProductImportResult result = productImportService.importNdjson(seller.getId(),
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).getRow());
+        assertEquals(4, result.getErrors().get(1).getRow());
+        assertTrue(result.getErrors().get(0).getMessage().contains("rows 3-4"), result.getErrors().get(0).getMessage());
+    }
+}
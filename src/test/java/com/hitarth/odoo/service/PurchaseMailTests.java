@@ -0,0 +1,96 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.dto.PurchaseResponse;
+import com.hitarth.odoo.model.CartItem;
+import com.hitarth.odoo.model.Product;
+import com.hitarth.odoo.model.User;
+import com.hitarth.odoo.outbox.OutboxEvent;
+import com.hitarth.odoo.repository.CartItemRepository;
+import com.hitarth.odoo.repository.MailQueueRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checkout to inbox against GreenMail as the SMTP server: the purchase outbox event queues the buyer's order
+ * confirmation and the seller's item sold mail, and the background sender delivers them.
+ */
+@SpringBootTest(properties = {
+        "app.test.database=purchase-mail",
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "app.mail.send-interval-ms=200"
+})
+@ActiveProfiles("test")
+@Import(MarketplaceFixtures.class)
+class PurchaseMailTests {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private MarketplaceFixtures fixtures;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private MailQueueSender mailQueueSender;
+
+    @Autowired
+    private MailQueueRepository mailQueueRepository;
+
+    @Test
+    void checkoutMailsBuyerAndSeller() throws Exception {
+        String prefix = "mail-" + System.nanoTime();
+        User seller = fixtures.user(prefix, "seller");
+        User buyer = fixtures.user(prefix, "buyer");
+        Product lamp = fixtures.listing(seller, "Brass desk lamp", "Furniture", "24.50", 1);
+        cartItemRepository.save(new CartItem(buyer, lamp, 1));
+
+        PurchaseResponse purchase = purchaseService.createPurchaseFromCart(buyer.getId());
+
+        assertTrue(greenMail.waitForIncomingEmail(10_000, 2), "Expected the buyer and seller mails");
+        Map<String, MimeMessage> byRecipient = new TreeMap<>();
+        for (MimeMessage message : greenMail.getReceivedMessages()) {
+            byRecipient.put(message.getAllRecipients()[0].toString(), message);
+        }
+        MimeMessage confirmation = byRecipient.get(buyer.getEmail());
+        MimeMessage sold = byRecipient.get(seller.getEmail());
+        assertEquals("Your EcoFinds order #" + purchase.getId(), confirmation.getSubject());
+        assertTrue(GreenMailUtil.getBody(confirmation).contains("Brass desk lamp"));
+        assertTrue(GreenMailUtil.getBody(confirmation).contains("$24.50"));
+        assertEquals("You sold an item on EcoFinds", sold.getSubject());
+        assertTrue(GreenMailUtil.getBody(sold).contains(buyer.getDisplayName()));
+
+        // At-least-once delivery: the same event again must not queue the mails twice
+        String payload = "{\"userId\":" + buyer.getId() + ",\"totalAmount\":24.50,\"items\":[{\"productId\":"
+                + lamp.getId() + ",\"title\":\"Brass desk lamp\",\"quantity\":1,\"price\":24.50}]}";
+        notificationService.onEvents(List.of(new OutboxEvent(0, OutboxEvent.PURCHASE, purchase.getId(),
+                "completed", payload, LocalDateTime.now())));
+        mailQueueSender.sendDue();
+        assertEquals(2, greenMail.getReceivedMessages().length);
+        assertTrue(mailQueueRepository.findDue(LocalDateTime.now(), 10).isEmpty());
+    }
+}
@@ -0,0 +1,118 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.model.Product;
+import com.hitarth.odoo.model.User;
+import com.hitarth.odoo.outbox.OutboxEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Outbox events are handed to the recommender directly. Listings are created after the warm-up, so their
+ * product events bring them into the catalog; every test lists in categories of its own.
+ */
+@SpringBootTest(properties = {
+        "app.test.database=recommendations"
+})
+@ActiveProfiles("test")
+@Import(MarketplaceFixtures.class)
+class RecommendationServiceTests {
+
+    // Far above the events the application records, so the IDs never meet theirs
+    private static final AtomicLong EVENT_IDS = new AtomicLong(1_000_000_000L);
+
+    @Autowired
+    private MarketplaceFixtures fixtures;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Test
+    void purchaseRanksMatchingCategoryAndPriceFirst() {
+        String prefix = "ranking-" + System.nanoTime();
+        User seller = fixtures.user(prefix, "seller");
+        User buyer = fixtures.user(prefix, "buyer");
+        Product bought = fixtures.listing(seller, "Reading lamp", prefix + "-lamps", "20.00", 2);
+        Product samePrice = fixtures.listing(seller, "Desk lamp", prefix + "-lamps", "22.00", 1);
+        Product pricier = fixtures.listing(seller, "Chandelier", prefix + "-lamps", "480.00", 1);
+        Product otherCategory = fixtures.listing(seller, "Bookshelf", prefix + "-shelves", "21.00", 1);
+        Product own = fixtures.listing(buyer, "Floor lamp", prefix + "-lamps", "20.00", 1);
+        listed(bought, samePrice, pricier, otherCategory, own);
+
+        recommendationService.onEvents(List.of(event(OutboxEvent.PURCHASE, 1, "completed",
+                "{\"userId\":" + buyer.getId() + ",\"items\":[{\"productId\":" + bought.getId()
+                        + ",\"category\":\"" + prefix + "-lamps\",\"quantity\":1,\"price\":20.00}]}")));
+
+        // The bought listing and the buyer's own are left out
+        assertEquals(List.of(samePrice.getId(), pricier.getId()), recommendationService.recommend(buyer.getId(), 2));
+    }
+
+    @Test
+    void cartAdditionOfNoUnitsLeavesNoProfile() {
+        String prefix = "no-units-" + System.nanoTime();
+        User seller = fixtures.user(prefix, "seller");
+        User shopper = fixtures.user(prefix, "shopper");
+        User newcomer = fixtures.user(prefix, "newcomer");
+        Product chair = fixtures.listing(seller, "Oak chair", prefix + "-chairs", "40.00", 1);
+        Product stool = fixtures.listing(seller, "Bar stool", prefix + "-chairs", "25.00", 1);
+        listed(chair, stool);
+
+        recommendationService.onEvents(List.of(event(OutboxEvent.USER, shopper.getId(), "cart-added",
+                "{\"productId\":" + chair.getId() + ",\"category\":\"" + prefix
+                        + "-chairs\",\"quantity\":0,\"price\":40.00}")));
+
+        // Ranked like a user without history: newest listings, the chair is not treated as seen
+        assertEquals(recommendationService.recommend(newcomer.getId(), 5),
+                recommendationService.recommend(shopper.getId(), 5));
+    }
+
+    @Test
+    void eventDeliveredAfterAHigherIdIsApplied() {
+        String prefix = "out-of-order-" + System.nanoTime();
+        User seller = fixtures.user(prefix, "seller");
+        User shopper = fixtures.user(prefix, "shopper");
+        Product chair = fixtures.listing(seller, "Oak chair", prefix + "-chairs", "40.00", 1);
+        Product stool = fixtures.listing(seller, "Bar stool", prefix + "-chairs", "25.00", 1);
+        Product bench = fixtures.listing(seller, "Garden bench", prefix + "-chairs", "30.00", 1);
+        listed(chair, stool, bench);
+
+        OutboxEvent earlier = cartAdded(shopper, chair, prefix);
+        OutboxEvent later = cartAdded(shopper, stool, prefix);
+        // The later addition committed first, the earlier one comes in the next batch and once more after a retry
+        recommendationService.onEvents(List.of(later));
+        recommendationService.onEvents(List.of(earlier));
+        recommendationService.onEvents(List.of(earlier));
+
+        // Both additions count, so both products are seen and left out
+        List<Long> recommended = recommendationService.recommend(shopper.getId(), 100);
+        assertFalse(recommended.contains(chair.getId()));
+        assertFalse(recommended.contains(stool.getId()));
+        assertTrue(recommended.contains(bench.getId()));
+    }
+
+    private OutboxEvent cartAdded(User shopper, Product product, String prefix) {
+        return event(OutboxEvent.USER, shopper.getId(), "cart-added", "{\"productId\":" + product.getId()
+                + ",\"category\":\"" + prefix + "-chairs\",\"quantity\":1,\"price\":" + product.getPrice() + "}");
+    }
+
+    private void listed(Product... products) {
+        for (Product product : products) {
+            recommendationService.onEvents(List.of(event(OutboxEvent.PRODUCT, product.getId(), "created", null)));
+        }
+    }
+
+    private static OutboxEvent event(String aggregateType, long aggregateId, String eventType, String payload) {
+        return new OutboxEvent(EVENT_IDS.incrementAndGet(), aggregateType, aggregateId, eventType, payload,
+                LocalDateTime.now());
+    }
+}
@@ -0,0 +1,44 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.dto.AuthResponse;
+import com.hitarth.odoo.dto.RegisterRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Registration has no existence pre-checks: duplicates are rejected by the named unique keys of users
+ * and reported with the matching message.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RegistrationConflictTests {
+
+    @Autowired
+    private AuthService authService;
+
+    @Test
+    void sameDisplayNameTwiceIsRejected() {
+        String name = "dup-name-" + System.nanoTime();
+        assertTrue(authService.register(new RegisterRequest(name, name + "-a@ecofinds.test", "Secret#123")).isSuccess());
+
+        AuthResponse second = authService.register(new RegisterRequest(name, name + "-b@ecofinds.test", "Secret#123"));
+        assertFalse(second.isSuccess());
+        assertEquals(UserAvailabilityService.DISPLAY_NAME_TAKEN_MESSAGE, second.getMessage());
+    }
+
+    @Test
+    void sameEmailTwiceIsRejected() {
+        String name = "dup-email-" + System.nanoTime();
+        assertTrue(authService.register(new RegisterRequest(name + "-a", name + "@ecofinds.test", "Secret#123")).isSuccess());
+
+        AuthResponse second = authService.register(new RegisterRequest(name + "-b", name + "@ecofinds.test", "Secret#123"));
+        assertFalse(second.isSuccess());
+        assertEquals(UserAvailabilityService.EMAIL_TAKEN_MESSAGE, second.getMessage());
+    }
+}
@@ -0,0 +1,97 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.outbox.OutboxEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Purchase events are handed to the index directly after the startup build, with three neighbours per product.
+ * Product IDs are made up, the index only sees the events.
+ */
+@SpringBootTest(properties = {
+        "app.test.database=related-products",
+        "app.related.max-neighbours=3"
+})
+@ActiveProfiles("test")
+class RelatedProductServiceTests {
+
+    // Far above the events and purchases the application records, so none of these is in the startup history
+    private static final AtomicLong EVENT_IDS = new AtomicLong(1_000_000_000L);
+
+    @Autowired
+    private RelatedProductService relatedProductService;
+
+    @Test
+    void productsBoughtTogetherMostOftenComeFirst() {
+        relatedProductService.onEvents(List.of(
+                purchase(8_001, 8_002, 8_003),
+                purchase(8_001, 8_002),
+                purchase(8_009)));
+
+        assertEquals(List.of(8_002L, 8_003L), relatedProductService.related(8_001L));
+        assertEquals(2, relatedProductService.related(8_003L).size());
+        // A single product basket has no pairs
+        assertEquals(List.of(), relatedProductService.related(8_009L));
+    }
+
+    @Test
+    void redeliveredBatchIsCountedOnce() {
+        List<OutboxEvent> lamps = List.of(purchase(8_101, 8_102), purchase(8_101, 8_102));
+        relatedProductService.onEvents(lamps);
+        // At-least-once delivery: the batch again, after another subscriber failed, must not put the lamps ahead
+        relatedProductService.onEvents(lamps);
+        relatedProductService.onEvents(List.of(
+                purchase(8_101, 8_103),
+                purchase(8_101, 8_103),
+                purchase(8_101, 8_103)));
+
+        assertEquals(List.of(8_103L, 8_102L), relatedProductService.related(8_101L));
+    }
+
+    @Test
+    void eventDeliveredAfterAHigherIdIsCounted() {
+        OutboxEvent earlier = purchase(8_301, 8_302);
+        OutboxEvent later = purchase(8_301, 8_303);
+        // The later purchase committed first, the earlier one comes in the next batch
+        relatedProductService.onEvents(List.of(later));
+        relatedProductService.onEvents(List.of(earlier));
+
+        assertEquals(Set.of(8_302L, 8_303L), Set.copyOf(relatedProductService.related(8_301L)));
+    }
+
+    @Test
+    void fullRowKeepsTheMostBoughtNeighbours() {
+        relatedProductService.onEvents(List.of(
+                purchase(8_201, 8_202),
+                purchase(8_201, 8_202),
+                purchase(8_201, 8_202),
+                purchase(8_201, 8_203),
+                purchase(8_201, 8_204),
+                purchase(8_201, 8_205)));
+
+        // The newcomer takes the place of a one-off pair, the most bought neighbour stays first
+        List<Long> related = relatedProductService.related(8_201L);
+        assertEquals(3, related.size());
+        assertEquals(8_202L, related.get(0));
+    }
+
+    private static OutboxEvent purchase(long... productIds) {
+        StringBuilder items = new StringBuilder();
+        for (long productId : productIds) {
+            items.append(items.isEmpty() ? "" : ",").append("{\"productId\":").append(productId)
+                    .append(",\"quantity\":1}");
+        }
+        long id = EVENT_IDS.incrementAndGet();
+        return new OutboxEvent(id, OutboxEvent.PURCHASE, id, "completed", "{\"items\":[" + items + "]}",
+                LocalDateTime.now());
+    }
+}
@@ -0,0 +1,100 @@
+package com.hitarth.odoo.service;
+
+import com.hitarth.odoo.repository.ProductActivityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.AopTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Scores halve at every tick, which the tests call themselves: the scheduled tick would not run for an hour.
+ * Product IDs are made up, product_activity does not reference products.
+ */
+@SpringBootTest(properties = {
+        "app.test.database=trending",
+        "app.trending.bucket-ms=3600000",
+        "app.trending.half-life-ms=3600000"
+})
+@ActiveProfiles("test")
+class TrendingServiceTests {
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @MockitoSpyBean
+    private ProductActivityRepository productActivityRepository;
+
+    @Test
+    void scoresDecayAndRankHighestFirst() {
+        long viewed = 7_001;
+        long carted = 7_002;
+        long glanced = 7_003;
+        count(viewed, 3, 0);
+        count(carted, 0, 1);
+        count(glanced, 1, 0);
+        trendingService.tick();
+        // A cart addition outweighs three views
+        assertEquals(List.of(carted, viewed, glanced), ranking(viewed, carted, glanced));
+
+        // Halved to 2.5, 1.5 and 0.5, then two more views put the viewed product ahead with 1.5 / 2 + 2
+        trendingService.tick();
+        count(viewed, 2, 0);
+        trendingService.tick();
+        assertEquals(List.of(viewed, carted, glanced), ranking(viewed, carted, glanced));
+    }
+
+    @Test
+    void failedFlushIsRetriedAtTheNextTick() {
+        long product = 7_101;
+        // Stubbed behind the exception translation proxy
+        ProductActivityRepository spy = AopTestUtils.getUltimateTargetObject(productActivityRepository);
+        AtomicBoolean failing = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (failing.getAndSet(false)) {
+                throw new DataAccessResourceFailureException("Database unreachable");
+            }
+            return invocation.callRealMethod();
+        }).when(spy).addAll(anyCollection());
+
+        count(product, 2, 1);
+        trendingService.tick();
+        assertEquals(0, written(product));
+
+        count(product, 1, 0);
+        trendingService.tick();
+        // The first bucket's counts were kept and written with the second's
+        assertEquals(3, written(product));
+    }
+
+    private void count(long productId, int views, int cartAdds) {
+        for (int i = 0; i < views; i++) {
+            trendingService.viewed(productId);
+        }
+        for (int i = 0; i < cartAdds; i++) {
+            trendingService.addedToCart(productId);
+        }
+    }
+
+    // The given products in trending order, whatever else the other tests counted
+    private List<Long> ranking(Long... productIds) {
+        List<Long> ids = List.of(productIds);
+        return trendingService.trending().stream().filter(ids::contains).toList();
+    }
+
+    private long written(long productId) {
+        return productActivityRepository.findSince(0).stream()
+                .filter(activity -> activity.productId() == productId)
+                .mapToLong(ProductActivityRepository.Activity::views)
+                .sum();
+    }
+}
@@ -0,0 +1,148 @@
+package com.hitarth.odoo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlabStoreTests {
+
+    private static final int SLAB_BYTES = 1024;
+
+    @Test
+    void recordsAreReadBackReplacedAndRemoved() {
+        SlabStore store = new SlabStore(4 * SLAB_BYTES, SLAB_BYTES, 512);
+        byte[] buffer = new byte[store.getMaxRecordBytes()];
+
+        assertTrue(store.put(1, filled(100, 'a')));
+        assertTrue(store.put(2, filled(30, 'b')));
+        assertEquals(100, store.read(1, buffer));
+        assertArrayEquals(filled(100, 'a'), Arrays.copyOf(buffer, 100));
+
+        // Shorter, rewritten in place
+        assertTrue(store.put(1, filled(90, 'c')));
+        assertEquals(90, store.read(1, buffer));
+        assertArrayEquals(filled(90, 'c'), Arrays.copyOf(buffer, 90));
+        assertEquals(120, store.getRecordBytes());
+
+        store.remove(1);
+        assertEquals(-1, store.read(1, buffer));
+        assertFalse(store.contains(1));
+        assertEquals(30, store.getRecordBytes());
+        assertEquals(30, store.read(2, buffer));
+    }
+
+    @Test
+    void freedSlotsAreReusedWithinTheBudget() {
+        // One slab of eight 128 byte slots
+        SlabStore store = new SlabStore(SLAB_BYTES, SLAB_BYTES, 512);
+        for (long id = 1; id <= 8; id++) {
+            assertTrue(store.put(id, filled(100, 'x')));
+        }
+        assertFalse(store.put(9, filled(100, 'y')), "budget is exhausted");
+        assertEquals(SLAB_BYTES, store.getReservedBytes());
+
+        store.remove(3);
+        assertTrue(store.put(9, filled(100, 'y')));
+        // Any record of the same size class takes the freed slot
+        store.remove(4);
+        assertTrue(store.put(10, filled(120, 'w')));
+        assertEquals(SLAB_BYTES, store.getReservedBytes());
+
+        byte[] buffer = new byte[store.getMaxRecordBytes()];
+        assertEquals(100, store.read(9, buffer));
+        assertArrayEquals(filled(100, 'y'), Arrays.copyOf(buffer, 100));
+        assertEquals(120, store.read(10, buffer));
+        assertArrayEquals(filled(120, 'w'), Arrays.copyOf(buffer, 120));
+    }
+
+    @Test
+    void failedPutRemovesThePreviousRecord() {
+        SlabStore store = new SlabStore(SLAB_BYTES, SLAB_BYTES, 200);
+        assertTrue(store.put(1, filled(50, 'a')));
+
+        assertFalse(store.put(1, filled(201, 'b')));
+        assertFalse(store.contains(1));
+        assertEquals(0, store.getRecordBytes());
+    }
+
+    @Test
+    void readersNeverSeeTornOrForeignRecords() throws Exception {
+        // A small store, so rewritten and removed records keep handing their slots to other IDs
+        SlabStore store = new SlabStore(4 * SLAB_BYTES, SLAB_BYTES, 300);
+        int ids = 16;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] results = new Future<?>[4];
+            for (int r = 0; r < results.length; r++) {
+                results[r] = readers.submit(() -> {
+                    byte[] buffer = new byte[store.getMaxRecordBytes()];
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (writing.get()) {
+                        long id = 1 + random.nextInt(ids);
+                        int length = store.read(id, buffer);
+                        if (length >= 0) {
+                            assertValid(id, buffer, length);
+                        }
+                    }
+                    return null;
+                });
+            }
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int version = 0; version < 200_000; version++) {
+                long id = 1 + random.nextInt(ids);
+                if (random.nextInt(8) == 0) {
+                    store.remove(id);
+                } else {
+                    store.put(id, record(id, version));
+                }
+            }
+            writing.set(false);
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            writing.set(false);
+            readers.shutdownNow();
+        }
+    }
+
+    // ID, version, then the version's low byte repeated; the length follows from the version
+    private static byte[] record(long id, int version) {
+        ByteBuffer record = ByteBuffer.allocate(12 + version % 280);
+        record.putLong(id).putInt(version);
+        while (record.hasRemaining()) {
+            record.put((byte) version);
+        }
+        return record.array();
+    }
+
+    private static void assertValid(long id, byte[] buffer, int length) {
+        ByteBuffer record = ByteBuffer.wrap(buffer, 0, length);
+        assertEquals(id, record.getLong(), "record of another ID");
+        int version = record.getInt();
+        assertEquals(12 + version % 280, length, "length of another version");
+        while (record.hasRemaining()) {
+            assertEquals((byte) version, record.get(), "torn record");
+        }
+    }
+
+    private static byte[] filled(int length, char value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+}
@@ -0,0 +1,92 @@
+package com.hitarth.odoo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The wheel is driven with explicit times: 10 ms ticks on 8 buckets, one revolution is 80 ms.
+ */
+class TimerWheelTests {
+
+    private static final long START = 1_000_000;
+
+    private final TimerWheel<String> wheel = new TimerWheel<>(10, 8, START);
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    void timeoutFiresAtItsDeadlineAndNotBefore() {
+        wheel.schedule("a", START + 25);
+        wheel.schedule("b", START + 40);
+
+        assertEquals(0, wheel.advance(START + 29, expired::add));
+        assertEquals(1, wheel.advance(START + 30, expired::add));
+        assertEquals(List.of("a"), expired);
+        assertEquals(1, wheel.advance(START + 45, expired::add));
+        assertEquals(List.of("a", "b"), expired);
+        assertEquals(0, wheel.advance(START + 100, expired::add));
+    }
+
+    @Test
+    void overdueTimeoutFiresAtTheNextTick() {
+        wheel.advance(START + 50, expired::add);
+        wheel.schedule("late", START + 5);
+
+        // Tick 50 is done, the next one to expire is 60
+        assertEquals(0, wheel.advance(START + 59, expired::add));
+        assertEquals(1, wheel.advance(START + 60, expired::add));
+        assertEquals(List.of("late"), expired);
+    }
+
+    @Test
+    void deadlineBeyondOneRevolutionWaitsForItsRound() {
+        wheel.schedule("far", START + 250);
+
+        for (long now = START; now < START + 250; now += 10) {
+            assertEquals(0, wheel.advance(now, expired::add), "fired early at " + (now - START));
+        }
+        assertEquals(1, wheel.advance(START + 250, expired::add));
+        assertEquals(List.of("far"), expired);
+    }
+
+    @Test
+    void longPauseExpiresEverythingDueAndKeepsLaterTimeouts() {
+        wheel.schedule("due-1", START + 30);
+        wheel.schedule("due-2", START + 610);
+        wheel.schedule("after", START + 1_030);
+
+        // Many revolutions without an advance
+        assertEquals(2, wheel.advance(START + 1_000, expired::add));
+        assertEquals(List.of("due-1", "due-2"), expired);
+
+        // The wheel carries on from the new time, in whatever bucket it wrapped to
+        wheel.schedule("next", START + 1_015);
+        assertEquals(1, wheel.advance(START + 1_020, expired::add));
+        assertEquals(0, wheel.advance(START + 1_029, expired::add));
+        assertEquals(1, wheel.advance(START + 1_030, expired::add));
+        assertEquals(List.of("due-1", "due-2", "next", "after"), expired);
+    }
+
+    @Test
+    void sameItemScheduledTwiceFiresTwice() {
+        // No cancellation: a renewal adds a second timeout and the handler decides which one counts
+        wheel.schedule("renewed", START + 20);
+        wheel.schedule("renewed", START + 60);
+
+        wheel.advance(START + 20, expired::add);
+        wheel.advance(START + 60, expired::add);
+        assertEquals(List.of("renewed", "renewed"), expired);
+    }
+
+    @Test
+    void deadlineBetweenTicksIsRoundedUp() {
+        wheel.schedule("x", START + 1);
+
+        assertEquals(0, wheel.advance(START + 9, expired::add));
+        assertEquals(1, wheel.advance(START + 10, expired::add));
+        assertEquals(List.of("x"), expired);
+    }
+}